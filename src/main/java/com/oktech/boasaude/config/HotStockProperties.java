@@ -0,0 +1,26 @@
+package com.oktech.boasaude.config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração do modo "hot" de estoque, para produtos em promoção relâmpago.
+ * Desligado por padrão; quando ligado, vale apenas para os produtos listados.
+ */
+@ConfigurationProperties(prefix = "inventory.hot")
+public record HotStockProperties(
+        @DefaultValue("false") boolean enabled,
+        Set<UUID> products,
+        @DefaultValue("100") int leaseSize,
+        @DefaultValue("8") int stripes,
+        @DefaultValue("30s") Duration idleTimeout,
+        @DefaultValue("2m") Duration recoveryTimeout) {
+
+    public HotStockProperties {
+        products = products != null ? products : Set.of();
+    }
+}
@@ -0,0 +1,13 @@
+package com.oktech.boasaude.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do controle de estoque.
+ */
+@EnableConfigurationProperties(HotStockProperties.class)
+@Configuration
+public class InventoryConfig {
+
+}
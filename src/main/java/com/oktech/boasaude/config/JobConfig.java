@@ -0,0 +1,13 @@
+package com.oktech.boasaude.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração dos jobs em segundo plano.
+ */
+@EnableConfigurationProperties(JobProperties.class)
+@Configuration
+public class JobConfig {
+
+}
@@ -0,0 +1,47 @@
+package com.oktech.boasaude.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração dos workers de jobs em segundo plano.
+ */
+@ConfigurationProperties(prefix = "jobs")
+public record JobProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2") int defaultConcurrency,
+        Map<String, Integer> concurrency,
+        @DefaultValue("5m") Duration visibilityTimeout,
+        @DefaultValue("5") int maxAttempts,
+        @DefaultValue("10s") Duration initialBackoff,
+        @DefaultValue("30m") Duration maxBackoff,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("1000") int purgeBatchSize) {
+
+    public JobProperties {
+        concurrency = concurrency == null ? Map.of() : Map.copyOf(concurrency);
+    }
+
+    /**
+     * Jobs do tipo que podem rodar ao mesmo tempo nesta instância.
+     *
+     * @param type Tipo do job.
+     */
+    public int concurrency(String type) {
+        return concurrency.getOrDefault(type, defaultConcurrency);
+    }
+
+    /**
+     * Espera antes da próxima tentativa: dobra a cada falha, até maxBackoff.
+     *
+     * @param attempts Tentativas já feitas (1 na primeira falha).
+     */
+    public Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,32 @@
+package com.oktech.boasaude.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da entrega dos eventos do outbox.
+ */
+@ConfigurationProperties(prefix = "outbox")
+public record OutboxProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100") int batchSize,
+        @DefaultValue("1m") Duration claimTimeout,
+        @DefaultValue("10") int maxAttempts,
+        @DefaultValue("1s") Duration initialBackoff,
+        @DefaultValue("10m") Duration maxBackoff,
+        @DefaultValue("7d") Duration retention,
+        @DefaultValue("1000") int purgeBatchSize) {
+
+    /**
+     * Espera antes da próxima tentativa: dobra a cada falha, até maxBackoff.
+     *
+     * @param attempts Tentativas já feitas (1 na primeira falha).
+     */
+    public Duration backoff(int attempts) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
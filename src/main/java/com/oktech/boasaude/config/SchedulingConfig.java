@@ -0,0 +1,14 @@
+package com.oktech.boasaude.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuração de tarefas agendadas.
+ * Habilita o suporte a métodos anotados com @Scheduled.
+ */
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+
+}
@@ -0,0 +1,95 @@
+package com.oktech.boasaude.config.bloom;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.repository.UserRepository;
+import com.oktech.boasaude.repository.UserRepository.IdentityView;
+
+/**
+ * Bloom filters com os emails e CPFs já cadastrados.
+ * Usados no cadastro para pular as consultas de existência quando o valor
+ * certamente não existe. Enquanto o aquecimento não termina, todo valor é
+ * tratado como "talvez presente".
+ * O filtro é apenas um atalho: as constraints UNIQUE da tabela users continuam
+ * sendo a garantia de unicidade, inclusive para cadastros feitos em outros nós.
+ */
+@Component
+public class RegisteredUserFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredUserFilter.class);
+
+    private static final int WARM_UP_PAGE_SIZE = 5000;
+
+    private final UserRepository userRepository;
+
+    private final BloomFilter emails;
+
+    private final BloomFilter cpfs;
+
+    private volatile boolean warmedUp;
+
+    public RegisteredUserFilter(UserRepository userRepository,
+            @Value("${security.registration-filter.expected-users:1000000}") long expectedUsers,
+            @Value("${security.registration-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.emails = BloomFilter.create(expectedUsers, falsePositiveRate);
+        this.cpfs = BloomFilter.create(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Carrega os emails e CPFs existentes, em páginas ordenadas por ID.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long startedAt = System.nanoTime();
+        long loaded = 0;
+        UUID after = new UUID(0, 0);
+        List<IdentityView> page;
+        do {
+            page = userRepository.findIdentitiesAfter(after, Limit.of(WARM_UP_PAGE_SIZE));
+            for (IdentityView identity : page) {
+                add(identity.getEmail(), identity.getCpf());
+                after = identity.getId();
+            }
+            loaded += page.size();
+        } while (page.size() == WARM_UP_PAGE_SIZE);
+        warmedUp = true;
+        logger.info("Registration filter warmed up with {} users in {} ms", loaded,
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    /**
+     * Registra o email e o CPF de um usuário gravado.
+     */
+    public void add(String email, String cpf) {
+        if (email != null) {
+            emails.put(email);
+        }
+        if (cpf != null) {
+            cpfs.put(cpf);
+        }
+    }
+
+    /**
+     * @return false apenas se o email certamente não está cadastrado.
+     */
+    public boolean mightContainEmail(String email) {
+        return !warmedUp || emails.mightContain(email);
+    }
+
+    /**
+     * @return false apenas se o CPF certamente não está cadastrado.
+     */
+    public boolean mightContainCpf(String cpf) {
+        return !warmedUp || cpfs.mightContain(cpf);
+    }
+}
@@ -0,0 +1,13 @@
+package com.oktech.boasaude.config.exception;
+
+/**
+ * Lançada quando uma Idempotency-Key ainda está sendo usada por outra
+ * requisição que não terminou. Respondida com 409, para que o cliente repita
+ * mais tarde e receba a resposta original.
+ */
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String idempotencyKey) {
+        super("A request with this Idempotency-Key is still in progress: " + idempotencyKey);
+    }
+}
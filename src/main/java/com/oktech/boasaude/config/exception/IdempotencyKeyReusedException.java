@@ -0,0 +1,12 @@
+package com.oktech.boasaude.config.exception;
+
+/**
+ * Lançada quando uma Idempotency-Key já usada é reapresentada com um corpo
+ * diferente do da requisição original. Respondida com 422.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key already used with a different request: " + idempotencyKey);
+    }
+}
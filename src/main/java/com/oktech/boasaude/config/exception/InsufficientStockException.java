@@ -0,0 +1,20 @@
+package com.oktech.boasaude.config.exception;
+
+import java.util.UUID;
+
+import lombok.Getter;
+
+/**
+ * Lançada quando um produto não tem estoque suficiente para um pedido.
+ * Respondida com 409; a transação do pedido é desfeita.
+ */
+@Getter
+public class InsufficientStockException extends RuntimeException {
+
+    private final UUID productId;
+
+    public InsufficientStockException(UUID productId) {
+        super("Insufficient stock for product: " + productId);
+        this.productId = productId;
+    }
+}
@@ -0,0 +1,28 @@
+package com.oktech.boasaude.config.exception;
+
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.OrderStatus;
+
+import lombok.Getter;
+
+/**
+ * Lançada quando um pedido não pode passar do status atual para o pedido.
+ * Respondida com 409.
+ */
+@Getter
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final UUID orderId;
+
+    private final OrderStatus currentStatus;
+
+    private final OrderStatus targetStatus;
+
+    public InvalidStatusTransitionException(UUID orderId, OrderStatus currentStatus, OrderStatus targetStatus) {
+        super("Order " + orderId + " cannot change from " + currentStatus + " to " + targetStatus);
+        this.orderId = orderId;
+        this.currentStatus = currentStatus;
+        this.targetStatus = targetStatus;
+    }
+}
@@ -0,0 +1,12 @@
+package com.oktech.boasaude.config.exception;
+
+/**
+ * Lançada quando uma requisição excede o limite configurado e deve ser
+ * respondida com 429.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
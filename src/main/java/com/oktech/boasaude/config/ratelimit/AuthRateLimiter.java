@@ -0,0 +1,92 @@
+package com.oktech.boasaude.config.ratelimit;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.config.ratelimit.RateLimitProperties.BucketLimit;
+import com.oktech.boasaude.config.ratelimit.RateLimitProperties.RouteLimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rate limiter das rotas /v1/auth.
+ * O limite por IP é aplicado num filtro, antes de qualquer leitura do corpo; o
+ * limite por email é aplicado no controller, antes do BCrypt. Requisições
+ * recusadas não custam nenhum hash de senha.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+
+    private final RateLimitProperties properties;
+
+    private final StripedRateLimiter limiter;
+
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiter = new StripedRateLimiter(properties.stripes(), System::nanoTime);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("auth.rate_limit.buckets", limiter, StripedRateLimiter::size)
+                .description("Token buckets currently held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifica o limite por IP da rota.
+     *
+     * @param route    Nome da rota (login, register, refresh).
+     * @param clientIp IP do cliente.
+     * @return true se a requisição pode seguir.
+     */
+    public boolean allowIp(String route, String clientIp) {
+        RouteLimit limit = properties.routes().get(route);
+        return limit == null || check(route, "ip", clientIp, limit.ip());
+    }
+
+    /**
+     * Verifica o limite por email da rota.
+     *
+     * @param route Nome da rota (login, register, refresh).
+     * @param email Email informado na requisição.
+     * @return true se a requisição pode seguir.
+     */
+    public boolean allowEmail(String route, String email) {
+        RouteLimit limit = properties.routes().get(route);
+        return limit == null || email == null
+                || check(route, "email", email.trim().toLowerCase(Locale.ROOT), limit.email());
+    }
+
+    /**
+     * Remove periodicamente os buckets ociosos.
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limit.eviction-interval:1m}")
+    public void evictIdleBuckets() {
+        int evicted = limiter.evictIdle(properties.idleTimeout().toNanos());
+        logger.debug("Evicted {} idle rate limit buckets", evicted);
+    }
+
+    private boolean check(String route, String dimension, String key, BucketLimit limit) {
+        if (!properties.enabled() || limit == null) {
+            return true;
+        }
+        boolean allowed = limiter.tryAcquire(route + ':' + dimension + ':' + key,
+                limit.capacity(), limit.refillPerMinute());
+        if (!allowed) {
+            Counter.builder("auth.rate_limit.rejected")
+                    .tag("route", route)
+                    .tag("key", dimension)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return allowed;
+    }
+}
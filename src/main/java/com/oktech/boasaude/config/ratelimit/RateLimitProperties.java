@@ -0,0 +1,36 @@
+package com.oktech.boasaude.config.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração do rate limiting das rotas de autenticação.
+ * Cada rota (login, register, refresh) pode ter um limite por IP e um limite
+ * por email; rotas sem configuração não são limitadas.
+ */
+@ConfigurationProperties(prefix = "security.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("64") int stripes,
+        @DefaultValue("10m") Duration idleTimeout,
+        Map<String, RouteLimit> routes) {
+
+    public RateLimitProperties {
+        routes = routes != null ? routes : Map.of();
+    }
+
+    /**
+     * Limites de uma rota. Qualquer um dos dois pode ser omitido.
+     */
+    public record RouteLimit(BucketLimit ip, BucketLimit email) {
+    }
+
+    /**
+     * Tamanho do bucket e quantidade de tokens devolvidos por minuto.
+     */
+    public record BucketLimit(int capacity, int refillPerMinute) {
+    }
+}
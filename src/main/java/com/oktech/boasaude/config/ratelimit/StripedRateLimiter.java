@@ -0,0 +1,128 @@
+package com.oktech.boasaude.config.ratelimit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter em memória baseado em token buckets, um por chave.
+ * Os buckets ficam distribuídos em stripes, cada uma com seu próprio lock, de
+ * forma que requisições de chaves diferentes raramente disputam o mesmo lock.
+ */
+public class StripedRateLimiter {
+
+    private final Stripe[] stripes;
+
+    private final int mask;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * @param stripes   Quantidade de stripes (arredondada para potência de 2).
+     * @param nanoClock Relógio monotônico em nanossegundos.
+     */
+    public StripedRateLimiter(int stripes, LongSupplier nanoClock) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Tenta consumir um token do bucket da chave.
+     *
+     * @param key             Chave do bucket.
+     * @param capacity        Quantidade máxima de tokens (rajada permitida).
+     * @param refillPerMinute Tokens devolvidos ao bucket por minuto.
+     * @return true se a requisição pode seguir.
+     */
+    public boolean tryAcquire(String key, int capacity, int refillPerMinute) {
+        long now = nanoClock.getAsLong();
+        double tokensPerNano = refillPerMinute / 60_000_000_000d;
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            TokenBucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new TokenBucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+            return bucket.tryConsume(now, capacity, tokensPerNano);
+        }
+    }
+
+    /**
+     * Remove os buckets sem uso há mais tempo que o limite informado. Um bucket
+     * ocioso já estaria cheio, então removê-lo não altera nenhum limite.
+     *
+     * @param idleNanos Tempo de inatividade, em nanossegundos.
+     * @return Quantidade de buckets removidos.
+     */
+    public int evictIdle(long idleNanos) {
+        long now = nanoClock.getAsLong();
+        int evicted = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<TokenBucket> iterator = stripe.buckets.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next().lastSeen > idleNanos) {
+                        iterator.remove();
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Quantidade de buckets em memória.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+
+    private static final class Stripe {
+        private final Map<String, TokenBucket> buckets = new HashMap<>();
+    }
+
+    private static final class TokenBucket {
+
+        private double tokens;
+
+        private long lastRefill;
+
+        private long lastSeen;
+
+        private TokenBucket(int capacity, long now) {
+            this.tokens = capacity;
+            this.lastRefill = now;
+            this.lastSeen = now;
+        }
+
+        private boolean tryConsume(long now, int capacity, double tokensPerNano) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            lastSeen = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+
+/**
+ * Snapshot imutável do usuário autenticado.
+ * Guarda apenas os dados necessários para montar o principal da requisição,
+ * sem o hash da senha nem o estado gerenciado pelo JPA.
+ */
+public record AuthenticatedUser(
+        UUID id,
+        String name,
+        String email,
+        String cpf,
+        String phone,
+        UserRole role,
+        boolean active,
+        int tokenVersion) {
+
+    /**
+     * Cria o snapshot a partir da entidade carregada do banco.
+     *
+     * @param user Entidade User.
+     * @return Snapshot do usuário.
+     */
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getCpf(),
+                user.getPhone(),
+                user.getRole(),
+                user.isActive(),
+                user.getTokenVersion());
+    }
+
+    /**
+     * Materializa um User desanexado (sem senha) para ser usado como principal.
+     * Os controllers e serviços continuam recebendo um User, mas a instância é
+     * nova a cada requisição e nunca é compartilhada entre threads.
+     *
+     * @return Um User desanexado com os dados do snapshot.
+     */
+    public User toUser() {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setEmail(email);
+        user.setCpf(cpf);
+        user.setPhone(phone);
+        user.setRole(role);
+        user.setActive(active);
+        user.setTokenVersion(tokenVersion);
+        return user;
+    }
+}
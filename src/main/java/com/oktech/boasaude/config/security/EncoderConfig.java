@@ -1,5 +1,6 @@
 package com.oktech.boasaude.config.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +10,35 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class EncoderConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        return new RehashingBCryptPasswordEncoder(strength);
+    }
+
+    /**
+     * BCryptPasswordEncoder que pede um novo hash sempre que o custo do hash
+     * armazenado for diferente do custo configurado, inclusive quando o custo
+     * é reduzido.
+     */
+    static class RehashingBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private final int strength;
+
+        RehashingBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            // Formato: $2a$10$<salt+hash>
+            if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+                return false;
+            }
+            try {
+                return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
     }
 }
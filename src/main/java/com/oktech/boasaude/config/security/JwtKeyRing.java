@@ -0,0 +1,209 @@
+package com.oktech.boasaude.config.security;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.algorithms.Algorithm;
+
+/**
+ * Chaves usadas para assinar e verificar JWTs.
+ * Em HS256 há apenas o segredo compartilhado. Em RS256 guarda as chaves
+ * públicas por kid, a chave privada ativa e a representação JWKS publicada em
+ * /.well-known/jwks.json.
+ */
+@Component
+public class JwtKeyRing {
+
+    public static final String HS256 = "HS256";
+
+    public static final String RS256 = "RS256";
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private final Algorithm hmacAlgorithm;
+
+    private final Map<String, RSAPublicKey> publicKeys;
+
+    private final String activeKid;
+
+    private final Algorithm signingAlgorithm;
+
+    public JwtKeyRing(@Value("${jwt.secret}") String secret, JwtSigningProperties properties) {
+        boolean rsa = RS256.equalsIgnoreCase(properties.algorithm());
+        if (!rsa && !HS256.equalsIgnoreCase(properties.algorithm())) {
+            throw new IllegalArgumentException("Unsupported JWT signing algorithm: " + properties.algorithm());
+        }
+        this.hmacAlgorithm = !rsa || properties.acceptHmac() ? Algorithm.HMAC256(secret) : null;
+
+        if (!rsa) {
+            this.publicKeys = Map.of();
+            this.activeKid = null;
+            this.signingAlgorithm = hmacAlgorithm;
+            return;
+        }
+
+        List<JwtSigningProperties.Key> keys = properties.keys();
+        if (keys.isEmpty()) {
+            keys = List.of(ephemeralKey());
+        }
+
+        Map<String, RSAPublicKey> publicKeys = new LinkedHashMap<>();
+        Map<String, RSAPrivateKey> privateKeys = new LinkedHashMap<>();
+        for (JwtSigningProperties.Key key : keys) {
+            if (key.kid() == null || key.kid().isBlank()) {
+                throw new IllegalArgumentException("Every JWT signing key needs a kid");
+            }
+            RSAPrivateKey privateKey = key.privateKey() != null ? parsePrivateKey(key.privateKey()) : null;
+            RSAPublicKey publicKey = key.publicKey() != null
+                    ? parsePublicKey(key.publicKey())
+                    : derivePublicKey(privateKey, key.kid());
+            publicKeys.put(key.kid(), publicKey);
+            if (privateKey != null) {
+                privateKeys.put(key.kid(), privateKey);
+            }
+        }
+
+        String activeKid = properties.activeKid() != null
+                ? properties.activeKid()
+                : privateKeys.keySet().stream().findFirst().orElse(null);
+        RSAPrivateKey activeKey = activeKid != null ? privateKeys.get(activeKid) : null;
+        if (activeKey == null) {
+            throw new IllegalArgumentException("No private key configured for active JWT kid: " + activeKid);
+        }
+
+        this.publicKeys = Collections.unmodifiableMap(publicKeys);
+        this.activeKid = activeKid;
+        this.signingAlgorithm = Algorithm.RSA256(publicKeys.get(activeKid), activeKey);
+        logger.info("JWT signing with RS256, active kid {} ({} verification keys)", activeKid, publicKeys.size());
+    }
+
+    /**
+     * Algoritmo usado para assinar novos tokens.
+     */
+    public Algorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    /**
+     * kid gravado no cabeçalho dos novos tokens, ou null em HS256.
+     */
+    public String activeKid() {
+        return activeKid;
+    }
+
+    /**
+     * Algoritmo HMAC para tokens sem kid, ou null se eles não são aceitos.
+     */
+    public Algorithm hmacAlgorithm() {
+        return hmacAlgorithm;
+    }
+
+    /**
+     * Chave pública de um kid, ou null se o kid não é conhecido.
+     */
+    public RSAPublicKey publicKey(String kid) {
+        return publicKeys.get(kid);
+    }
+
+    /**
+     * Chaves públicas no formato JWK Set (RFC 7517). Vazio em HS256.
+     */
+    public Map<String, Object> jwks() {
+        List<Map<String, String>> jwks = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("use", "sig");
+            jwk.put("alg", RS256);
+            jwk.put("kid", kid);
+            jwk.put("n", base64Url(key.getModulus()));
+            jwk.put("e", base64Url(key.getPublicExponent()));
+            jwks.add(jwk);
+        });
+        return Map.of("keys", jwks);
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static RSAPublicKey parsePublicKey(String pem) {
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid RSA public key", e);
+        }
+    }
+
+    private static RSAPrivateKey parsePrivateKey(String pem) {
+        try {
+            return (RSAPrivateKey) KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(decodePem(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid RSA private key (PKCS#8 PEM expected)", e);
+        }
+    }
+
+    private static RSAPublicKey derivePublicKey(RSAPrivateKey privateKey, String kid) {
+        if (!(privateKey instanceof RSAPrivateCrtKey crtKey)) {
+            throw new IllegalArgumentException("JWT key " + kid + " needs a public key");
+        }
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                    .generatePublic(new RSAPublicKeySpec(crtKey.getModulus(), crtKey.getPublicExponent()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid RSA private key for kid " + kid, e);
+        }
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    /**
+     * Gera uma chave temporária quando RS256 é usado sem chaves configuradas.
+     * Serve apenas para desenvolvimento: os tokens não sobrevivem a um restart e
+     * não são aceitos por outras instâncias.
+     */
+    private static JwtSigningProperties.Key ephemeralKey() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            String kid = "ephemeral-" + UUID.randomUUID();
+            logger.warn("No JWT signing keys configured, using ephemeral RSA key {}", kid);
+            Base64.Encoder encoder = Base64.getEncoder();
+            return new JwtSigningProperties.Key(kid,
+                    encoder.encodeToString(keyPair.getPublic().getEncoded()),
+                    encoder.encodeToString(keyPair.getPrivate().getEncoded()));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA not available", e);
+        }
+    }
+}
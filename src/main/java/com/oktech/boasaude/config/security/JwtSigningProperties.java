@@ -0,0 +1,35 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração das chaves de assinatura dos JWTs.
+ * Com algorithm=HS256 (padrão) os tokens continuam assinados com jwt.secret.
+ * Com algorithm=RS256 cada chave tem um kid; novos tokens são assinados com a
+ * chave ativa e qualquer chave da lista verifica os tokens que assinou, o que
+ * permite rotacionar chaves sem invalidar todas as sessões.
+ * Tokens HS256 sem kid só são aceitos em RS256 com accept-hmac=true, a ser
+ * ligado apenas durante a migração (por um access-token-ttl) e desligado em
+ * seguida.
+ */
+@ConfigurationProperties(prefix = "jwt.signing")
+public record JwtSigningProperties(
+        @DefaultValue("HS256") String algorithm,
+        String activeKid,
+        List<Key> keys,
+        @DefaultValue("false") boolean acceptHmac) {
+
+    public JwtSigningProperties {
+        keys = keys != null ? keys : List.of();
+    }
+
+    /**
+     * Chave RSA em PEM. Chaves aposentadas podem ter apenas a chave pública,
+     * para continuar verificando tokens emitidos antes da rotação.
+     */
+    public record Key(String kid, String publicKey, String privateKey) {
+    }
+}
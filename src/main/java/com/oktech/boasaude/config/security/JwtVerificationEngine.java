@@ -0,0 +1,192 @@
+package com.oktech.boasaude.config.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Motor de assinatura e verificação de JWT criado uma única vez na
+ * inicialização.
+ * Mantém um JWTVerifier reutilizável (thread-safe) por kid, criado no primeiro
+ * token de cada chave, e um cache pequeno do digest SHA-256 do token para as
+ * claims já verificadas. Tokens sem kid são verificados com o HMAC de
+ * jwt.secret, quando aceito.
+ * Um cliente que reenvia o mesmo bearer token não paga de novo a verificação
+ * do HMAC nem a decodificação Base64/JSON. Cada entrada expira junto com o
+ * token (ou após o TTL máximo, o que vier primeiro), e somente tokens válidos
+ * entram no cache.
+ */
+@Component
+public class JwtVerificationEngine {
+
+    public static final String ISSUER = "oktech";
+
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Verificador dos tokens sem kid (HS256), ou null se eles não são aceitos.
+     */
+    private final JWTVerifier hmacVerifier;
+
+    /**
+     * Verificadores por kid. Só contém kids presentes no JwtKeyRing.
+     */
+    private final Map<String, JWTVerifier> verifiersByKid = new ConcurrentHashMap<>();
+
+    private final Cache<String, DecodedJWT> verifiedTokens;
+
+    public JwtVerificationEngine(JwtKeyRing keyRing,
+            @Value("${jwt.verified-cache.max-size:10000}") long maxSize,
+            @Value("${jwt.verified-cache.max-ttl:5m}") Duration maxTtl,
+            MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        this.hmacVerifier = keyRing.hmacAlgorithm() != null ? buildVerifier(keyRing.hmacAlgorithm()) : null;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
+    }
+
+    /**
+     * Assina um token com a chave ativa, gravando o kid no cabeçalho.
+     *
+     * @param builder Token a ser assinado, já com as claims.
+     * @return O JWT assinado.
+     */
+    public String sign(JWTCreator.Builder builder) {
+        String kid = keyRing.activeKid();
+        if (kid != null) {
+            builder.withKeyId(kid);
+        }
+        return builder.sign(keyRing.signingAlgorithm());
+    }
+
+    /**
+     * Verifica o token, reutilizando o resultado de uma verificação anterior
+     * quando o mesmo token ainda está no cache.
+     *
+     * @param token O JWT recebido.
+     * @return O token decodificado e verificado.
+     * @throws JWTVerificationException se o token for inválido ou expirado.
+     */
+    public DecodedJWT verify(String token) {
+        String digest = digest(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        DecodedJWT decoded = verifyUncached(token);
+        verifiedTokens.put(digest, decoded);
+        return decoded;
+    }
+
+    /**
+     * Verifica o token sempre, sem consultar o cache.
+     *
+     * @param token O JWT recebido.
+     * @return O token decodificado e verificado.
+     * @throws JWTVerificationException se o token for inválido ou expirado.
+     */
+    public DecodedJWT verifyUncached(String token) {
+        DecodedJWT decoded = JWT.decode(token);
+        return verifierFor(decoded.getKeyId()).verify(decoded);
+    }
+
+    /**
+     * Escolhe o verificador pelo kid do cabeçalho. Cada verificador está preso
+     * ao algoritmo da sua chave, então um token não escolhe como é verificado.
+     */
+    private JWTVerifier verifierFor(String kid) {
+        if (kid == null) {
+            if (hmacVerifier == null) {
+                throw new JWTVerificationException("Tokens without kid are not accepted");
+            }
+            return hmacVerifier;
+        }
+        JWTVerifier verifier = verifiersByKid.computeIfAbsent(kid, this::buildRsaVerifier);
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown JWT kid: " + kid);
+        }
+        return verifier;
+    }
+
+    private JWTVerifier buildRsaVerifier(String kid) {
+        var publicKey = keyRing.publicKey(kid);
+        return publicKey != null ? buildVerifier(Algorithm.RSA256(publicKey, null)) : null;
+    }
+
+    private static JWTVerifier buildVerifier(Algorithm algorithm) {
+        return JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+    }
+
+    /**
+     * O cache é indexado pelo digest, e não pelo token em si, para não manter
+     * credenciais reutilizáveis em memória.
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Expira cada entrada no instante de expiração do próprio token, limitado
+     * ao TTL máximo configurado.
+     */
+    private static final class TokenExpiry implements Expiry<String, DecodedJWT> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT value, long currentTime) {
+            Instant expiresAt = value.getExpiresAtAsInstant();
+            if (expiresAt == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), expiresAt).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, DecodedJWT value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.oktech.boasaude.config.security;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.oktech.boasaude.entity.User;
+
+/**
+ * Authentication montado a partir de um token já verificado, que só carrega o
+ * usuário quando getPrincipal() é chamado pela primeira vez.
+ * Nome e autoridades vêm das claims, então a autorização por papel e as rotas
+ * que não leem o principal não tocam no cache nem no banco.
+ * Cada instância pertence a uma única requisição.
+ */
+public class LazyUserAuthentication extends AbstractAuthenticationToken {
+
+    private final AuthenticatedUser claims;
+
+    private final transient Function<AuthenticatedUser, AuthenticatedUser> resolver;
+
+    private User principal;
+
+    /**
+     * @param claims      Claims verificadas do token.
+     * @param authorities Autoridades derivadas do papel presente no token.
+     * @param resolver    Carrega o usuário a partir das claims; deve lançar uma
+     *                    AuthenticationException se o usuário não puder mais ser
+     *                    autenticado.
+     */
+    public LazyUserAuthentication(AuthenticatedUser claims, Collection<? extends GrantedAuthority> authorities,
+            Function<AuthenticatedUser, AuthenticatedUser> resolver) {
+        super(authorities);
+        this.claims = claims;
+        this.resolver = resolver;
+        setAuthenticated(true);
+    }
+
+    /**
+     * Retorna o usuário autenticado, carregando-o na primeira chamada.
+     */
+    @Override
+    public Object getPrincipal() {
+        if (principal == null) {
+            principal = resolver.apply(claims).toUser();
+        }
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return claims.email();
+    }
+
+    /**
+     * @return true se o usuário já foi carregado nesta requisição.
+     */
+    public boolean isResolved() {
+        return principal != null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        // Não chama getPrincipal(), para que logs não disparem o carregamento.
+        return getClass().getSimpleName() + " [Name=" + getName() + ", Granted Authorities=" + getAuthorities()
+                + ", Resolved=" + isResolved() + "]";
+    }
+}
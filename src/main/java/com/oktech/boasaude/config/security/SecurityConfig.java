@@ -2,51 +2,97 @@ package com.oktech.boasaude.config.security;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.cors.CorsConfiguration;
 
+import com.oktech.boasaude.config.ratelimit.AuthRateLimitFilter;
+import com.oktech.boasaude.config.ratelimit.AuthRateLimiter;
+import com.oktech.boasaude.config.ratelimit.RateLimitProperties;
 import com.oktech.boasaude.service.TokenService;
-import com.oktech.boasaude.service.UserService;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({ RateLimitProperties.class, JwtSigningProperties.class })
 public class SecurityConfig {
 
-    private final UserService userService;
+    private final UserPrincipalCache principalCache;
     private final TokenService tokenService;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final AuthRateLimiter authRateLimiter;
 
-    public SecurityConfig(UserService userService, TokenService tokenService) {
-        this.userService = userService;
+    /**
+     * Modo de autenticação: "cached" (padrão) carrega o usuário pelo cache de
+     * principais; "claims" usa apenas as claims verificadas do token.
+     */
+    @Value("${security.auth.mode:cached}")
+    private String authMode;
+
+    public SecurityConfig(UserPrincipalCache principalCache, TokenService tokenService,
+            TokenRevocationRegistry revocationRegistry, AuthRateLimiter authRateLimiter) {
+        this.principalCache = principalCache;
         this.tokenService = tokenService;
+        this.revocationRegistry = revocationRegistry;
+        this.authRateLimiter = authRateLimiter;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
-        UserAuthenticationFilter filter = new UserAuthenticationFilter(tokenService, userService);
+        RequestMatcher publicRoutes = publicRoutes();
+        UserAuthenticationFilter filter = new UserAuthenticationFilter(tokenService, principalCache,
+                revocationRegistry, "claims".equalsIgnoreCase(authMode), publicRoutes);
 
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource())) // Habilita CORS no Spring Security
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/v1/auth/**", "/actuator/**", "/v3/api-docs/**", "/swagger-ui.html",
-                                "/swagger-ui/**", "v1/products/get/**", "v1/shops/all", "v1/shops/{shopId}/products")
+                        .requestMatchers(publicRoutes)
                         .permitAll()
+                        .requestMatchers("/v1/admin/**", "/actuator/**")
+                        .hasRole("ADMIN")
                         .anyRequest()
                         .authenticated())
+                .addFilterBefore(new AuthRateLimitFilter(authRateLimiter), UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(filter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Rotas liberadas sem autenticação. O filtro de autenticação também as
+     * ignora, então o catálogo público não verifica tokens nem carrega usuários.
+     * Do Actuator, só health e info são públicos; os demais endpoints (métricas,
+     * fila de jobs) exigem ADMIN.
+     */
+    private static RequestMatcher publicRoutes() {
+        PathPatternRequestMatcher.Builder path = PathPatternRequestMatcher.withDefaults();
+        return new OrRequestMatcher(
+                path.matcher("/v1/auth/**"),
+                path.matcher("/actuator/health/**"),
+                path.matcher("/actuator/info"),
+                path.matcher("/v3/api-docs/**"),
+                path.matcher("/swagger-ui.html"),
+                path.matcher("/swagger-ui/**"),
+                path.matcher(HttpMethod.GET, "/.well-known/jwks.json"),
+                path.matcher(HttpMethod.GET, "/v1/products/get/**"),
+                path.matcher(HttpMethod.GET, "/v1/shops/all"),
+                path.matcher(HttpMethod.GET, "/v1/shops/{shopId}/products"));
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration)
             throws Exception {
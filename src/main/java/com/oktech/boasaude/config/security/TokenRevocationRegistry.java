@@ -0,0 +1,153 @@
+package com.oktech.boasaude.config.security;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.repository.UserRepository;
+import com.oktech.boasaude.repository.UserRepository.TokenVersionView;
+
+/**
+ * Lista em memória de usuários com tokens revogados.
+ * Para cada usuário revogado dentro da janela de validade de um access token,
+ * guarda a versão mínima aceita; tokens com versão menor são rejeitados sem
+ * consultar o banco.
+ * A lista é recarregada em segundo plano e armazenada em arrays ordenados
+ * (dois longs e um int por usuário), trocados atomicamente a cada recarga.
+ * Revogações feitas neste nó valem imediatamente, antes da próxima recarga.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final UserRepository userRepository;
+
+    private final Duration window;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /**
+     * Revogações locais ainda não vistas por uma recarga, com o instante em que
+     * foram registradas.
+     */
+    private final Map<UUID, LocalRevocation> localRevocations = new ConcurrentHashMap<>();
+
+    public TokenRevocationRegistry(UserRepository userRepository,
+            @Value("${jwt.access-token-ttl:15m}") Duration window) {
+        this.userRepository = userRepository;
+        this.window = window;
+    }
+
+    /**
+     * Verifica se um token com a versão informada foi revogado.
+     *
+     * @param userId       ID do usuário do token.
+     * @param tokenVersion Versão gravada no token.
+     * @return true se o token não deve mais ser aceito.
+     */
+    public boolean isRevoked(UUID userId, int tokenVersion) {
+        LocalRevocation local = localRevocations.get(userId);
+        if (local != null && tokenVersion < local.tokenVersion()) {
+            return true;
+        }
+        return tokenVersion < snapshot.minimumVersion(userId);
+    }
+
+    /**
+     * Registra uma revogação feita neste nó, sem esperar pela próxima recarga.
+     *
+     * @param userId       ID do usuário.
+     * @param tokenVersion Nova versão mínima aceita.
+     */
+    public void revoke(UUID userId, int tokenVersion) {
+        localRevocations.merge(userId, new LocalRevocation(tokenVersion, System.nanoTime()),
+                (current, next) -> next.tokenVersion() >= current.tokenVersion() ? next : current);
+    }
+
+    /**
+     * Recarrega a lista a partir do banco.
+     */
+    @Scheduled(fixedDelayString = "${security.auth.revocation-refresh-interval:15s}")
+    public void refresh() {
+        long startedAt = System.nanoTime();
+        List<TokenVersionView> revoked = userRepository
+                .findTokenVersionsRevokedSince(LocalDateTime.now().minus(window));
+        snapshot = Snapshot.of(revoked);
+        localRevocations.values().removeIf(local -> local.registeredAt() - startedAt < 0);
+        logger.debug("Token revocation list refreshed with {} users", revoked.size());
+    }
+
+    private record LocalRevocation(int tokenVersion, long registeredAt) {
+    }
+
+    /**
+     * Lista imutável ordenada por (mostSignificantBits, leastSignificantBits).
+     */
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(new long[0], new long[0], new int[0]);
+
+        private final long[] most;
+        private final long[] least;
+        private final int[] versions;
+
+        private Snapshot(long[] most, long[] least, int[] versions) {
+            this.most = most;
+            this.least = least;
+            this.versions = versions;
+        }
+
+        private static Snapshot of(List<TokenVersionView> revoked) {
+            TokenVersionView[] sorted = revoked.toArray(new TokenVersionView[0]);
+            Arrays.sort(sorted, Comparator.comparing(TokenVersionView::getId, Snapshot::compareUnsigned));
+            long[] most = new long[sorted.length];
+            long[] least = new long[sorted.length];
+            int[] versions = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                most[i] = sorted[i].getId().getMostSignificantBits();
+                least[i] = sorted[i].getId().getLeastSignificantBits();
+                versions[i] = sorted[i].getTokenVersion();
+            }
+            return new Snapshot(most, least, versions);
+        }
+
+        private int minimumVersion(UUID userId) {
+            long m = userId.getMostSignificantBits();
+            long l = userId.getLeastSignificantBits();
+            int low = 0;
+            int high = most.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = Long.compareUnsigned(most[mid], m);
+                if (cmp == 0) {
+                    cmp = Long.compareUnsigned(least[mid], l);
+                }
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return versions[mid];
+                }
+            }
+            return 0;
+        }
+
+        private static int compareUnsigned(UUID a, UUID b) {
+            int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+            return cmp != 0 ? cmp : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+        }
+    }
+}
@@ -3,12 +3,13 @@ package com.oktech.boasaude.config.security;
 import java.io.IOException;
 import java.util.UUID;
 
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import com.oktech.boasaude.service.TokenService;
-import com.oktech.boasaude.service.UserService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,16 +19,44 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+/**
+ * Verifica o bearer token de cada requisição e registra um
+ * LazyUserAuthentication no contexto de segurança.
+ * O token (assinatura, expiração e revogação) é validado imediatamente; o
+ * usuário só é carregado quando alguém lê o principal. Rotas públicas não
+ * passam por este filtro.
+ */
 public class UserAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
-    private final UserService userService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
+
+    /**
+     * Quando true, o Authentication é montado apenas com as claims do token,
+     * sem consultar o usuário no banco ou no cache.
+     */
+    private final boolean claimsOnly;
+
+    /**
+     * Rotas públicas, que nunca leem o principal.
+     */
+    private final RequestMatcher publicRoutes;
 
     private static final Logger logger = LoggerFactory.getLogger(UserAuthenticationFilter.class);
 
-    public UserAuthenticationFilter(TokenService tokenService, UserService userService) {
+    public UserAuthenticationFilter(TokenService tokenService, UserPrincipalCache principalCache,
+            TokenRevocationRegistry revocationRegistry, boolean claimsOnly, RequestMatcher publicRoutes) {
         this.tokenService = tokenService;
-        this.userService = userService;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.claimsOnly = claimsOnly;
+        this.publicRoutes = publicRoutes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return publicRoutes.matches(request);
     }
 
     @Override
@@ -40,29 +69,45 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
 
         if (tokenJWT != null) {
             try {
-                UUID userId = tokenService.getUserIdFromToken(tokenJWT);
+                AuthenticatedUser claims = tokenService.getAuthenticatedUserFromToken(tokenJWT);
                 // logger.info("Token JWT recuperado: {}", tokenJWT); // Removed to avoid
                 // logging sensitive token information
-                if (userId == null) {
+                if (claims == null) {
                     logger.warn("Token inválido ou expirado (userId nulo)");
                     response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token inválido ou expirado (userId nulo)");
                     return;
                 }
 
-                var user = userService.getUserById(userId);
-                logger.debug("User retrieved: {}", user != null ? user.getUsername() : "null");
-                if (user == null) {
-                    logger.warn("Usuário não encontrado com ID: {}", userId);
-                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuário não encontrado");
+                UUID userId = claims.id();
+                if (revocationRegistry.isRevoked(userId, claims.tokenVersion())) {
+                    logger.warn("Token revogado para o usuário com ID: {}", userId);
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revogado");
                     return;
                 }
 
-                var authentication = new UsernamePasswordAuthenticationToken(
-                        user, null, user.getAuthorities());
-                logger.debug("Authenticated user: {}", user.getUsername());
+                LazyUserAuthentication authentication;
+                if (claims.role() != null) {
+                    authentication = new LazyUserAuthentication(claims, claims.role().getAuthorities(),
+                            claimsOnly ? c -> c : this::loadPrincipal);
+                } else if (!claimsOnly) {
+                    // Tokens antigos, sem o papel nas claims: carrega o usuário agora
+                    // para obter as autoridades.
+                    AuthenticatedUser principal = loadPrincipal(claims);
+                    authentication = new LazyUserAuthentication(claims, principal.role().getAuthorities(),
+                            c -> principal);
+                } else {
+                    logger.warn("Token sem papel para o usuário com ID: {}", userId);
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuário não encontrado");
+                    return;
+                }
+                logger.debug("Authenticated user: {}", authentication.getName());
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
+            } catch (BadCredentialsException | CredentialsExpiredException e) {
+                logger.warn("{} para o usuário do token", e.getMessage());
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, e.getMessage());
+                return;
             } catch (Exception e) {
                 logger.error("Erro ao autenticar token", e);
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Erro ao autenticar token");
@@ -73,6 +118,26 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Carrega o usuário do token pelo cache de principais e confere se ele
+     * ainda pode ser autenticado.
+     *
+     * @param claims Claims verificadas do token.
+     * @return Snapshot do usuário.
+     * @throws BadCredentialsException     se o usuário não existe ou está inativo.
+     * @throws CredentialsExpiredException se o token foi revogado.
+     */
+    private AuthenticatedUser loadPrincipal(AuthenticatedUser claims) {
+        AuthenticatedUser principal = principalCache.get(claims.id());
+        if (principal == null || !principal.active() || principal.role() == null) {
+            throw new BadCredentialsException("Usuário não encontrado");
+        }
+        if (principal.tokenVersion() > claims.tokenVersion()) {
+            throw new CredentialsExpiredException("Token revogado");
+        }
+        return principal;
+    }
+
     private String recuperarToken(HttpServletRequest request) {
         var authorizationHeader = request.getHeader("Authorization");
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
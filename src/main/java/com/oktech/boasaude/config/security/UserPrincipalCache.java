@@ -0,0 +1,64 @@
+package com.oktech.boasaude.config.security;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.oktech.boasaude.repository.UserRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache em memória dos principais autenticados, indexado pelo ID do usuário.
+ * Evita uma consulta à tabela users em toda requisição autenticada.
+ * As entradas expiram após um TTL, o tamanho é limitado e as estatísticas de
+ * hit/miss são publicadas no Micrometer como "cache.*{cache=user-principals}".
+ */
+@Component
+public class UserPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private final LoadingCache<UUID, AuthenticatedUser> cache;
+
+    public UserPrincipalCache(UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build(id -> userRepository.findById(id).map(AuthenticatedUser::from).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-principals");
+    }
+
+    /**
+     * Obtém o snapshot do usuário, carregando do banco em caso de miss.
+     * Usuários inexistentes não são armazenados.
+     *
+     * @param userId ID do usuário.
+     * @return O snapshot do usuário ou null se não existir.
+     */
+    public AuthenticatedUser get(UUID userId) {
+        return cache.get(userId);
+    }
+
+    /**
+     * Remove o usuário do cache. Deve ser chamado sempre que os dados do
+     * usuário mudarem.
+     *
+     * @param userId ID do usuário.
+     */
+    public void invalidate(UUID userId) {
+        logger.debug("Invalidating cached principal for user ID: {}", userId);
+        cache.invalidate(userId);
+    }
+}
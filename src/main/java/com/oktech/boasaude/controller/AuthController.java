@@ -3,14 +3,23 @@ package com.oktech.boasaude.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.oktech.boasaude.config.exception.RateLimitExceededException;
+import com.oktech.boasaude.config.ratelimit.AuthRateLimiter;
+import com.oktech.boasaude.config.security.PasswordHashingExecutor;
 import com.oktech.boasaude.dto.CreateUserDto;
 import com.oktech.boasaude.dto.LoginUserDto;
+import com.oktech.boasaude.dto.RefreshTokenRequestDto;
 import com.oktech.boasaude.dto.TokenResponse;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.RefreshTokenService;
 import com.oktech.boasaude.service.TokenService;
 import com.oktech.boasaude.service.UserService;
 
 import jakarta.validation.Valid;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
@@ -41,6 +50,18 @@ public class AuthController {
 
     private final TokenService tokenService;
 
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Executor limitado onde roda a verificação BCrypt do login.
+     */
+    private final PasswordHashingExecutor passwordHashingExecutor;
+
+    /**
+     * Limite por email, verificado antes de qualquer hash de senha.
+     */
+    private final AuthRateLimiter authRateLimiter;
+
     private static Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     /**
@@ -48,10 +69,15 @@ public class AuthController {
      * 
      * @param userService UserService para manipulação de usuários.
      */
-    public AuthController(UserService userService, AuthenticationManager manager, TokenService tokenService) {
+    public AuthController(UserService userService, AuthenticationManager manager, TokenService tokenService,
+            RefreshTokenService refreshTokenService, PasswordHashingExecutor passwordHashingExecutor,
+            AuthRateLimiter authRateLimiter) {
         this.userService = userService;
         this.manager = manager;
         this.tokenService = tokenService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.authRateLimiter = authRateLimiter;
     }
 
     /**
@@ -63,6 +89,9 @@ public class AuthController {
 
     @PostMapping("register")
     public ResponseEntity<String> registerUser(@RequestBody @Valid CreateUserDto createUserDto) {
+        if (!authRateLimiter.allowEmail("register", createUserDto.email())) {
+            throw new RateLimitExceededException("Too many registration attempts");
+        }
         try {
             logger.info("Registering user: {}", createUserDto);
 
@@ -76,20 +105,74 @@ public class AuthController {
         }
     }
 
+    /**
+     * Endpoint para login.
+     * A verificação da senha roda no executor de hashing, liberando a thread do
+     * Tomcat; se o executor estiver saturado, a requisição é recusada com 503.
+     * Tentativas acima do limite por email são recusadas com 429 antes do BCrypt.
+     * O usuário carregado na autenticação é reutilizado para assinar o token.
+     * 
+     * @param loginUserDto DTO com email e senha.
+     * @return Futuro com o access token e o refresh token.
+     */
     @PostMapping("login")
-    public ResponseEntity<TokenResponse> loginUser(@RequestBody @Valid LoginUserDto loginUserDto) {
+    public CompletableFuture<ResponseEntity<TokenResponse>> loginUser(@RequestBody @Valid LoginUserDto loginUserDto) {
         logger.info("User login attempt: {}", loginUserDto.email());
-        try {
-            var authenticationToken = new UsernamePasswordAuthenticationToken(
-                    loginUserDto.email(), loginUserDto.password());
+        if (!authRateLimiter.allowEmail("login", loginUserDto.email())) {
+            throw new RateLimitExceededException("Too many login attempts");
+        }
+        var authenticationToken = new UsernamePasswordAuthenticationToken(
+                loginUserDto.email(), loginUserDto.password());
+
+        return passwordHashingExecutor.submit(() -> manager.authenticate(authenticationToken))
+                .thenApply(authentication -> {
+                    User user = (User) authentication.getPrincipal();
+                    String token = tokenService.generateToken(user);
+                    String refreshToken = refreshTokenService.issue(user);
+                    return ResponseEntity.ok(new TokenResponse(token, refreshToken,
+                            tokenService.getAccessTokenTtlSeconds()));
+                })
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof AuthenticationException) {
+                        logger.error("Authentication failed for user: {}", loginUserDto.email(), cause);
+                        return ResponseEntity.status(401).body(new TokenResponse("Invalid credentials"));
+                    }
+                    throw ex instanceof CompletionException completionException
+                            ? completionException
+                            : new CompletionException(cause);
+                });
+    }
 
-            var authentication = manager.authenticate(authenticationToken);
+    /**
+     * Endpoint para renovar o access token a partir de um refresh token.
+     * O refresh token apresentado é rotacionado: o cliente deve guardar o novo
+     * token retornado e descartar o anterior.
+     * 
+     * @param refreshTokenRequestDto DTO com o refresh token atual.
+     * @return ResponseEntity com o novo access token e o novo refresh token.
+     */
+    @PostMapping("refresh")
+    public ResponseEntity<TokenResponse> refreshToken(@RequestBody @Valid RefreshTokenRequestDto refreshTokenRequestDto) {
+        return refreshTokenService.rotate(refreshTokenRequestDto.refreshToken())
+                .map(rotation -> ResponseEntity.ok(new TokenResponse(
+                        tokenService.generateToken(rotation.user()),
+                        rotation.refreshToken(),
+                        tokenService.getAccessTokenTtlSeconds())))
+                .orElseGet(() -> ResponseEntity.status(401).body(new TokenResponse("Invalid refresh token")));
+    }
 
-            String token = tokenService.generateToken(authentication.getName());
-            return ResponseEntity.ok(new TokenResponse(token));
-        } catch (AuthenticationException ex) {
-            logger.error("Authentication failed for user: {}", loginUserDto.email(), ex);
-            return ResponseEntity.status(401).body(new TokenResponse("Invalid credentials"));
-        }
+    /**
+     * Endpoint para logout: revoga o refresh token apresentado e todos os
+     * tokens da mesma família. Responde 204 mesmo para tokens desconhecidos.
+     * O access token atual continua válido até expirar.
+     *
+     * @param refreshTokenRequestDto DTO com o refresh token atual.
+     * @return ResponseEntity sem corpo.
+     */
+    @PostMapping("logout")
+    public ResponseEntity<Void> logout(@RequestBody @Valid RefreshTokenRequestDto refreshTokenRequestDto) {
+        refreshTokenService.revoke(refreshTokenRequestDto.refreshToken());
+        return ResponseEntity.noContent().build();
     }
 }
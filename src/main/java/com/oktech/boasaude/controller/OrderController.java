@@ -1,6 +1,7 @@
 package com.oktech.boasaude.controller;
 
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,11 +10,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.security.core.Authentication;
 
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -28,12 +32,17 @@ import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 
+import com.oktech.boasaude.dto.BulkOrderStatusDto;
+import com.oktech.boasaude.dto.BulkOrderStatusReport;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
 import com.oktech.boasaude.dto.OrderResponseDto;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.ExportService;
+import com.oktech.boasaude.service.ExportService.Format;
 import com.oktech.boasaude.service.OrderService;
+import com.oktech.boasaude.service.OrderService.CreatedOrder;
 
 /**
  * Controller for managing orders in the application.
@@ -51,19 +60,34 @@ import com.oktech.boasaude.service.OrderService;
 public class OrderController {
     private final OrderService orderService;
 
+    private final ExportService exportService;
+
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
     
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, ExportService exportService) {
         this.orderService = orderService;
+        this.exportService = exportService;
     }
 
+    /**
+     * Cria um pedido. Com o header Idempotency-Key, repetições da mesma
+     * requisição recebem o pedido original, marcadas com Idempotent-Replayed.
+     */
     @PostMapping("/create")
     public ResponseEntity<OrderResponseDto> createOrder(
         @Valid @RequestBody @NotEmpty List<CreateOrderItemDto> createOrderDto, 
+        @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
         Authentication authentication) {
         
         User currentUser = (User) authentication.getPrincipal();
-        Order order = orderService.createOrder(currentUser, createOrderDto);
+        CreatedOrder created = orderService.createOrder(currentUser, createOrderDto, idempotencyKey);
+
+        if (created.replayed()) {
+            logger.info("Order {} replayed for user: {}", created.order().id(), currentUser.getId());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header("Idempotent-Replayed", "true")
+                    .body(created.order());
+        }
         
         logger.info("Order created successfully for user: {}", currentUser.getId());
         
@@ -71,17 +95,28 @@ public class OrderController {
             logger.info("Order item added: Product ID: {}, Quantity: {}", item.productId(), item.quantity());
         }
 
-        OrderResponseDto responseDto = new OrderResponseDto(order);
-        return new ResponseEntity<>(responseDto, HttpStatus.CREATED);
+        return new ResponseEntity<>(created.order(), HttpStatus.CREATED);
     }
 
+    /**
+     * Lista os pedidos do usuário. Pedidos arquivados (meses antigos, já
+     * finalizados) só aparecem com includeArchived=true.
+     */
     @GetMapping()
     public ResponseEntity<Page<OrderResponseDto>> getOrders(
         @ParameterObject @PageableDefault(page = 0, size = 10) Pageable pageable,
+        @RequestParam(defaultValue = "false") boolean includeArchived,
         Authentication authentication) {
         
         User currentUser = (User) authentication.getPrincipal();
 
+        if (includeArchived) {
+            Page<OrderResponseDto> history = orderService.getOrderHistory(pageable, currentUser);
+            logger.info("Retrieved {} orders, including archived, for user: {}",
+                    history.getTotalElements(), currentUser.getId());
+            return new ResponseEntity<>(history, HttpStatus.OK);
+        }
+
         Page<Order> orders = orderService.getOrdersByUserId(pageable, currentUser);
 
         Page<OrderResponseDto> response = orders.map(OrderResponseDto::new);
@@ -91,6 +126,26 @@ public class OrderController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    /**
+     * Exporta todos os pedidos do usuário em NDJSON (um pedido por linha) ou
+     * CSV (um item por linha), comprimidos com gzip se o cliente aceitar.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestParam(defaultValue = "false") boolean includeArchived,
+        @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+        Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+        Format exportFormat = Format.parse(format);
+
+        StreamingResponseBody body = exportService.exportOrders(currentUser.getId(), includeArchived, exportFormat);
+        logger.info("Exporting orders as {} for user: {}", exportFormat, currentUser.getId());
+
+        return ExportResponses.of(body, exportFormat, "orders", acceptEncoding);
+    }
+
     @PostMapping("/buy/{orderId}/{status}")
     public ResponseEntity<OrderResponseDto> updateOrderStatus(
         @PathVariable UUID orderId, 
@@ -105,11 +160,29 @@ public class OrderController {
             return ResponseEntity.badRequest().build();
         }
 
-        Order updatedOrder = orderService.updateOrderStatus(orderId, status, currentUser);
+        OrderResponseDto updatedOrder = orderService.updateOrderStatus(orderId, status, currentUser);
         
         logger.info("Order status updated successfully for order ID: {}", orderId);
         
-        return new ResponseEntity<>(new OrderResponseDto(updatedOrder), HttpStatus.OK);
+        return new ResponseEntity<>(updatedOrder, HttpStatus.OK);
+    }
+
+    /**
+     * Muda o status de vários pedidos de uma vez, com as mesmas regras da
+     * mudança individual. Administradores podem mudar pedidos de qualquer
+     * usuário. Responde com o resultado de cada pedido.
+     */
+    @PostMapping("/status/bulk")
+    public ResponseEntity<BulkOrderStatusReport> updateOrderStatuses(
+        @Valid @RequestBody BulkOrderStatusDto bulkOrderStatusDto,
+        Authentication authentication) {
+
+        User currentUser = (User) authentication.getPrincipal();
+
+        BulkOrderStatusReport report = orderService.updateOrderStatuses(
+                bulkOrderStatusDto.orderIds(), bulkOrderStatusDto.status(), currentUser);
+
+        return ResponseEntity.ok(report);
     }
 
 }
@@ -1,4 +1,5 @@
 package com.oktech.boasaude.controller;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -7,13 +8,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.oktech.boasaude.dto.ProductResponseDto;
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
 import com.oktech.boasaude.dto.ShopResponseDto;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto;
 import com.oktech.boasaude.entity.Product;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.ExportService;
+import com.oktech.boasaude.service.ExportService.Format;
 import com.oktech.boasaude.service.ShopService; 
 import com.oktech.boasaude.service.ProductService;
 
@@ -23,13 +31,18 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.RequestBody;
 import jakarta.validation.Valid;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 
 /**
  * ShopController é responsável por gerenciar as operações relacionadas às lojas.
@@ -47,13 +60,15 @@ import org.springframework.data.domain.Pageable;
 public class ShopController {
     private final ShopService shopService;
     private final ProductService productService;
+    private final ExportService exportService;
 
 
     private static final Logger logger = LoggerFactory.getLogger(ShopController.class);
 
-    public ShopController(ShopService shopService, ProductService productService) {
+    public ShopController(ShopService shopService, ProductService productService, ExportService exportService) {
         this.shopService = shopService;
         this.productService = productService;
+        this.exportService = exportService;
     }
 
     /**
@@ -80,6 +95,84 @@ public class ShopController {
         return ResponseEntity.ok(responseDtoPage);
     }
 
+    /**
+     * Exporta o catálogo completo da loja em NDJSON ou CSV, comprimido com gzip
+     * se o cliente aceitar.
+     * @param shopId ID da loja.
+     * @param format Formato da exportação: ndjson ou csv.
+     * @return ResponseEntity com o corpo escrito durante a leitura.
+     */
+    @GetMapping("/{shopId}/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProductsByShopId(@PathVariable UUID shopId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        Format exportFormat = Format.parse(format);
+        StreamingResponseBody body = exportService.exportShopProducts(shopId, exportFormat);
+        logger.info("Exporting products of shop ID {} as {}", shopId, exportFormat);
+
+        return ExportResponses.of(body, exportFormat, "shop-" + shopId + "-products", acceptEncoding);
+    }
+
+    /**
+     * Painel de vendas da loja: totais por dia e produtos mais vendidos no
+     * período, por padrão os últimos 30 dias. Restrito ao dono da loja e a ADMIN.
+     * @param shopId ID da loja.
+     * @param from Primeiro dia do período (ISO, inclusive).
+     * @param to Último dia do período (ISO, inclusive).
+     * @param authentication Objeto Authentication do Spring Security.
+     * @return ResponseEntity com o painel de vendas.
+     */
+    @GetMapping("/{shopId}/dashboard")
+    public ResponseEntity<ShopSalesDashboardDto> getSalesDashboard(@PathVariable UUID shopId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User currentUser = (User) authentication.getPrincipal();
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(29);
+
+        ShopSalesDashboardDto dashboard = shopService.getSalesDashboard(shopId, start, end, currentUser);
+        logger.info("Sales dashboard of shop ID {} retrieved for user ID: {}", shopId, currentUser.getId());
+        return ResponseEntity.ok(dashboard);
+    }
+
+    /**
+     * Caixa de pedidos da loja: pedidos com produtos da loja, mais recentes
+     * primeiro, filtrados por status e período. Restrito ao dono da loja e a ADMIN.
+     * @param shopId ID da loja.
+     * @param status Status aceitos (pode repetir); sem valor aceita todos.
+     * @param from Primeiro dia do período (ISO, inclusive).
+     * @param to Último dia do período (ISO, inclusive).
+     * @param pageable Objeto Pageable para paginação.
+     * @param authentication Objeto Authentication do Spring Security.
+     * @return ResponseEntity com a página de pedidos, cada um com os itens da loja.
+     */
+    @GetMapping("/{shopId}/orders")
+    public ResponseEntity<Page<ShopOrderResponseDto>> getShopOrders(@PathVariable UUID shopId,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @ParameterObject @PageableDefault(page = 0, size = 20) Pageable pageable,
+            Authentication authentication) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
+            logger.warn("User not authenticated");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User currentUser = (User) authentication.getPrincipal();
+        Page<ShopOrderResponseDto> orders = shopService.getShopOrders(shopId, status, from, to, pageable,
+                currentUser);
+        logger.info("Retrieved {} orders of shop ID {} for user ID: {}", orders.getTotalElements(), shopId,
+                currentUser.getId());
+        return ResponseEntity.ok(orders);
+    }
+
     /**
      * Cria uma nova loja associada ao usuário autenticado.
      * @param shopCreateDto DTO com os dados da loja a ser criada.
@@ -0,0 +1,55 @@
+package com.oktech.boasaude.controller;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.oktech.boasaude.service.impl.ShopSalesRebuildJob;
+import com.oktech.boasaude.service.job.JobQueue;
+
+/**
+ * Endpoints administrativos das vendas por loja. Restritos a ADMIN no
+ * SecurityConfig.
+ */
+@RestController
+@RequestMapping("/v1/admin/shops/sales")
+public class ShopSalesAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShopSalesAdminController.class);
+
+    private final JobQueue jobQueue;
+
+    public ShopSalesAdminController(JobQueue jobQueue) {
+        this.jobQueue = jobQueue;
+    }
+
+    /**
+     * Agenda a reconstrução das vendas diárias de todas as lojas no período a
+     * partir dos pedidos. O recálculo roda em um job, um dia por transação; o
+     * andamento pode ser acompanhado em /actuator/jobs/{jobId}.
+     *
+     * @param from Primeiro dia (ISO, inclusive).
+     * @param to   Último dia (ISO, inclusive).
+     * @return 202 com o ID do job.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        UUID jobId = jobQueue.enqueue(ShopSalesRebuildJob.TYPE, new ShopSalesRebuildJob.Range(from, to));
+        logger.info("Scheduled shop sales rebuild from {} to {} as job {}", from, to, jobId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/actuator/jobs/" + jobId))
+                .body(Map.of("from", from, "to", to, "jobId", jobId));
+    }
+}
@@ -3,6 +3,8 @@ package com.oktech.boasaude.controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.oktech.boasaude.config.security.AuthenticatedUser;
+import com.oktech.boasaude.config.security.UserPrincipalCache;
 import com.oktech.boasaude.dto.UserResponseDto;
 import com.oktech.boasaude.entity.User;
 
@@ -18,6 +20,12 @@ public class UserController {
 
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
+    private final UserPrincipalCache principalCache;
+
+    public UserController(UserPrincipalCache principalCache) {
+        this.principalCache = principalCache;
+    }
+
     @GetMapping
     public ResponseEntity<UserResponseDto> getUser(Authentication authentication) {
         if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
@@ -27,8 +35,16 @@ public class UserController {
 
         User user = (User) authentication.getPrincipal();
 
+        // No modo de autenticação por claims o principal não traz CPF e
+        // telefone, então o perfil é lido do cache de principais.
+        AuthenticatedUser profile = principalCache.get(user.getId());
+        if (profile == null) {
+            logger.warn("User not found with ID: {}", user.getId());
+            return ResponseEntity.status(401).build();
+        }
+
         logger.info("User retrieved successfully with ID: {}", user.getId());
-        return ResponseEntity.ok(new UserResponseDto(user));
+        return ResponseEntity.ok(new UserResponseDto(profile.toUser()));
     }
 
 }
@@ -0,0 +1,59 @@
+package com.oktech.boasaude.controller;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.oktech.boasaude.dto.UserImportReport;
+import com.oktech.boasaude.service.UserImportService;
+import com.oktech.boasaude.service.UserImportService.Format;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Endpoints administrativos de usuários. Restritos a ADMIN no SecurityConfig.
+ */
+@RestController
+@RequestMapping("/v1/admin/users")
+public class UserImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportController.class);
+
+    private final UserImportService userImportService;
+
+    public UserImportController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Importa usuários em lote a partir de um arquivo CSV (text/csv) ou NDJSON
+     * (application/x-ndjson), lido em streaming do corpo da requisição.
+     *
+     * @param contentType Tipo do conteúdo enviado.
+     * @param request     Requisição com o arquivo no corpo.
+     * @return Relatório com o resultado de cada linha.
+     */
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<UserImportReport> importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Format format = mediaType.isCompatibleWith(MediaType.parseMediaType("text/csv")) ? Format.CSV : Format.NDJSON;
+        Charset charset = mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8;
+
+        logger.info("Starting {} user import", format);
+        UserImportReport report = userImportService.importUsers(
+                new InputStreamReader(request.getInputStream(), charset), format);
+        return ResponseEntity.ok(report);
+    }
+}
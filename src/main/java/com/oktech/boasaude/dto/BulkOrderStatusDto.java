@@ -0,0 +1,19 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * DTO para mudar o status de vários pedidos de uma vez.
+ */
+public record BulkOrderStatusDto(
+    @NotEmpty(message = "A lista de pedidos é obrigatória")
+    List<@NotNull UUID> orderIds,
+
+    @NotBlank(message = "O status é obrigatório")
+    String status
+) {}
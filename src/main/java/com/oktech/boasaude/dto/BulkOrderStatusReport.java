@@ -0,0 +1,38 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO com o resultado de uma mudança de status em lote.
+ * Traz os totais e o resultado de cada pedido, na ordem em que foram enviados.
+ */
+public record BulkOrderStatusReport(
+        String status,
+        int total,
+        int updated,
+        List<OrderResult> orders) {
+
+    public static BulkOrderStatusReport of(String status, List<OrderResult> orders) {
+        int updated = (int) orders.stream().filter(order -> order.outcome() == Outcome.UPDATED).count();
+        return new BulkOrderStatusReport(status, orders.size(), updated, orders);
+    }
+
+    /**
+     * Resultado de um pedido.
+     *
+     * @param orderId       ID do pedido.
+     * @param outcome       Resultado da mudança.
+     * @param currentStatus Status do pedido depois da operação, ou null se o
+     *                      pedido não foi encontrado ou não é do usuário.
+     */
+    public record OrderResult(UUID orderId, Outcome outcome, String currentStatus) {
+    }
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        FORBIDDEN,
+        INVALID_TRANSITION
+    }
+}
@@ -16,7 +16,7 @@ public record OrderItemResponseDto(
         this(
             item.getId(),
             item.getProduct().getId(),
-            item.getProduct().getName(),
+            item.getProductName(),
             item.getQuantity(),
             item.getTotalPrice()
         );
@@ -1,5 +1,6 @@
 package com.oktech.boasaude.dto;
 
+import java.math.BigInteger;
 import java.util.List;
 
 import com.oktech.boasaude.entity.Order;
@@ -8,18 +9,21 @@ import com.oktech.boasaude.entity.Order;
 public record OrderResponseDto(
     String id,
     String status,
+    BigInteger totalPrice,
     List<OrderItemResponseDto> items
 ) {
     /**
      * Construtor para criar um ResponseOrderDto a partir de uma lista de ResponseOrderItemDto.
      * @param id O ID do pedido.
      * @param status O status do pedido.
+     * @param totalPrice O total do pedido, em centavos.
      * @param items A lista de itens do pedido.
      */
     public OrderResponseDto(Order order) {
         this(
             order.getId().toString(),
             order.getStatus().name(),
+            order.getTotalPrice(),
             order.getItems().stream().map(OrderItemResponseDto::new).toList()
         );
     }
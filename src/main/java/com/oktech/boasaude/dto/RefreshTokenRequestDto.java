@@ -0,0 +1,11 @@
+package com.oktech.boasaude.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO para renovação do access token.
+ * Contém o refresh token recebido no login ou na última renovação.
+ */
+public record RefreshTokenRequestDto(
+        @NotBlank(message = "Refresh token is required") String refreshToken) {
+}
@@ -0,0 +1,18 @@
+package com.oktech.boasaude.dto;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO de um pedido na caixa de pedidos de uma loja. Traz apenas os itens da
+ * loja, e o total é a soma desses itens, em centavos.
+ */
+public record ShopOrderResponseDto(
+        UUID orderId,
+        String status,
+        LocalDateTime createdAt,
+        BigInteger totalPrice,
+        List<OrderItemResponseDto> items) {
+}
@@ -0,0 +1,42 @@
+package com.oktech.boasaude.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO com as vendas de uma loja num período, lidas das tabelas diárias.
+ * Valores em centavos; pedidos cancelados não contam.
+ */
+public record ShopSalesDashboardDto(
+        UUID shopId,
+        LocalDate from,
+        LocalDate to,
+        long units,
+        long revenueCents,
+        long orderCount,
+        List<DailySales> days,
+        List<ProductSales> topProducts) {
+
+    public static ShopSalesDashboardDto of(UUID shopId, LocalDate from, LocalDate to, List<DailySales> days,
+            List<ProductSales> topProducts) {
+        return new ShopSalesDashboardDto(shopId, from, to,
+                days.stream().mapToLong(DailySales::units).sum(),
+                days.stream().mapToLong(DailySales::revenueCents).sum(),
+                days.stream().mapToLong(DailySales::orderCount).sum(),
+                days, topProducts);
+    }
+
+    /**
+     * Vendas de um dia. Dias sem vendas não aparecem.
+     */
+    public record DailySales(LocalDate day, long units, long revenueCents, long orderCount) {
+    }
+
+    /**
+     * Vendas de um produto no período.
+     */
+    public record ProductSales(UUID productId, String productName, long units, long revenueCents,
+            long orderCount) {
+    }
+}
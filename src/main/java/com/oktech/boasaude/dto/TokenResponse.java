@@ -1,6 +1,16 @@
 package com.oktech.boasaude.dto;
 
+/**
+ * DTO de resposta de autenticação.
+ * Contém o access token, o refresh token usado para renová-lo e a validade do
+ * access token em segundos.
+ */
 public record TokenResponse(
-        String token) {
+        String token,
+        String refreshToken,
+        Long expiresIn) {
 
+    public TokenResponse(String token) {
+        this(token, null, null);
+    }
 }
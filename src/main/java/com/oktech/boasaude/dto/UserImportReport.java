@@ -0,0 +1,42 @@
+package com.oktech.boasaude.dto;
+
+import java.util.List;
+
+/**
+ * DTO com o resultado de uma importação de usuários em lote.
+ * Traz os totais e o resultado de cada linha do arquivo. Se o arquivo passou
+ * do limite de linhas, truncated é true e o relatório cobre só as linhas lidas
+ * até o limite, que foram importadas; as demais não foram processadas.
+ */
+public record UserImportReport(
+        int total,
+        int created,
+        int failed,
+        boolean truncated,
+        List<RowResult> rows) {
+
+    public static UserImportReport of(List<RowResult> rows, boolean truncated) {
+        int created = (int) rows.stream().filter(row -> row.status() == RowStatus.CREATED).count();
+        return new UserImportReport(rows.size(), created, rows.size() - created, truncated, rows);
+    }
+
+    /**
+     * Resultado de uma linha do arquivo.
+     *
+     * @param line    Número da linha no arquivo (começando em 1).
+     * @param email   Email informado na linha, se houver.
+     * @param status  Resultado da linha.
+     * @param message Detalhe do erro, ou null se o usuário foi criado.
+     */
+    public record RowResult(long line, String email, RowStatus status, String message) {
+    }
+
+    public enum RowStatus {
+        CREATED,
+        INVALID,
+        DUPLICATE_IN_FILE,
+        EMAIL_EXISTS,
+        CPF_EXISTS,
+        CONFLICT
+    }
+}
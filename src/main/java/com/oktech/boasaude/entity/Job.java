@@ -0,0 +1,70 @@
+package com.oktech.boasaude.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity that represents a unit of background work.
+ * Jobs are claimed by the workers of any instance and retried with backoff
+ * until they succeed or run out of attempts.
+ */
+@Entity(name = "Job")
+@Table(name = "jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class Job {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private String type; // Selects the handler, e.g. shop-sales.rebuild
+
+    @Column(columnDefinition = "text")
+    private String payload; // Job parameters as JSON
+
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    private int attempts;
+
+    // Not run before this instant (backoff or visibility timeout); set by the database, like createdAt
+    @Column(insertable = false, updatable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime availableAt;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    // Database clock, so that it is comparable with available_at and NOW() in the worker queries
+    @Column(insertable = false, updatable = false)
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt; // Start of the latest attempt
+
+    private LocalDateTime finishedAt;
+
+    public Job(String type, String payload) {
+        this.type = type;
+        this.payload = payload;
+        this.status = JobStatus.PENDING;
+    }
+}
@@ -0,0 +1,11 @@
+package com.oktech.boasaude.entity;
+
+/**
+ * Estado de um job em segundo plano.
+ */
+public enum JobStatus {
+    PENDING, // Aguardando execução ou uma nova tentativa
+    RUNNING, // Reservado por um worker até available_at
+    DONE,    // Concluído com sucesso
+    DEAD     // Desistido depois do número máximo de tentativas
+}
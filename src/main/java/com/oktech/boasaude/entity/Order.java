@@ -12,6 +12,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
@@ -23,7 +24,10 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -56,12 +60,23 @@ public class Order {
     private User user;
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("lineNumber")
     private List<OrderItem> items = new ArrayList<>(); // List of items in the order
     // Timestamps for creation and last update
 
+    // Changed only by OrderStatusTransitionRepository, which also updates the items' copy
     @Enumerated(EnumType.STRING)
+    @Setter(AccessLevel.NONE)
     private OrderStatus status;
 
+    // Sum of the item totals in cents, kept up to date by addItem
+    @Column(name = "total_cents", nullable = false)
+    private long totalCents;
+
+    // Incremented on every change, including status transitions done in SQL
+    @Version
+    private long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -70,35 +85,36 @@ public class Order {
     private LocalDateTime updatedAt;
 
     /**
-     * Calculates the total price of the order by summing the total prices of all
-     * order items.
+     * Returns the total price of the order, persisted in total_cents.
      * 
      * @return Total price as BigInteger.
      */
     @Transient
     public BigInteger getTotalPrice() {
-        return items.stream()
-                .map(OrderItem::getTotalPrice)
-                .reduce(BigInteger.ZERO, BigInteger::add);
+        return BigInteger.valueOf(totalCents);
     }
 
     /**
-     * Constructor to create an Order with a user.
+     * Adds an item to the order as its next line and adds its total to the
+     * order total.
      * 
-     * @param user The user who placed the order.
+     * @param item The item to add.
+     * @throws ArithmeticException if the total overflows a long.
      */
-    public Order(User user) {
-        this.user = user;
-        this.status = OrderStatus.PENDING; // Default status when creating a new order
+    public void addItem(OrderItem item) {
+        items.add(item);
+        item.setLineNumber(items.size());
+        totalCents = Math.addExact(totalCents, item.getTotalCents());
     }
 
     /**
-     * Updates the status of the order.
+     * Constructor to create an Order with a user.
      * 
-     * @param status The new status to set for the order.
+     * @param user The user who placed the order.
      */
-    public void updateStatus(OrderStatus status) {
-        this.status = status;
+    public Order(User user) {
+        this.user = user;
+        this.status = OrderStatus.PENDING; // Default status when creating a new order
     }
 
 }
@@ -4,18 +4,21 @@ import java.math.BigInteger;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -53,8 +56,33 @@ public class OrderItem {
 
     private Integer quantity;
 
-    // Timestamps for creation and last update
-    @CreatedDate
+    // Product price (in cents) and name at the time of purchase
+    @Column(name = "unit_price_cents", nullable = false)
+    private long unitPriceCents;
+
+    @Column(name = "product_name", nullable = false)
+    private String productName;
+
+    // Position of the item in its order, starting at 1, set by Order.addItem;
+    // items are always listed in this order
+    @Column(name = "line_number", nullable = false)
+    private int lineNumber;
+
+    // Shop of the product, copied so that a shop's orders are found without joining products
+    @Column(name = "shop_id")
+    private UUID shopId;
+
+    // Status of the order, kept in sync with it so that a shop's orders can be filtered by status
+    @Enumerated(EnumType.STRING)
+    @Column(name = "order_status")
+    private OrderStatus orderStatus;
+
+    // Stock lease the units came from, for products sold through the hot stock ledger
+    @Column(name = "stock_lease_id")
+    private UUID stockLeaseId;
+
+    // Creation timestamp, copied from the order so that an order and its items
+    // always fall in the same monthly partition
     private LocalDateTime createdAt;
 
     // Timestamp when the user was created
@@ -62,19 +90,39 @@ public class OrderItem {
     private LocalDateTime updatedAt;
 
     /**
-     * Calculates the total price of the order item based on the product price and
+     * Calculates the total of the order item, in cents, from the unit price
+     * recorded at purchase time.
+     * 
+     * @return Total in cents.
+     * @throws ArithmeticException if the total overflows a long.
+     */
+    public long getTotalCents() {
+        return Math.multiplyExact(unitPriceCents, quantity.longValue());
+    }
+
+    /**
+     * Calculates the total price of the order item based on the unit price and
      * quantity.
      * 
      * @return Total price as BigInteger.
      */
     public BigInteger getTotalPrice() {
-        return BigInteger.valueOf(product.getPrice().intValue() * quantity);
+        return BigInteger.valueOf(getTotalCents());
+    }
+
+    @PrePersist
+    void inheritFromOrder() {
+        createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        orderStatus = order.getStatus();
     }
 
     public OrderItem(Order order, Product product, Integer quantity) {
         this.order = order;
         this.product = product;
         this.quantity = quantity;
+        this.unitPriceCents = product.getPrice();
+        this.productName = product.getName();
+        this.shopId = product.getShop() != null ? product.getShop().getId() : null;
     }
     
 }
@@ -1,8 +1,14 @@
 package com.oktech.boasaude.entity;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Enumeração que representa os possíveis status de um pedido.
+ * Um pedido nasce PENDING e pode ser concluído ou cancelado uma única vez;
+ * COMPLETED e CANCELLED são finais.
  * 
  * @author João Martins
  * @version 1.0
@@ -13,6 +19,17 @@ public enum OrderStatus {
     CANCELLED("CANCELLED"),
     COMPLETED("COMPLETED");
 
+    /**
+     * Tabela de transições permitidas, por status de origem.
+     */
+    private static final Map<OrderStatus, Set<OrderStatus>> TRANSITIONS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        TRANSITIONS.put(PENDING, EnumSet.of(CANCELLED, COMPLETED));
+        TRANSITIONS.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+        TRANSITIONS.put(COMPLETED, EnumSet.noneOf(OrderStatus.class));
+    }
+
     private final String status;
 
     OrderStatus(String status) {
@@ -22,4 +39,40 @@ public enum OrderStatus {
     public String getStatus() {
         return status;
     }
+
+    /**
+     * Converte o status recebido na API, sem diferenciar maiúsculas.
+     *
+     * @throws IllegalArgumentException se o valor for vazio ou desconhecido.
+     */
+    public static OrderStatus parse(String status) {
+        if (status == null || status.isEmpty()) {
+            throw new IllegalArgumentException("Status cannot be null or empty.");
+        }
+        try {
+            return valueOf(status.toUpperCase()); // Usa toUpperCase para garantir que combine
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status value: " + status);
+        }
+    }
+
+    /**
+     * @return true se um pedido neste status pode passar para o status informado.
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return TRANSITIONS.get(this).contains(target);
+    }
+
+    /**
+     * @return Os status a partir dos quais um pedido pode chegar ao status informado.
+     */
+    public static Set<OrderStatus> sourcesOf(OrderStatus target) {
+        Set<OrderStatus> sources = EnumSet.noneOf(OrderStatus.class);
+        TRANSITIONS.forEach((source, targets) -> {
+            if (targets.contains(target)) {
+                sources.add(source);
+            }
+        });
+        return sources;
+    }
 }
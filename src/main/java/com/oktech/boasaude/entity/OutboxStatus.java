@@ -0,0 +1,10 @@
+package com.oktech.boasaude.entity;
+
+/**
+ * Estado de um evento do outbox.
+ */
+public enum OutboxStatus {
+    PENDING, // Aguardando entrega ou uma nova tentativa
+    DONE,    // Entregue a todos os handlers
+    DEAD     // Desistido depois do número máximo de tentativas
+}
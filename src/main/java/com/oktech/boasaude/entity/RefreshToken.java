@@ -0,0 +1,76 @@
+package com.oktech.boasaude.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entity that represents a refresh token issued to a user.
+ * Only the SHA-256 hash of the token is stored. Tokens rotated from the same
+ * login share a family, which is revoked as a whole when a rotated token is
+ * presented again.
+ */
+@Entity(name = "RefreshToken")
+@Table(name = "refresh_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+@EntityListeners(AuditingEntityListener.class)
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private UUID familyId; // Shared by every token rotated from the same login
+
+    private String tokenHash; // SHA-256 (hex) of the opaque token
+
+    private int tokenVersion; // User token version at issue time
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime revokedAt; // Set when rotated or revoked
+
+    private UUID replacedBy; // Token that replaced this one
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    public RefreshToken(User user, UUID familyId, String tokenHash, LocalDateTime expiresAt) {
+        this.user = user;
+        this.familyId = familyId;
+        this.tokenHash = tokenHash;
+        this.tokenVersion = user.getTokenVersion();
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isRevoked() {
+        return revokedAt != null;
+    }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+}
@@ -70,6 +70,10 @@ public class User implements UserDetails {
     private String phone; // Phone number of the user
 
     private boolean isActive; // Indicates if the user account is active
+
+    private int tokenVersion; // Incremented whenever previously issued tokens must be revoked
+
+    private LocalDateTime tokensRevokedAt; // Last time tokenVersion was incremented
     // Timestamps for creation and last update
     @CreatedDate
     private LocalDateTime createdAt;
@@ -91,6 +95,14 @@ public class User implements UserDetails {
 
     }
 
+    /**
+     * Revoga todos os tokens emitidos até agora para este usuário.
+     */
+    public void revokeTokens() {
+        this.tokenVersion++;
+        this.tokensRevokedAt = LocalDateTime.now();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return this.role != null
@@ -42,4 +42,14 @@ public enum UserRole {
                 .map(SimpleGrantedAuthority::new)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Verifica se este papel possui todas as autoridades de outro papel.
+     * 
+     * @param other Papel a ser comparado.
+     * @return true se nenhuma autoridade é perdida ao trocar de other para este.
+     */
+    public boolean includes(UserRole other) {
+        return roles.containsAll(other.roles);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.oktech.boasaude.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.oktech.boasaude.entity.Job;
+
+/**
+ * Repositório para gravar e consultar jobs. A reserva e a execução usam SQL
+ * próprio, no {@link com.oktech.boasaude.service.job.JobWorker}.
+ */
+public interface JobRepository extends JpaRepository<Job, UUID> {
+}
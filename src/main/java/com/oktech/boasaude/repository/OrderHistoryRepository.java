@@ -0,0 +1,27 @@
+package com.oktech.boasaude.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.oktech.boasaude.dto.OrderResponseDto;
+
+/**
+ * Leitura do histórico completo de pedidos, incluindo as partições arquivadas
+ * (orders_archive e order_items_archive), que não são vistas pelas consultas
+ * JPA de {@link OrderRepository}.
+ */
+public interface OrderHistoryRepository {
+
+    /**
+     * Página de pedidos do usuário, ativos e arquivados. Os itens vêm da mesma
+     * faixa de partições dos pedidos da página, em uma segunda consulta.
+     * Ordenação aceita: createdAt (padrão, decrescente), status, totalPrice e id.
+     *
+     * @param userId   ID do usuário.
+     * @param pageable Página e ordenação.
+     * @return Página de pedidos, já com os itens.
+     */
+    Page<OrderResponseDto> findHistoryByUserId(UUID userId, Pageable pageable);
+}
@@ -0,0 +1,121 @@
+package com.oktech.boasaude.repository;
+
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
+
+/**
+ * Implementação com JdbcTemplate sobre as views orders_all e order_items_all.
+ * Os itens guardam nome e preço do produto, então nenhuma junção com products
+ * é necessária.
+ */
+public class OrderHistoryRepositoryImpl implements OrderHistoryRepository {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "createdAt", "created_at",
+            "status", "status",
+            "totalPrice", "total_cents",
+            "id", "id");
+
+    private static final String PAGE_SQL = """
+            SELECT id, status, total_cents, created_at
+              FROM orders_all
+             WHERE user_id = ?
+             ORDER BY %s
+             LIMIT ? OFFSET ?
+            """;
+
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM orders_all WHERE user_id = ?";
+
+    /**
+     * O filtro por created_at usa a faixa dos pedidos da página (os itens têm o
+     * created_at do pedido), para que só as partições desses meses sejam lidas.
+     */
+    private static final String ITEMS_SQL = """
+            SELECT id, order_id, product_id, product_name, quantity, unit_price_cents
+              FROM order_items_all
+             WHERE order_id = ANY(?) AND created_at BETWEEN ? AND ?
+             ORDER BY order_id, line_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderHistoryRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<OrderResponseDto> findHistoryByUserId(UUID userId, Pageable pageable) {
+        List<OrderRow> orders = jdbcTemplate.query(PAGE_SQL.formatted(orderBy(pageable.getSort())),
+                (rs, rowNum) -> new OrderRow(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("status"),
+                        rs.getLong("total_cents"),
+                        rs.getTimestamp("created_at")),
+                userId, pageable.getPageSize(), pageable.getOffset());
+
+        Map<UUID, List<OrderItemResponseDto>> items = new LinkedHashMap<>();
+        orders.forEach(order -> items.put(order.id(), new ArrayList<>()));
+        if (!orders.isEmpty()) {
+            Timestamp from = orders.stream().map(OrderRow::createdAt).min(Comparator.naturalOrder()).get();
+            Timestamp to = orders.stream().map(OrderRow::createdAt).max(Comparator.naturalOrder()).get();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(ITEMS_SQL);
+                ps.setArray(1, connection.createArrayOf("uuid", items.keySet().toArray()));
+                ps.setTimestamp(2, from);
+                ps.setTimestamp(3, to);
+                return ps;
+            }, rs -> {
+                long unitPriceCents = rs.getLong("unit_price_cents");
+                int quantity = rs.getInt("quantity");
+                items.get(rs.getObject("order_id", UUID.class)).add(new OrderItemResponseDto(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("product_id", UUID.class),
+                        rs.getString("product_name"),
+                        quantity,
+                        BigInteger.valueOf(Math.multiplyExact(unitPriceCents, quantity))));
+            });
+        }
+
+        List<OrderResponseDto> content = orders.stream()
+                .map(order -> new OrderResponseDto(order.id().toString(), order.status(),
+                        BigInteger.valueOf(order.totalCents()), items.get(order.id())))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.queryForObject(COUNT_SQL, Long.class, userId));
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "created_at DESC, id";
+        }
+        StringJoiner orderBy = new StringJoiner(", ");
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort orders by: " + order.getProperty());
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        return orderBy.add("id").toString();
+    }
+
+    private record OrderRow(UUID id, String status, long totalCents, Timestamp createdAt) {
+    }
+}
@@ -7,6 +7,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.oktech.boasaude.entity.OrderItem;
 
-public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, UUID>, ShopOrderInboxRepository {
     List<OrderItem> findByOrderId(UUID orderId);
 }
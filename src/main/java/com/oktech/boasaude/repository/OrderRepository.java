@@ -1,13 +1,51 @@
 package com.oktech.boasaude.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderStatus;
 
-public interface OrderRepository extends JpaRepository<Order, UUID> {
+public interface OrderRepository
+        extends JpaRepository<Order, UUID>, OrderStatusTransitionRepository, OrderHistoryRepository {
     Page<Order> findByUserId(UUID userId, Pageable pageable);
+
+    /**
+     * Página de IDs de pedidos do usuário. A paginação é feita só sobre os
+     * pedidos; os itens são buscados depois com
+     * {@link #findWithItemsByIdIn}, já que um join fetch de coleção paginado
+     * seria paginado em memória.
+     */
+    @Query(value = "select o.id from Order o where o.user.id = :userId",
+            countQuery = "select count(o) from Order o where o.user.id = :userId")
+    Page<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Busca os pedidos com os itens em uma única consulta. Os itens guardam nome
+     * e preço do produto, então o produto não precisa ser carregado.
+     */
+    @Query("select distinct o from Order o left join fetch o.items where o.id in :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Status e dono atuais de um pedido, usados para explicar uma transição que
+     * não foi aplicada.
+     */
+    @Query("select o.id as id, o.user.id as userId, o.status as status from Order o where o.id in :ids")
+    List<StatusView> findStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    interface StatusView {
+        UUID getId();
+
+        UUID getUserId();
+
+        OrderStatus getStatus();
+    }
 }
@@ -0,0 +1,52 @@
+package com.oktech.boasaude.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Mudanças de status de pedidos em um único comando SQL: o UPDATE condicional,
+ * o incremento da versão, o registro em order_status_history, o evento
+ * order.status-changed no outbox e, no cancelamento, a devolução do estoque
+ * vão juntos em uma ida ao banco.
+ */
+public interface OrderStatusTransitionRepository {
+
+    /**
+     * Muda o status dos pedidos informados que estejam em um status de onde a
+     * transição é permitida. Pedidos em outro status, de outro usuário ou
+     * inexistentes são ignorados.
+     *
+     * @param orderIds  IDs dos pedidos.
+     * @param ownerId   Dono exigido dos pedidos, ou null para não filtrar.
+     * @param target    Novo status.
+     * @param changedBy Usuário registrado no histórico, ou null.
+     * @return As transições feitas, uma por pedido alterado.
+     */
+    List<StatusTransition> transitionStatus(Collection<UUID> orderIds, UUID ownerId, OrderStatus target,
+            UUID changedBy);
+
+    /**
+     * Muda o status de um pedido do dono informado, como em
+     * {@link #transitionStatus}, e devolve o pedido alterado com os itens no
+     * mesmo comando.
+     *
+     * @param orderId   ID do pedido.
+     * @param ownerId   Dono exigido do pedido.
+     * @param target    Novo status.
+     * @param changedBy Usuário registrado no histórico, ou null.
+     * @return O pedido com o novo status, ou vazio se a transição não foi feita.
+     */
+    Optional<OrderResponseDto> transitionOrderStatus(UUID orderId, UUID ownerId, OrderStatus target,
+            UUID changedBy);
+
+    /**
+     * Transição aplicada a um pedido.
+     */
+    record StatusTransition(UUID orderId, OrderStatus fromStatus, OrderStatus toStatus, long version) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.oktech.boasaude.repository;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.service.outbox.OrderEvents;
+
+/**
+ * Implementação com JdbcTemplate, já que um UPDATE com RETURNING encadeado a um
+ * INSERT não tem equivalente em JPQL.
+ */
+public class OrderStatusTransitionRepositoryImpl implements OrderStatusTransitionRepository {
+
+    /**
+     * Bloqueia as linhas em ordem de ID (sem deadlock entre transições em lote);
+     * se outra transação mudar o status antes, a condição é reavaliada e a
+     * linha fica de fora. O status copiado nos itens é atualizado junto, e o
+     * cancelamento devolve ao produto as unidades dos itens (inclusive as que
+     * vieram de um lote do HotStockLedger, que as conta como vendidas). Os
+     * produtos devolvidos também são bloqueados em ordem de ID antes do UPDATE,
+     * a mesma ordem em que a criação de pedidos os bloqueia. O tipo do
+     * agregado e do evento vêm de {@link OrderEvents}, os mesmos que o
+     * ShopSalesRollup compara.
+     */
+    private static final String TRANSITION_SQL = """
+            WITH current AS (
+                SELECT id, status
+                  FROM orders
+                 WHERE id = ANY(?) AND status = ANY(?) %s
+                 ORDER BY id
+                   FOR UPDATE
+            ), updated AS (
+                UPDATE orders o
+                   SET status = ?, version = o.version + 1, updated_at = NOW()
+                  FROM current c
+                 WHERE o.id = c.id
+                RETURNING o.id, o.created_at, o.status AS to_status, c.status AS from_status, o.version,
+                          o.total_cents
+            ), items AS (
+                UPDATE order_items i
+                   SET order_status = u.to_status
+                  FROM updated u
+                 WHERE i.order_id = u.id AND i.created_at = u.created_at
+            ), returned AS (
+                SELECT i.product_id, SUM(i.quantity) AS quantity
+                  FROM order_items i
+                  JOIN updated u ON i.order_id = u.id AND i.created_at = u.created_at
+                 WHERE u.to_status = 'CANCELLED'
+                 GROUP BY i.product_id
+            ), locked_products AS (
+                SELECT id
+                  FROM products
+                 WHERE id IN (SELECT product_id FROM returned)
+                 ORDER BY id
+                   FOR UPDATE
+            ), restocked AS (
+                UPDATE products p
+                   SET stock = p.stock + r.quantity
+                  FROM returned r
+                  JOIN locked_products l ON l.id = r.product_id
+                 WHERE p.id = r.product_id
+            ), history AS (
+                INSERT INTO order_status_history (order_id, from_status, to_status, changed_by)
+                SELECT id, from_status, ?, ? FROM updated
+            ), events AS (
+                INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload)
+                SELECT ?, id, ?,
+                       json_build_object('orderId', id, 'fromStatus', from_status,
+                                         'toStatus', CAST(? AS VARCHAR), 'changedBy', CAST(? AS UUID))::text
+                  FROM updated
+            )
+            %s
+            """;
+
+    private static final String TRANSITIONS_SELECT = "SELECT id, from_status, version FROM updated";
+
+    /**
+     * O pedido alterado com os itens, uma linha por item. Os itens são lidos do
+     * snapshot do início do comando, o que basta: as colunas devolvidas não
+     * mudam na transição.
+     */
+    private static final String ORDER_SELECT = """
+            SELECT u.id, u.total_cents,
+                   i.id AS item_id, i.product_id, i.product_name, i.quantity, i.unit_price_cents
+              FROM updated u
+              LEFT JOIN order_items i ON i.order_id = u.id AND i.created_at = u.created_at
+             ORDER BY i.line_number""";
+
+    private static final String TRANSITION_ANY_OWNER_SQL = TRANSITION_SQL.formatted("", TRANSITIONS_SELECT);
+
+    private static final String TRANSITION_BY_OWNER_SQL = TRANSITION_SQL.formatted("AND user_id = ?",
+            TRANSITIONS_SELECT);
+
+    private static final String TRANSITION_ORDER_SQL = TRANSITION_SQL.formatted("AND user_id = ?", ORDER_SELECT);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStatusTransitionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<StatusTransition> transitionStatus(Collection<UUID> orderIds, UUID ownerId, OrderStatus target,
+            UUID changedBy) {
+        Object[] sources = OrderStatus.sourcesOf(target).stream().map(OrderStatus::name).toArray();
+        if (orderIds.isEmpty() || sources.length == 0) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+                connection -> prepare(connection, ownerId == null ? TRANSITION_ANY_OWNER_SQL : TRANSITION_BY_OWNER_SQL,
+                        orderIds, sources, ownerId, target, changedBy),
+                (rs, rowNum) -> new StatusTransition(
+                        rs.getObject("id", UUID.class),
+                        OrderStatus.valueOf(rs.getString("from_status")),
+                        target,
+                        rs.getLong("version")));
+    }
+
+    @Override
+    public Optional<OrderResponseDto> transitionOrderStatus(UUID orderId, UUID ownerId, OrderStatus target,
+            UUID changedBy) {
+        Object[] sources = OrderStatus.sourcesOf(target).stream().map(OrderStatus::name).toArray();
+        if (sources.length == 0) {
+            return Optional.empty();
+        }
+        return jdbcTemplate.query(
+                connection -> prepare(connection, TRANSITION_ORDER_SQL, List.of(orderId), sources, ownerId, target,
+                        changedBy),
+                rs -> {
+                    if (!rs.next()) {
+                        return Optional.empty();
+                    }
+                    String id = rs.getObject("id", UUID.class).toString();
+                    BigInteger totalPrice = BigInteger.valueOf(rs.getLong("total_cents"));
+                    List<OrderItemResponseDto> items = new ArrayList<>();
+                    do {
+                        UUID itemId = rs.getObject("item_id", UUID.class);
+                        if (itemId != null) {
+                            int quantity = rs.getInt("quantity");
+                            items.add(new OrderItemResponseDto(itemId, rs.getObject("product_id", UUID.class),
+                                    rs.getString("product_name"), quantity, BigInteger.valueOf(
+                                            Math.multiplyExact(rs.getLong("unit_price_cents"), quantity))));
+                        }
+                    } while (rs.next());
+                    return Optional.of(new OrderResponseDto(id, target.name(), totalPrice, items));
+                });
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Collection<UUID> orderIds,
+            Object[] sources, UUID ownerId, OrderStatus target, UUID changedBy) throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        int index = 1;
+        ps.setArray(index++, connection.createArrayOf("uuid", orderIds.toArray()));
+        ps.setArray(index++, connection.createArrayOf("varchar", sources));
+        if (ownerId != null) {
+            ps.setObject(index++, ownerId);
+        }
+        ps.setString(index++, target.name());
+        ps.setString(index++, target.name());
+        ps.setObject(index++, changedBy);
+        ps.setString(index++, OrderEvents.AGGREGATE_TYPE);
+        ps.setString(index++, OrderEvents.STATUS_CHANGED);
+        ps.setString(index++, target.name());
+        ps.setObject(index, changedBy);
+        return ps;
+    }
+}
@@ -0,0 +1,14 @@
+package com.oktech.boasaude.repository;
+
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.oktech.boasaude.entity.OutboxEvent;
+
+/**
+ * Repositório para gravar eventos no outbox. A entrega usa SQL próprio, no
+ * {@link com.oktech.boasaude.service.outbox.OutboxDispatcher}.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, UUID> {
+}
@@ -5,6 +5,9 @@ import com.oktech.boasaude.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.UUID;
 
@@ -27,4 +30,15 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
 
     Page<Product> findByShopId(UUID shopId, Pageable pageable);
 
+    /**
+     * Baixa o estoque de um produto se houver quantidade suficiente, num único
+     * UPDATE condicional. A linha fica bloqueada até o fim da transação.
+     *
+     * @return 1 se o estoque foi baixado, 0 se o produto não existe ou não tem
+     *         estoque suficiente.
+     */
+    @Modifying
+    @Query("update Product p set p.stock = p.stock - :quantity where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
 }
@@ -0,0 +1,32 @@
+package com.oktech.boasaude.repository;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Caixa de pedidos de uma loja, lida apenas de order_items pelo índice
+ * (shop_id, created_at, order_status), sem junção com orders ou products.
+ */
+public interface ShopOrderInboxRepository {
+
+    /**
+     * Página dos pedidos com itens da loja no período, do mais recente para o
+     * mais antigo (ou do mais antigo, com sort=createdAt,asc).
+     *
+     * @param shopId   ID da loja.
+     * @param statuses Status aceitos; vazio aceita todos.
+     * @param from     Início do período, inclusive.
+     * @param to       Fim do período, exclusive.
+     * @param pageable Página e ordenação.
+     * @return Página de pedidos, cada um apenas com os itens da loja.
+     */
+    Page<ShopOrderResponseDto> findShopOrders(UUID shopId, Set<OrderStatus> statuses, LocalDateTime from,
+            LocalDateTime to, Pageable pageable);
+}
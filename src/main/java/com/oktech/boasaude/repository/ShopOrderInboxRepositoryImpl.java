@@ -0,0 +1,151 @@
+package com.oktech.boasaude.repository;
+
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Implementação com JdbcTemplate sobre order_items. Os itens de um pedido
+ * compartilham created_at e order_status, então agrupar por pedido não exige
+ * ler a tabela orders.
+ */
+public class ShopOrderInboxRepositoryImpl implements ShopOrderInboxRepository {
+
+    private static final String FILTER = "shop_id = ? AND created_at >= ? AND created_at < ?";
+
+    private static final String STATUS_FILTER = " AND order_status = ANY(?)";
+
+    private static final String PAGE_SQL = """
+            SELECT order_id, created_at, order_status, SUM(quantity * unit_price_cents) AS total_cents
+              FROM order_items
+             WHERE %s
+             GROUP BY order_id, created_at, order_status
+             ORDER BY created_at %s, order_id
+             LIMIT ? OFFSET ?
+            """;
+
+    private static final String COUNT_SQL = "SELECT COUNT(DISTINCT order_id) FROM order_items WHERE %s";
+
+    private static final String ITEMS_SQL = """
+            SELECT id, order_id, product_id, product_name, quantity, unit_price_cents
+              FROM order_items
+             WHERE shop_id = ? AND order_id = ANY(?) AND created_at BETWEEN ? AND ?
+             ORDER BY order_id, line_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShopOrderInboxRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<ShopOrderResponseDto> findShopOrders(UUID shopId, Set<OrderStatus> statuses, LocalDateTime from,
+            LocalDateTime to, Pageable pageable) {
+        String filter = statuses.isEmpty() ? FILTER : FILTER + STATUS_FILTER;
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+
+        List<OrderRow> orders = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(PAGE_SQL.formatted(filter, direction(pageable)));
+            int index = bindFilter(connection, ps, shopId, statuses, start, end);
+            ps.setInt(index++, pageable.getPageSize());
+            ps.setLong(index, pageable.getOffset());
+            return ps;
+        }, (rs, rowNum) -> new OrderRow(
+                rs.getObject("order_id", UUID.class),
+                rs.getString("order_status"),
+                rs.getTimestamp("created_at"),
+                rs.getLong("total_cents")));
+
+        Map<UUID, List<OrderItemResponseDto>> items = new LinkedHashMap<>();
+        orders.forEach(order -> items.put(order.id(), new ArrayList<>()));
+        if (!orders.isEmpty()) {
+            Timestamp first = orders.stream().map(OrderRow::createdAt).min(Comparator.naturalOrder()).get();
+            Timestamp last = orders.stream().map(OrderRow::createdAt).max(Comparator.naturalOrder()).get();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(ITEMS_SQL);
+                ps.setObject(1, shopId);
+                ps.setArray(2, connection.createArrayOf("uuid", items.keySet().toArray()));
+                ps.setTimestamp(3, first);
+                ps.setTimestamp(4, last);
+                return ps;
+            }, rs -> {
+                long unitPriceCents = rs.getLong("unit_price_cents");
+                int quantity = rs.getInt("quantity");
+                items.get(rs.getObject("order_id", UUID.class)).add(new OrderItemResponseDto(
+                        rs.getObject("id", UUID.class),
+                        rs.getObject("product_id", UUID.class),
+                        rs.getString("product_name"),
+                        quantity,
+                        BigInteger.valueOf(Math.multiplyExact(unitPriceCents, quantity))));
+            });
+        }
+
+        List<ShopOrderResponseDto> content = orders.stream()
+                .map(order -> new ShopOrderResponseDto(order.id(), order.status(),
+                        order.createdAt().toLocalDateTime(), BigInteger.valueOf(order.totalCents()),
+                        items.get(order.id())))
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(COUNT_SQL.formatted(filter));
+                    bindFilter(connection, ps, shopId, statuses, start, end);
+                    return ps;
+                }, rs -> {
+                    rs.next();
+                    return rs.getLong(1);
+                }));
+    }
+
+    private static int bindFilter(Connection connection, PreparedStatement ps, UUID shopId,
+            Set<OrderStatus> statuses, Timestamp start, Timestamp end) throws SQLException {
+        int index = 1;
+        ps.setObject(index++, shopId);
+        ps.setTimestamp(index++, start);
+        ps.setTimestamp(index++, end);
+        if (!statuses.isEmpty()) {
+            ps.setArray(index++, connection.createArrayOf("varchar",
+                    statuses.stream().map(OrderStatus::name).toArray()));
+        }
+        return index;
+    }
+
+    /**
+     * Só a data de criação pode ordenar a caixa: é a ordem do índice.
+     */
+    private static String direction(Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (sort.isUnsorted()) {
+            return "DESC";
+        }
+        Sort.Order order = sort.iterator().next();
+        if (!"createdAt".equals(order.getProperty()) || sort.stream().count() > 1) {
+            throw new IllegalArgumentException("Shop orders can only be sorted by createdAt");
+        }
+        return order.isAscending() ? "ASC" : "DESC";
+    }
+
+    private record OrderRow(UUID id, String status, Timestamp createdAt, long totalCents) {
+    }
+}
@@ -15,7 +15,7 @@ import java.util.UUID;
  * @version 1.0
  */
 
-public interface ShopRepository extends JpaRepository<Shop, UUID> {
+public interface ShopRepository extends JpaRepository<Shop, UUID>, ShopSalesRepository {
 
     Optional<Shop> findByCnpj(String cnpj); // Busca loja por CNPJ
 
@@ -0,0 +1,26 @@
+package com.oktech.boasaude.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import com.oktech.boasaude.dto.ShopSalesDashboardDto.DailySales;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto.ProductSales;
+
+/**
+ * Leitura das vendas diárias por loja, mantidas por
+ * {@link com.oktech.boasaude.service.impl.ShopSalesRollup}. As consultas
+ * percorrem apenas as linhas do período pedido, pela chave primária.
+ */
+public interface ShopSalesRepository {
+
+    /**
+     * @return Vendas por dia, em ordem de data.
+     */
+    List<DailySales> findDailySales(UUID shopId, LocalDate from, LocalDate to);
+
+    /**
+     * @return Os produtos com maior faturamento no período.
+     */
+    List<ProductSales> findTopProductSales(UUID shopId, LocalDate from, LocalDate to, int limit);
+}
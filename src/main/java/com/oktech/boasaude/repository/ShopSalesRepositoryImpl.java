@@ -0,0 +1,65 @@
+package com.oktech.boasaude.repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.oktech.boasaude.dto.ShopSalesDashboardDto.DailySales;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto.ProductSales;
+
+/**
+ * Implementação com JdbcTemplate sobre shop_daily_sales e
+ * shop_product_daily_sales.
+ */
+public class ShopSalesRepositoryImpl implements ShopSalesRepository {
+
+    private static final String DAILY_SQL = """
+            SELECT day, units, revenue_cents, order_count
+              FROM shop_daily_sales
+             WHERE shop_id = ? AND day BETWEEN ? AND ?
+             ORDER BY day
+            """;
+
+    private static final String TOP_PRODUCTS_SQL = """
+            SELECT s.product_id, p.name, s.units, s.revenue_cents, s.order_count
+              FROM (SELECT product_id, SUM(units) AS units, SUM(revenue_cents) AS revenue_cents,
+                           SUM(order_count) AS order_count
+                      FROM shop_product_daily_sales
+                     WHERE shop_id = ? AND day BETWEEN ? AND ?
+                     GROUP BY product_id
+                     ORDER BY SUM(revenue_cents) DESC, product_id
+                     LIMIT ?) s
+              LEFT JOIN products p ON p.id = s.product_id
+             ORDER BY s.revenue_cents DESC, s.product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShopSalesRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<DailySales> findDailySales(UUID shopId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(DAILY_SQL, (rs, rowNum) -> new DailySales(
+                rs.getDate("day").toLocalDate(),
+                rs.getLong("units"),
+                rs.getLong("revenue_cents"),
+                rs.getLong("order_count")),
+                shopId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public List<ProductSales> findTopProductSales(UUID shopId, LocalDate from, LocalDate to, int limit) {
+        return jdbcTemplate.query(TOP_PRODUCTS_SQL, (rs, rowNum) -> new ProductSales(
+                rs.getObject("product_id", UUID.class),
+                rs.getString("name"),
+                rs.getLong("units"),
+                rs.getLong("revenue_cents"),
+                rs.getLong("order_count")),
+                shopId, Date.valueOf(from), Date.valueOf(to), limit);
+    }
+}
@@ -1,10 +1,15 @@
 package com.oktech.boasaude.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.entity.UserRole;
@@ -28,4 +33,46 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     List<User> findAllByRole(UserRole role);
 
+    /**
+     * Busca a versão atual dos tokens dos usuários revogados após a data
+     * informada.
+     */
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokensRevokedAt > :since")
+    List<TokenVersionView> findTokenVersionsRevokedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Busca email e CPF dos usuários com ID maior que o informado, em ordem de
+     * ID. Usado para percorrer a tabela inteira sem OFFSET.
+     */
+    @Query("select u.id as id, u.email as email, u.cpf as cpf from User u where u.id > :after order by u.id")
+    List<IdentityView> findIdentitiesAfter(@Param("after") UUID after, Limit limit);
+
+    /**
+     * Busca, numa única consulta, os usuários que já usam algum dos emails ou
+     * CPFs informados.
+     */
+    @Query("select u.id as id, u.email as email, u.cpf as cpf from User u where u.email in :emails or u.cpf in :cpfs")
+    List<IdentityView> findIdentitiesByEmailOrCpf(@Param("emails") Collection<String> emails,
+            @Param("cpfs") Collection<String> cpfs);
+
+    /**
+     * Projeção com o ID do usuário e a versão atual dos seus tokens.
+     */
+    interface TokenVersionView {
+        UUID getId();
+
+        int getTokenVersion();
+    }
+
+    /**
+     * Projeção com os campos únicos do usuário.
+     */
+    interface IdentityView {
+        UUID getId();
+
+        String getEmail();
+
+        String getCpf();
+    }
+
 }
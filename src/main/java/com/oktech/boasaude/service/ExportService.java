@@ -0,0 +1,70 @@
+package com.oktech.boasaude.service;
+
+import java.util.Locale;
+import java.util.UUID;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Exportação completa de pedidos e catálogos, lida de um cursor JDBC e
+ * escrita diretamente na resposta, sem paginação.
+ */
+public interface ExportService {
+
+    /**
+     * Formatos de exportação.
+     */
+    enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException se o formato não for suportado.
+         */
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    /**
+     * Exporta todos os pedidos do usuário com seus itens. Em NDJSON cada linha
+     * é um pedido; em CSV cada linha é um item.
+     *
+     * @param userId          Dono dos pedidos.
+     * @param includeArchived Se inclui os pedidos das partições de arquivo.
+     * @param format          Formato da exportação.
+     * @return Corpo a ser escrito na resposta.
+     */
+    StreamingResponseBody exportOrders(UUID userId, boolean includeArchived, Format format);
+
+    /**
+     * Exporta o catálogo completo de uma loja.
+     *
+     * @param shopId ID da loja.
+     * @param format Formato da exportação.
+     * @return Corpo a ser escrito na resposta.
+     * @throws IllegalArgumentException se a loja não existir.
+     */
+    StreamingResponseBody exportShopProducts(UUID shopId, Format format);
+}
@@ -3,7 +3,9 @@ package com.oktech.boasaude.service;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import com.oktech.boasaude.dto.BulkOrderStatusReport;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.User;
 
@@ -22,12 +24,52 @@ import java.util.UUID;
 public interface OrderService {
     Order createOrder(User currentUser, List<CreateOrderItemDto> orderItems); // Cria um novo pedido associado ao usuário);
 
-    Order updateOrderStatus(UUID orderId, String status, User currentUser); // Atualiza o status de um pedido
+    /**
+     * Cria um pedido protegido por uma Idempotency-Key. Uma repetição com a mesma
+     * chave e o mesmo corpo recebe a resposta original, sem criar outro pedido;
+     * uma repetição concorrente espera a requisição original terminar.
+     *
+     * @param currentUser    Usuário que está criando o pedido.
+     * @param orderItems     Itens do pedido.
+     * @param idempotencyKey Valor do header Idempotency-Key, ou null.
+     * @return A resposta do pedido e se ela foi repetida de uma requisição anterior.
+     */
+    CreatedOrder createOrder(User currentUser, List<CreateOrderItemDto> orderItems, String idempotencyKey);
+
+    OrderResponseDto updateOrderStatus(UUID orderId, String status, User currentUser); // Atualiza o status de um pedido
+
+    /**
+     * Muda o status de vários pedidos com as mesmas regras de
+     * {@link #updateOrderStatus}; administradores podem mudar pedidos de
+     * qualquer usuário.
+     *
+     * @param orderIds    IDs dos pedidos; repetidos são considerados uma vez.
+     * @param status      Novo status.
+     * @param currentUser Usuário que pediu a mudança.
+     * @return O resultado de cada pedido.
+     */
+    BulkOrderStatusReport updateOrderStatuses(List<UUID> orderIds, String status, User currentUser);
 
     Order getOrderById(UUID orderId, User currentUser);
 
     Page<Order> getOrdersByUserId(Pageable pageable, User currentUser); // Lista os pedidos de um usuário com paginação
 
+    /**
+     * Lista os pedidos do usuário incluindo os arquivados (meses antigos já
+     * movidos para as partições de arquivo).
+     *
+     * @param pageable    Página e ordenação.
+     * @param currentUser Usuário dono dos pedidos.
+     * @return Página de pedidos.
+     */
+    Page<OrderResponseDto> getOrderHistory(Pageable pageable, User currentUser);
+
     void deleteOrder(UUID orderId, User currentUser);
+
+    /**
+     * Resultado da criação de um pedido com Idempotency-Key.
+     */
+    record CreatedOrder(OrderResponseDto order, boolean replayed) {
+    }
 }
 
@@ -0,0 +1,46 @@
+package com.oktech.boasaude.service;
+
+import java.util.Optional;
+
+import com.oktech.boasaude.entity.User;
+
+/**
+ * Interface para o serviço de refresh tokens.
+ * Emite refresh tokens opacos e os rotaciona a cada uso, detectando
+ * reutilização de tokens já rotacionados.
+ */
+public interface RefreshTokenService {
+
+    /**
+     * Emite um refresh token para um novo login, iniciando uma nova família.
+     *
+     * @param user Usuário autenticado.
+     * @return O refresh token opaco a ser entregue ao cliente.
+     */
+    String issue(User user);
+
+    /**
+     * Troca um refresh token válido por um novo token da mesma família.
+     * Se o token apresentado já tiver sido rotacionado, a família inteira é
+     * revogada.
+     *
+     * @param refreshToken Token apresentado pelo cliente.
+     * @return O usuário dono do token e o novo refresh token, ou vazio se o
+     *         token for inválido, expirado, revogado ou reutilizado.
+     */
+    Optional<Rotation> rotate(String refreshToken);
+
+    /**
+     * Encerra a sessão do token: revoga todos os tokens da família dele.
+     *
+     * @param refreshToken Token apresentado pelo cliente.
+     * @return true se o token existia.
+     */
+    boolean revoke(String refreshToken);
+
+    /**
+     * Resultado de uma rotação bem-sucedida.
+     */
+    record Rotation(User user, String refreshToken) {
+    }
+}
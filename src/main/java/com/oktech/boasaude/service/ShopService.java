@@ -4,12 +4,16 @@ import com.oktech.boasaude.dto.ShopResponseDto;
 import com.oktech.boasaude.entity.Shop;
 import com.oktech.boasaude.entity.User;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto;
 
 public interface ShopService {
 
@@ -26,4 +30,31 @@ public interface ShopService {
     Page<ShopResponseDto> getAllShops(Pageable pageable); // Obtém todas as lojas
 
     Shop getShopById(UUID id);
+
+    /**
+     * Vendas da loja por dia e seus produtos mais vendidos no período, lidas
+     * das tabelas diárias mantidas a partir dos eventos de pedidos.
+     *
+     * @param shopId      ID da loja.
+     * @param from        Primeiro dia, inclusive.
+     * @param to          Último dia, inclusive.
+     * @param currentUser Dono da loja ou ADMIN.
+     * @return Painel de vendas.
+     */
+    ShopSalesDashboardDto getSalesDashboard(UUID shopId, LocalDate from, LocalDate to, User currentUser);
+
+    /**
+     * Caixa de pedidos da loja: pedidos com produtos da loja, mais recentes
+     * primeiro, cada um apenas com os itens da loja.
+     *
+     * @param shopId      ID da loja.
+     * @param statuses    Status aceitos; vazio aceita todos.
+     * @param from        Primeiro dia, inclusive, ou null para não limitar.
+     * @param to          Último dia, inclusive, ou null para não limitar.
+     * @param pageable    Página; só aceita ordenação por createdAt.
+     * @param currentUser Dono da loja ou ADMIN.
+     * @return Página de pedidos.
+     */
+    Page<ShopOrderResponseDto> getShopOrders(UUID shopId, List<String> statuses, LocalDate from, LocalDate to,
+            Pageable pageable, User currentUser);
 }
\ No newline at end of file
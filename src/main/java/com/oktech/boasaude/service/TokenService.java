@@ -3,6 +3,8 @@ package com.oktech.boasaude.service;
 import java.util.UUID;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.oktech.boasaude.config.security.AuthenticatedUser;
+import com.oktech.boasaude.entity.User;
 
 public interface TokenService {
     /**
@@ -13,6 +15,21 @@ public interface TokenService {
      */
     String generateToken(String name);
 
+    /**
+     * Gera um token JWT para um usuário já carregado, sem buscá-lo novamente.
+     *
+     * @param user o usuário para o qual o token será gerado
+     * @return o token JWT gerado
+     */
+    String generateToken(User user);
+
+    /**
+     * Tempo de vida, em segundos, dos access tokens emitidos.
+     *
+     * @return a validade do access token em segundos
+     */
+    long getAccessTokenTtlSeconds();
+
     /**
      * Decodes the provided JWT token and returns its decoded representation.
      *
@@ -29,4 +46,15 @@ public interface TokenService {
      */
     public UUID getUserIdFromToken(String token);
 
+    /**
+     * Builds the authenticated user exclusively from the verified claims of the
+     * JWT token, without touching the database. Fields that are not carried by
+     * the token (CPF, phone) are null, and the role is null for tokens issued
+     * before the role claim existed.
+     *
+     * @param token the JWT token
+     * @return the user described by the token, or null if the token is invalid
+     */
+    AuthenticatedUser getAuthenticatedUserFromToken(String token);
+
 }
@@ -0,0 +1,36 @@
+package com.oktech.boasaude.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.oktech.boasaude.dto.UserImportReport;
+
+/**
+ * Interface para o serviço de importação de usuários em lote.
+ */
+public interface UserImportService {
+
+    /**
+     * Importa os usuários lidos do arquivo, em blocos, sem carregar o arquivo
+     * inteiro em memória. Linhas inválidas ou duplicadas não interrompem a
+     * importação; elas aparecem no relatório. A leitura para no limite de
+     * linhas, com o relatório marcado como truncado; os blocos anteriores já
+     * foram gravados.
+     *
+     * @param reader Conteúdo do arquivo.
+     * @param format Formato do arquivo.
+     * @return Relatório com o resultado de cada linha.
+     * @throws IOException se o arquivo não puder ser lido.
+     */
+    UserImportReport importUsers(Reader reader, Format format) throws IOException;
+
+    /**
+     * Formatos aceitos. O CSV precisa de um cabeçalho com as colunas name,
+     * email, cpf, phone e password; no NDJSON cada linha é um objeto JSON com os
+     * mesmos campos.
+     */
+    enum Format {
+        CSV,
+        NDJSON
+    }
+}
@@ -3,14 +3,16 @@ package com.oktech.boasaude.service.impl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.repository.UserRepository;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository; // seu repositório JPA para User
 
@@ -28,4 +30,16 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
 
     }
+
+    /**
+     * Chamado pelo Spring Security após um login bem-sucedido quando o hash
+     * armazenado foi gerado com um custo de BCrypt diferente do configurado.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = (User) userDetails;
+        logger.info("Rehashing password for user ID: {}", user.getId());
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
 }
@@ -0,0 +1,310 @@
+package com.oktech.boasaude.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.ProductResponseDto;
+import com.oktech.boasaude.repository.ShopRepository;
+import com.oktech.boasaude.service.ExportService;
+
+/**
+ * Implementação das exportações com JdbcTemplate.
+ * Cada exportação roda numa transação somente leitura REPEATABLE READ, então
+ * todas as linhas vêm do mesmo snapshot, e lê as linhas de um cursor com
+ * fetch size fixo: a memória usada não depende do tamanho da exportação.
+ * Como cada exportação segura uma conexão até terminar, o número de
+ * exportações simultâneas é limitado; acima do limite a requisição é recusada
+ * com 503.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    /**
+     * Pedidos e itens numa única leitura, agrupados pela ordem do cursor. A
+     * junção por created_at casa cada partição de pedidos com a de itens do
+     * mesmo mês.
+     */
+    private static final String ORDERS_SQL = """
+            SELECT o.id, o.status, o.total_cents, o.created_at,
+                   i.id AS item_id, i.product_id, i.product_name, i.quantity, i.unit_price_cents
+              FROM %s o
+              LEFT JOIN %s i ON i.order_id = o.id AND i.created_at = o.created_at
+             WHERE o.user_id = ?
+             ORDER BY o.created_at DESC, o.id, i.line_number
+            """;
+
+    private static final String PRODUCTS_SQL = """
+            SELECT id, name, description, price, category, stock
+              FROM products
+             WHERE shop_id = ?
+             ORDER BY name, id
+            """;
+
+    private static final List<String> ORDER_CSV_HEADER = List.of("order_id", "created_at", "status", "total_cents",
+            "item_id", "product_id", "product_name", "quantity", "unit_price_cents", "item_total_cents");
+
+    private static final List<String> PRODUCT_CSV_HEADER = List.of("id", "name", "description", "price", "category",
+            "stock");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ShopRepository shopRepository;
+
+    private final Semaphore permits;
+
+    public ExportServiceImpl(DataSource dataSource, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, ShopRepository shopRepository,
+            @Value("${exports.fetch-size:500}") int fetchSize,
+            @Value("${exports.max-concurrent:4}") int maxConcurrent) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.objectMapper = objectMapper;
+        this.shopRepository = shopRepository;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public StreamingResponseBody exportOrders(UUID userId, boolean includeArchived, Format format) {
+        String sql = ORDERS_SQL.formatted(includeArchived ? "orders_all" : "orders",
+                includeArchived ? "order_items_all" : "order_items");
+        return stream(writer -> {
+            OrderRows rows = new OrderRows(writer, format);
+            jdbcTemplate.query(sql, rows, userId);
+            rows.finish();
+        }, format);
+    }
+
+    @Override
+    public StreamingResponseBody exportShopProducts(UUID shopId, Format format) {
+        if (!shopRepository.existsById(shopId)) {
+            throw new IllegalArgumentException("Shop not found with ID: " + shopId);
+        }
+        return stream(writer -> {
+            if (format == Format.CSV) {
+                writeCsv(writer, PRODUCT_CSV_HEADER);
+            }
+            jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+                ProductResponseDto product = new ProductResponseDto(
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        (Integer) rs.getObject("price"),
+                        rs.getString("category"),
+                        (Integer) rs.getObject("stock"));
+                if (format == Format.CSV) {
+                    writeCsv(writer, Arrays.asList(product.id(), product.name(), product.description(), product.price(),
+                            product.category(), product.stock()));
+                } else {
+                    writeJson(writer, product);
+                }
+            }, shopId);
+        }, format);
+    }
+
+    /**
+     * Reserva uma das exportações simultâneas e devolve o corpo que a executa.
+     * A reserva é feita já na requisição, para que a recusa ainda possa virar
+     * um 503; ela é liberada quando o corpo termina de ser escrito ou, se o
+     * corpo nem chegar a rodar (cliente desconectou, timeout do processamento
+     * assíncrono), quando a requisição assíncrona termina.
+     */
+    private StreamingResponseBody stream(Export export, Format format) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("Too many exports running");
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        };
+        releaseOnAsyncCompletion(release);
+        return out -> {
+            long startedAt = System.nanoTime();
+            try {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                transactionTemplate.executeWithoutResult(status -> export.writeTo(writer));
+                writer.flush();
+                logger.debug("{} export written in {} ms", format, (System.nanoTime() - startedAt) / 1_000_000);
+            } catch (UncheckedIOException e) {
+                // Normalmente o cliente desconectou no meio da exportação
+                throw e.getCause();
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    /**
+     * Registra a liberação da reserva no fim do processamento assíncrono da
+     * requisição atual, que acontece mesmo quando o corpo não é executado.
+     * Fora de uma requisição, só o corpo libera a reserva.
+     */
+    private static void releaseOnAsyncCompletion(Runnable release) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+                ExportServiceImpl.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        release.run();
+                    }
+                });
+    }
+
+    private void writeJson(Writer writer, Object value) {
+        try {
+            writer.write(objectMapper.writeValueAsString(value));
+            writer.write('\n');
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize export row", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escreve uma linha CSV (RFC 4180): campos com vírgula, aspas ou quebra de
+     * linha vão entre aspas, com as aspas internas duplicadas.
+     */
+    private static void writeCsv(Writer writer, List<?> values) {
+        try {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values.get(i);
+                if (value == null) {
+                    continue;
+                }
+                String text = value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0
+                        || text.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(text.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(text);
+                }
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void writeTo(Writer writer);
+    }
+
+    /**
+     * Agrupa as linhas do cursor por pedido. Em NDJSON só os itens do pedido
+     * atual ficam em memória; em CSV cada linha é escrita assim que lida.
+     */
+    private final class OrderRows implements RowCallbackHandler {
+
+        private final Writer writer;
+
+        private final Format format;
+
+        private ExportedOrder current;
+
+        private OrderRows(Writer writer, Format format) {
+            this.writer = writer;
+            this.format = format;
+            if (format == Format.CSV) {
+                writeCsv(writer, ORDER_CSV_HEADER);
+            }
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            UUID orderId = rs.getObject("id", UUID.class);
+            if (current == null || !current.id().equals(orderId)) {
+                finish();
+                current = new ExportedOrder(orderId, rs.getString("status"),
+                        BigInteger.valueOf(rs.getLong("total_cents")),
+                        rs.getTimestamp("created_at").toLocalDateTime(), new ArrayList<>());
+            }
+            UUID itemId = rs.getObject("item_id", UUID.class);
+            if (itemId == null) {
+                if (format == Format.CSV) {
+                    writeCsv(writer, Arrays.asList(current.id(), current.createdAt(), current.status(),
+                            current.totalPrice()));
+                }
+                return;
+            }
+            long unitPriceCents = rs.getLong("unit_price_cents");
+            int quantity = rs.getInt("quantity");
+            BigInteger itemTotal = BigInteger.valueOf(Math.multiplyExact(unitPriceCents, quantity));
+            UUID productId = rs.getObject("product_id", UUID.class);
+            String productName = rs.getString("product_name");
+            if (format == Format.CSV) {
+                writeCsv(writer, Arrays.asList(current.id(), current.createdAt(), current.status(),
+                        current.totalPrice(), itemId, productId, productName, quantity, unitPriceCents, itemTotal));
+            } else {
+                current.items().add(new OrderItemResponseDto(itemId, productId, productName, quantity, itemTotal));
+            }
+        }
+
+        private void finish() {
+            if (current != null && format == Format.NDJSON) {
+                writeJson(writer, current);
+            }
+            current = null;
+        }
+    }
+
+    private record ExportedOrder(UUID id, String status, BigInteger totalPrice, LocalDateTime createdAt,
+            List<OrderItemResponseDto> items) {
+    }
+}
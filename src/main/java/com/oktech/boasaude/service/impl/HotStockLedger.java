@@ -0,0 +1,442 @@
+package com.oktech.boasaude.service.impl;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oktech.boasaude.config.HotStockProperties;
+import com.oktech.boasaude.config.exception.InsufficientStockException;
+import com.oktech.boasaude.repository.ProductRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ledger em memória para produtos em modo "hot" (promoções relâmpago).
+ * O estoque desses produtos é retirado de products.stock em lotes (leases),
+ * registrados em stock_leases, e distribuído entre stripes. O checkout reserva
+ * unidades do lote com um CAS, sem tocar na linha do produto; só quando os lotes
+ * acabam um novo lote é retirado do banco.
+ * Um flusher periódico grava o consumo e o heartbeat dos lotes em batch e
+ * acerta os lotes encerrados, devolvendo a products.stock o que não foi
+ * vendido. O acerto sempre usa a soma de order_items.quantity do lote, então
+ * lotes abandonados por uma instância que caiu são recuperados corretamente
+ * por qualquer outra.
+ */
+@Component
+public class HotStockLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockLedger.class);
+
+    /**
+     * Retira até N unidades do produto, desde que haja pelo menos o mínimo pedido.
+     */
+    private static final String LEASE_SQL = """
+            UPDATE products p
+               SET stock = p.stock - g.granted
+              FROM (SELECT id, LEAST(stock, ?) AS granted
+                      FROM products
+                     WHERE id = ? AND stock >= ?
+                       FOR UPDATE) g
+             WHERE p.id = g.id
+            RETURNING g.granted
+            """;
+
+    private static final String INSERT_LEASE_SQL = """
+            INSERT INTO stock_leases (id, product_id, units, consumed, status, owner)
+            VALUES (?, ?, ?, 0, 'ACTIVE', ?)
+            """;
+
+    private static final String HEARTBEAT_SQL = """
+            UPDATE stock_leases SET consumed = ?, heartbeat_at = NOW() WHERE id = ? AND status = 'ACTIVE'
+            """;
+
+    /**
+     * Encerra os lotes selecionados e devolve ao produto as unidades não vendidas:
+     * units menos a soma dos itens de pedido gravados com o lote, qualquer que
+     * seja o status do pedido (cancelamentos devolvem o estoque por conta própria).
+     */
+    private static final String SETTLE_SQL = """
+            WITH settled AS (
+                UPDATE stock_leases l
+                   SET status = 'SETTLED',
+                       settled_at = NOW(),
+                       consumed = COALESCE((SELECT SUM(oi.quantity)
+                                              FROM order_items oi
+                                             WHERE oi.stock_lease_id = l.id), 0)
+                 WHERE l.status = 'ACTIVE' AND %s
+                RETURNING l.product_id, l.units - l.consumed AS unused
+            ), returned AS (
+                SELECT product_id, SUM(unused) AS unused FROM settled GROUP BY product_id
+            )
+            UPDATE products p SET stock = p.stock + r.unused FROM returned r WHERE p.id = r.product_id
+            """;
+
+    private static final String SETTLE_BY_ID_SQL = SETTLE_SQL.formatted("l.id = ANY(?)");
+
+    private static final String SETTLE_ABANDONED_SQL = SETTLE_SQL
+            .formatted("l.heartbeat_at < NOW() - make_interval(secs => ?)");
+
+    private final HotStockProperties properties;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Transação própria para retirar lotes: o lote vale para todos os pedidos e
+     * não pode ser desfeito junto com o pedido que o pediu.
+     */
+    private final TransactionTemplate leaseTransaction;
+
+    private final Map<UUID, HotProduct> products = new ConcurrentHashMap<>();
+
+    /**
+     * Lotes que não recebem mais reservas e aguardam as reservas em andamento
+     * terminarem para serem acertados.
+     */
+    private final Queue<Lease> retired = new ConcurrentLinkedQueue<>();
+
+    private final int stripeMask;
+
+    private final String owner;
+
+    public HotStockLedger(HotStockProperties properties, JdbcTemplate jdbcTemplate,
+            ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.leaseTransaction = new TransactionTemplate(transactionManager);
+        this.leaseTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        int stripes = properties.stripes() <= 1 ? 1 : Integer.highestOneBit(properties.stripes() - 1) << 1;
+        this.stripeMask = stripes - 1;
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        this.owner = name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    /**
+     * @return true se o estoque do produto é controlado por este ledger.
+     */
+    public boolean isHot(UUID productId) {
+        return properties.enabled() && properties.products().contains(productId);
+    }
+
+    /**
+     * Reserva unidades de um produto hot. Deve ser chamado fora de qualquer
+     * transação: um novo lote é retirado em uma transação própria, e as
+     * reservas que esperam por ele não podem estar segurando conexões do pool
+     * de que essa transação precisa. A reserva deve ser concluída com
+     * {@link Reservation#complete(boolean)} quando o pedido for gravado ou
+     * desistido.
+     *
+     * @param productId ID do produto.
+     * @param quantity  Quantidade a reservar.
+     * @return A reserva, com o lote de onde saíram as unidades.
+     * @throws InsufficientStockException se não houver estoque.
+     */
+    public Reservation reserve(UUID productId, int quantity) {
+        HotProduct product = products.computeIfAbsent(productId, id -> new HotProduct(stripeMask + 1));
+        int start = (int) Thread.currentThread().threadId() & stripeMask;
+
+        Lease lease = product.tryReserve(start, quantity);
+        if (lease == null) {
+            product.refillLock.lock();
+            try {
+                lease = product.tryReserve(start, quantity);
+                if (lease == null) {
+                    Lease fresh = leaseFromDatabase(productId, Math.max(properties.leaseSize(), quantity), quantity);
+                    fresh.tryReserve(quantity);
+                    Lease replaced = product.stripes.getAndSet(start, fresh);
+                    if (replaced != null) {
+                        retire(replaced);
+                    }
+                    lease = fresh;
+                }
+            } finally {
+                product.refillLock.unlock();
+            }
+        }
+        return new Reservation(lease, quantity);
+    }
+
+    /**
+     * Grava o consumo dos lotes ativos, encerra lotes esgotados ou ociosos, acerta
+     * os lotes encerrados e recupera lotes abandonados por outras instâncias.
+     */
+    @Scheduled(fixedDelayString = "${inventory.hot.flush-interval:1s}")
+    public void flush() {
+        if (!properties.enabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long idleNanos = properties.idleTimeout().toNanos();
+        List<Lease> active = new ArrayList<>();
+        for (HotProduct product : products.values()) {
+            for (int i = 0; i < product.stripes.length(); i++) {
+                Lease lease = product.stripes.get(i);
+                if (lease == null) {
+                    continue;
+                }
+                if (lease.remaining() == 0 || now - lease.lastUsedNanos > idleNanos) {
+                    if (product.stripes.compareAndSet(i, lease, null)) {
+                        retire(lease);
+                    }
+                } else {
+                    active.add(lease);
+                }
+            }
+        }
+
+        if (!active.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(HEARTBEAT_SQL, active, active.size(), (ps, lease) -> {
+                ps.setInt(1, lease.consumed());
+                ps.setObject(2, lease.id);
+            });
+            for (int i = 0; i < active.size(); i++) {
+                if (counts[0][i] == 0) {
+                    // Acertado por outra instância: não pode mais vender deste lote.
+                    Lease lease = active.get(i);
+                    lease.retire();
+                    products.get(lease.productId).stripes.compareAndSet(lease.stripe, lease, null);
+                    logger.warn("Stock lease {} was settled elsewhere, dropping it", lease.id);
+                }
+            }
+        }
+
+        List<UUID> drained = new ArrayList<>();
+        for (Iterator<Lease> iterator = retired.iterator(); iterator.hasNext();) {
+            Lease lease = iterator.next();
+            if (lease.isDrained()) {
+                drained.add(lease.id);
+                iterator.remove();
+            }
+        }
+        if (!drained.isEmpty()) {
+            settle(drained);
+        }
+
+        int recovered = jdbcTemplate.update(SETTLE_ABANDONED_SQL, seconds(properties.recoveryTimeout()));
+        if (recovered > 0) {
+            logger.warn("Recovered abandoned stock leases for {} products", recovered);
+        }
+    }
+
+    /**
+     * Encerra os lotes em memória ao desligar. Lotes com reservas em andamento
+     * ficam para a recuperação.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!properties.enabled()) {
+            return;
+        }
+        for (HotProduct product : products.values()) {
+            for (int i = 0; i < product.stripes.length(); i++) {
+                Lease lease = product.stripes.getAndSet(i, null);
+                if (lease != null) {
+                    retire(lease);
+                }
+            }
+        }
+        List<UUID> drained = retired.stream().filter(Lease::isDrained).map(lease -> lease.id).toList();
+        if (!drained.isEmpty()) {
+            settle(drained);
+        }
+    }
+
+    private Lease leaseFromDatabase(UUID productId, int units, int minimum) {
+        Lease lease = leaseTransaction.execute(status -> {
+            List<Integer> granted = jdbcTemplate.queryForList(LEASE_SQL, Integer.class, units, productId, minimum);
+            if (granted.isEmpty()) {
+                return null;
+            }
+            UUID leaseId = UUID.randomUUID();
+            jdbcTemplate.update(INSERT_LEASE_SQL, leaseId, productId, granted.get(0), owner);
+            return new Lease(leaseId, productId, granted.get(0));
+        });
+        if (lease == null) {
+            if (!productRepository.existsById(productId)) {
+                throw new IllegalArgumentException("Product not found with id: " + productId);
+            }
+            throw new InsufficientStockException(productId);
+        }
+        logger.debug("Leased {} units of product {} (lease {})", lease.units, productId, lease.id);
+        return lease;
+    }
+
+    /**
+     * Segundos para make_interval, com a fração: toSeconds() trunca, e um
+     * timeout abaixo de 1s viraria 0, acertando lotes ainda em uso.
+     */
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private void retire(Lease lease) {
+        lease.retire();
+        retired.add(lease);
+    }
+
+    private void settle(List<UUID> leaseIds) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SETTLE_BY_ID_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", leaseIds.toArray()));
+            return ps;
+        });
+        logger.debug("Settled {} stock leases", leaseIds.size());
+    }
+
+    /**
+     * Unidades reservadas de um lote, ainda não confirmadas.
+     */
+    public static final class Reservation {
+
+        private final Lease lease;
+
+        private final int quantity;
+
+        private boolean completed;
+
+        private Reservation(Lease lease, int quantity) {
+            this.lease = lease;
+            this.quantity = quantity;
+        }
+
+        /**
+         * @return ID do lote, gravado em order_items.stock_lease_id.
+         */
+        public UUID leaseId() {
+            return lease.id;
+        }
+
+        /**
+         * Conclui a reserva: se o pedido não foi gravado, as unidades voltam ao
+         * lote.
+         *
+         * @param committed true se o pedido foi gravado.
+         */
+        public void complete(boolean committed) {
+            if (!completed) {
+                completed = true;
+                lease.complete(quantity, committed);
+            }
+        }
+    }
+
+    private static final class HotProduct {
+
+        private final AtomicReferenceArray<Lease> stripes;
+
+        private final ReentrantLock refillLock = new ReentrantLock();
+
+        private HotProduct(int stripes) {
+            this.stripes = new AtomicReferenceArray<>(stripes);
+        }
+
+        /**
+         * Tenta reservar a partir da stripe da thread, passando pelas demais.
+         */
+        private Lease tryReserve(int start, int quantity) {
+            int size = stripes.length();
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) & (size - 1);
+                Lease lease = stripes.get(index);
+                if (lease != null && lease.tryReserve(quantity)) {
+                    lease.stripe = index;
+                    return lease;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Lote retirado do banco. O estado cabe em um único long, atualizado por CAS:
+     * unidades restantes (bits 0-30), reservas em andamento (bits 31-61) e a
+     * marca de encerrado (bit 62). Assim uma reserva nunca é aceita depois que o
+     * lote foi encerrado, e o acerto só acontece sem reservas em andamento.
+     */
+    static final class Lease {
+
+        private static final long REMAINING_MASK = (1L << 31) - 1;
+
+        private static final long IN_FLIGHT_UNIT = 1L << 31;
+
+        private static final long IN_FLIGHT_MASK = REMAINING_MASK << 31;
+
+        private static final long RETIRED = 1L << 62;
+
+        private final UUID id;
+
+        private final UUID productId;
+
+        private final int units;
+
+        private final AtomicLong state;
+
+        private volatile long lastUsedNanos;
+
+        private volatile int stripe;
+
+        Lease(UUID id, UUID productId, int units) {
+            this.id = id;
+            this.productId = productId;
+            this.units = units;
+            this.state = new AtomicLong(units);
+            this.lastUsedNanos = System.nanoTime();
+        }
+
+        boolean tryReserve(int quantity) {
+            long current = state.get();
+            while ((current & RETIRED) == 0 && (current & REMAINING_MASK) >= quantity) {
+                long witness = state.compareAndExchange(current, current - quantity + IN_FLIGHT_UNIT);
+                if (witness == current) {
+                    lastUsedNanos = System.nanoTime();
+                    return true;
+                }
+                current = witness;
+            }
+            return false;
+        }
+
+        void complete(int quantity, boolean committed) {
+            state.addAndGet(committed ? -IN_FLIGHT_UNIT : quantity - IN_FLIGHT_UNIT);
+        }
+
+        void retire() {
+            state.getAndUpdate(current -> current | RETIRED);
+        }
+
+        int remaining() {
+            return (int) (state.get() & REMAINING_MASK);
+        }
+
+        int consumed() {
+            return units - remaining();
+        }
+
+        boolean isDrained() {
+            long current = state.get();
+            return (current & RETIRED) != 0 && (current & IN_FLIGHT_MASK) == 0;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.oktech.boasaude.service.impl;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.config.exception.IdempotencyKeyInProgressException;
+import com.oktech.boasaude.config.exception.IdempotencyKeyReusedException;
+
+/**
+ * Chaves de idempotência por usuário.
+ * A chave é reservada com um INSERT em uma transação própria e curta, antes de
+ * qualquer trabalho, e vale por orders.idempotency.in-progress-timeout. A
+ * operação grava a resposta serializada na sua própria transação, que estende
+ * a chave até o TTL; se a operação falhar, a chave é liberada. Uma repetição
+ * encontra a resposta pronta, e uma requisição concorrente com a mesma chave
+ * é recusada enquanto a primeira não terminar. Uma chave reservada por uma
+ * instância que caiu expira depois do timeout e pode ser reservada de novo.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeyStore.class);
+
+    /**
+     * Remove a chave se ela expirou e ainda não foi limpa, para que o claim
+     * possa reaproveitá-la.
+     */
+    private static final String RECLAIM_SQL = """
+            DELETE FROM idempotency_keys
+             WHERE user_id = ? AND idempotency_key = ? AND expires_at < NOW()
+            """;
+
+    /**
+     * Reserva a chave. Se outra transação inseriu a mesma chave e ainda não
+     * terminou, o INSERT espera por ela antes de decidir se há conflito.
+     */
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, expires_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String FIND_SQL = """
+            SELECT request_hash, response_body
+              FROM idempotency_keys
+             WHERE user_id = ? AND idempotency_key = ? AND expires_at >= NOW()
+            """;
+
+    private static final String COMPLETE_SQL = """
+            UPDATE idempotency_keys SET response_body = ?, expires_at = ?
+             WHERE user_id = ? AND idempotency_key = ? AND response_body IS NULL
+            """;
+
+    private static final String RELEASE_SQL = """
+            DELETE FROM idempotency_keys
+             WHERE user_id = ? AND idempotency_key = ? AND response_body IS NULL
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM idempotency_keys
+             WHERE (user_id, idempotency_key) IN (SELECT user_id, idempotency_key
+                                                    FROM idempotency_keys
+                                                   WHERE expires_at < NOW()
+                                                   LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration ttl;
+
+    /**
+     * Validade de uma chave reservada e ainda sem resposta. Deve ser maior que
+     * a duração de uma operação.
+     */
+    private final Duration inProgressTimeout;
+
+    private final int purgeBatchSize;
+
+    public IdempotencyKeyStore(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${orders.idempotency.ttl:24h}") Duration ttl,
+            @Value("${orders.idempotency.in-progress-timeout:1m}") Duration inProgressTimeout,
+            @Value("${orders.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inProgressTimeout = inProgressTimeout;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Calcula o hash do corpo da requisição, comparado a cada repetição.
+     *
+     * @param request Corpo da requisição.
+     * @return SHA-256 (hex) do corpo serializado em JSON.
+     */
+    public String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Busca a resposta de uma chave já concluída, sem bloquear. Usado antes de
+     * qualquer trabalho, para que repetições não toquem no estoque.
+     *
+     * @return A resposta gravada, ou vazio se a chave é nova ou ainda está em uso.
+     * @throws IdempotencyKeyReusedException se a chave foi usada com outro corpo.
+     */
+    public <T> Optional<T> find(UUID userId, String key, String requestHash, Class<T> responseType) {
+        List<StoredKey> found = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredKey(rs.getString("request_hash"), rs.getString("response_body")),
+                userId, key);
+        if (found.isEmpty() || found.get(0).responseBody() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(read(found.get(0), key, requestHash, responseType));
+    }
+
+    /**
+     * Reserva a chave. Deve ser chamado fora de qualquer transação, para que a
+     * reserva seja gravada antes da operação e sem manter a conexão.
+     *
+     * @return Vazio se a chave foi reservada e a operação deve seguir; senão, a
+     *         resposta gravada pela requisição original.
+     * @throws IdempotencyKeyReusedException se a chave foi usada com outro corpo.
+     * @throws IdempotencyKeyInProgressException se outra requisição ainda está
+     *         usando a chave.
+     */
+    public <T> Optional<T> claim(UUID userId, String key, String requestHash, Class<T> responseType) {
+        jdbcTemplate.update(RECLAIM_SQL, userId, key);
+        int claimed = jdbcTemplate.update(CLAIM_SQL, userId, key, requestHash,
+                Timestamp.valueOf(LocalDateTime.now().plus(inProgressTimeout)));
+        if (claimed == 1) {
+            return Optional.empty();
+        }
+        List<StoredKey> found = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredKey(rs.getString("request_hash"), rs.getString("response_body")),
+                userId, key);
+        if (found.isEmpty()) {
+            // Expirou ou foi liberada entre o INSERT e a consulta
+            return claim(userId, key, requestHash, responseType);
+        }
+        StoredKey stored = found.get(0);
+        if (stored.responseBody() == null) {
+            if (!stored.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            throw new IdempotencyKeyInProgressException(key);
+        }
+        logger.info("Replaying idempotent request for user ID: {}", userId);
+        return Optional.of(read(stored, key, requestHash, responseType));
+    }
+
+    /**
+     * Grava a resposta de uma chave reservada com {@link #claim}, na transação
+     * da operação, e estende a chave até o TTL.
+     *
+     * @throws IllegalStateException se a chave não está mais reservada (o
+     *         timeout passou), desfazendo a operação.
+     */
+    public void complete(UUID userId, String key, Object response) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response cannot be serialized", e);
+        }
+        int completed = jdbcTemplate.update(COMPLETE_SQL, body, Timestamp.valueOf(LocalDateTime.now().plus(ttl)),
+                userId, key);
+        if (completed == 0) {
+            throw new IllegalStateException("Idempotency key is no longer reserved: " + key);
+        }
+    }
+
+    /**
+     * Libera uma chave reservada cuja operação falhou, para que o cliente
+     * possa repetir a requisição.
+     */
+    public void release(UUID userId, String key) {
+        jdbcTemplate.update(RELEASE_SQL, userId, key);
+    }
+
+    /**
+     * Remove as chaves expiradas em lotes, cada um em sua própria transação,
+     * para não manter muitas linhas bloqueadas de uma vez.
+     */
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            logger.info("Purged {} expired idempotency keys", total);
+        }
+    }
+
+    private <T> T read(StoredKey stored, String key, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        try {
+            return objectMapper.readValue(stored.responseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response cannot be read for key: " + key, e);
+        }
+    }
+
+    private record StoredKey(String requestHash, String responseBody) {
+    }
+}
@@ -46,6 +46,7 @@ public class OrderItemServiceImpl implements OrderItemService {
         Product product = productServiceImpl.getProductById(productId);
 
         OrderItem orderItem = new OrderItem(order, product, quantity);
+        order.addItem(orderItem);
 
         return orderItemRepository.save(orderItem);
     }
@@ -0,0 +1,201 @@
+package com.oktech.boasaude.service.impl;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Manutenção das partições mensais de orders e order_items.
+ * Cria as partições dos próximos meses antes que sejam necessárias e arquiva
+ * os meses mais antigos que a retenção: se um mês só tem pedidos COMPLETED ou
+ * CANCELLED, as partições desse mês são desanexadas de orders/order_items e
+ * anexadas a orders_archive/order_items_archive, sem copiar nenhuma linha.
+ * Pedidos arquivados só aparecem nas leituras que pedem o histórico completo.
+ * O DETACH bloqueia orders e order_items por completo, então a troca espera
+ * no máximo orders.archive.lock-timeout pelos locks; se não conseguir, desiste
+ * sem atrasar o checkout e tenta de novo algumas vezes, ou na próxima execução.
+ */
+@Component
+public class OrderPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPartitionMaintenance.class);
+
+    private static final String ENSURE_PARTITION_SQL = "SELECT ensure_monthly_partition(?, ?)";
+
+    private static final String LIVE_PARTITIONS_SQL = """
+            SELECT c.relname
+              FROM pg_inherits i
+              JOIN pg_class c ON c.oid = i.inhrelid
+             WHERE i.inhparent = 'orders'::regclass
+             ORDER BY c.relname
+            """;
+
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("orders_p(\\d{4})(\\d{2})");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int monthsAhead;
+
+    private final Duration retention;
+
+    /**
+     * Espera máxima por cada lock do arquivamento. Enquanto o DETACH espera,
+     * todas as leituras e escritas de orders ficam na fila atrás dele.
+     */
+    private final Duration lockTimeout;
+
+    private final int lockAttempts;
+
+    public OrderPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${orders.partitions.enabled:true}") boolean enabled,
+            @Value("${orders.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${orders.archive.retention:365d}") Duration retention,
+            @Value("${orders.archive.lock-timeout:2s}") Duration lockTimeout,
+            @Value("${orders.archive.lock-attempts:3}") int lockAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retention = retention;
+        this.lockTimeout = lockTimeout;
+        this.lockAttempts = lockAttempts;
+    }
+
+    /**
+     * Cria as próximas partições e arquiva os meses elegíveis.
+     */
+    @Scheduled(fixedDelayString = "${orders.partitions.maintenance-interval:6h}",
+            initialDelayString = "${orders.partitions.initial-delay:1m}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        createUpcomingPartitions();
+        archiveColdPartitions();
+    }
+
+    private void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            Date monthStart = Date.valueOf(current.plusMonths(i).atDay(1));
+            jdbcTemplate.queryForList(ENSURE_PARTITION_SQL, "orders", monthStart);
+            jdbcTemplate.queryForList(ENSURE_PARTITION_SQL, "order_items", monthStart);
+        }
+    }
+
+    private void archiveColdPartitions() {
+        LocalDate cutoff = LocalDate.now().minusDays(retention.toDays());
+        List<String> partitions = jdbcTemplate.queryForList(LIVE_PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                continue;
+            }
+            Boolean archived = archiveWithRetry(month);
+            if (archived == null) {
+                logger.warn("Could not lock order partitions of {}, will retry on the next run", month);
+            } else if (archived) {
+                logger.info("Archived order partitions of {}", month);
+            } else {
+                logger.info("Order partitions of {} still have open orders, not archived", month);
+            }
+        }
+    }
+
+    /**
+     * Tenta arquivar o mês até lockAttempts vezes, cada uma em sua própria
+     * transação, esperando entre elas.
+     *
+     * @return O resultado de {@link #archive}, ou null se os locks não foram
+     *         obtidos em nenhuma tentativa.
+     */
+    private Boolean archiveWithRetry(YearMonth month) {
+        for (int attempt = 1; attempt <= lockAttempts; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> archive(month, status));
+            } catch (DataAccessException ex) {
+                if (!isLockTimeout(ex)) {
+                    throw ex;
+                }
+                logger.info("Lock timeout archiving order partitions of {} (attempt {}/{})", month, attempt,
+                        lockAttempts);
+            }
+            if (attempt < lockAttempts) {
+                try {
+                    Thread.sleep(lockTimeout.multipliedBy(attempt));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * O Postgres responde ao lock_timeout com SQLState 55P03, que nem sempre é
+     * traduzido para {@link PessimisticLockingFailureException}.
+     */
+    private static boolean isLockTimeout(DataAccessException ex) {
+        return ex instanceof PessimisticLockingFailureException
+                || ex.getMostSpecificCause() instanceof SQLException sqlException
+                        && LOCK_NOT_AVAILABLE.equals(sqlException.getSQLState());
+    }
+
+    /**
+     * Move as partições de um mês para as tabelas de arquivo, na transação
+     * informada. A partição é bloqueada antes da verificação, então nenhum
+     * pedido pode mudar de status entre a verificação e a troca. Cada lock
+     * espera no máximo lockTimeout.
+     *
+     * @return false se o mês ainda tem pedidos em aberto.
+     */
+    private boolean archive(YearMonth month, TransactionStatus status) {
+        String suffix = "_p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+        String orders = "orders" + suffix;
+        String items = "order_items" + suffix;
+        String bounds = "FOR VALUES FROM ('%s') TO ('%s')".formatted(month.atDay(1), month.plusMonths(1).atDay(1));
+
+        jdbcTemplate.queryForObject("SELECT set_config('lock_timeout', ?, true)", String.class,
+                lockTimeout.toMillis() + "ms");
+        jdbcTemplate.execute("LOCK TABLE " + orders + " IN SHARE MODE");
+        Boolean open = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + orders + " WHERE status NOT IN ('COMPLETED', 'CANCELLED'))",
+                Boolean.class);
+        if (Boolean.TRUE.equals(open)) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + orders);
+        jdbcTemplate.execute("ALTER TABLE orders_archive ATTACH PARTITION " + orders + " " + bounds);
+        jdbcTemplate.execute("ALTER TABLE order_items DETACH PARTITION " + items);
+        jdbcTemplate.execute("ALTER TABLE order_items_archive ATTACH PARTITION " + items + " " + bounds);
+        return true;
+    }
+}
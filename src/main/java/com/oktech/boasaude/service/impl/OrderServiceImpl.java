@@ -1,19 +1,52 @@
 package com.oktech.boasaude.service.impl;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.oktech.boasaude.config.exception.IdempotencyKeyInProgressException;
+import com.oktech.boasaude.config.exception.InsufficientStockException;
+import com.oktech.boasaude.config.exception.InvalidStatusTransitionException;
 import com.oktech.boasaude.entity.Order;
 import com.oktech.boasaude.entity.OrderItem;
 import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.entity.Product;
 import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
 import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.OrderRepository.StatusView;
+import com.oktech.boasaude.repository.OrderStatusTransitionRepository.StatusTransition;
+import com.oktech.boasaude.repository.ProductRepository;
 import com.oktech.boasaude.service.OrderService;
+import com.oktech.boasaude.service.impl.HotStockLedger.Reservation;
+import com.oktech.boasaude.service.outbox.OrderEvents;
+import com.oktech.boasaude.service.outbox.OutboxWriter;
+import com.oktech.boasaude.dto.BulkOrderStatusReport;
+import com.oktech.boasaude.dto.BulkOrderStatusReport.OrderResult;
+import com.oktech.boasaude.dto.BulkOrderStatusReport.Outcome;
 import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
 
 /**
  * Implementação do serviço de pedidos.
@@ -25,57 +58,297 @@ import com.oktech.boasaude.dto.CreateOrderItemDto;
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderServiceImpl.class);
+
+    /**
+     * Ordem de UUID do Postgres (bytes sem sinal). UUID.compareTo compara os
+     * longs com sinal e ordena diferente.
+     */
+    static final Comparator<UUID> DATABASE_UUID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
     private final OrderRepository orderRepository;
 
-    private final OrderItemServiceImpl orderItemServiceImpl;
+    private final ProductRepository productRepository;
+
+    private final HotStockLedger hotStockLedger;
+
+    private final IdempotencyKeyStore idempotencyKeyStore;
+
+    private final OutboxWriter outboxWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Máximo de pedidos em uma mudança de status em lote.
+     */
+    private final int maxBulkStatusIds;
 
-    public OrderServiceImpl(OrderRepository orderRepository, OrderItemServiceImpl orderItemServiceImpl) {
+    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository,
+            HotStockLedger hotStockLedger, IdempotencyKeyStore idempotencyKeyStore, OutboxWriter outboxWriter,
+            PlatformTransactionManager transactionManager,
+            @Value("${orders.bulk-status.max-ids:1000}") int maxBulkStatusIds) {
         this.orderRepository = orderRepository;
-        this.orderItemServiceImpl = orderItemServiceImpl;
+        this.productRepository = productRepository;
+        this.hotStockLedger = hotStockLedger;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBulkStatusIds = maxBulkStatusIds;
     }
 
     /**
      * Cria um novo pedido para o usuário atual com os itens de pedido fornecidos.
+     * Itens repetidos do mesmo produto são somados em uma única linha.
      * @param currentUser O usuário atual que está criando o pedido.
      * @param orderItems A lista de itens de pedido a serem adicionados ao pedido.
      * @return O pedido criado com os itens associados.
+     * @throws InsufficientStockException se algum produto não tiver estoque; nada
+     *         é gravado nesse caso.
     */
     @Override
     public Order createOrder(User currentUser, List<CreateOrderItemDto> orderItems) {
-        Order order = new Order(currentUser);
+        return placeOrder(currentUser, mergeQuantities(orderItems), null).order();
+    }
 
-        orderRepository.save(order);
-        
-        for (CreateOrderItemDto itemDto : orderItems) {
-            OrderItem orderItem = orderItemServiceImpl.addOrderItem(order, itemDto.productId(), itemDto.quantity());
-            order.getItems().add(orderItem);
+    /**
+     * Cria um pedido protegido por uma Idempotency-Key. A chave é reservada em
+     * uma transação própria antes de qualquer reserva de estoque, então
+     * repetições nunca tocam no estoque: uma chave concluída devolve a resposta
+     * original, e uma chave ainda em uso é recusada com
+     * {@link IdempotencyKeyInProgressException}. A resposta é gravada na
+     * transação do pedido; se o pedido falhar, a chave é liberada.
+     */
+    @Override
+    public CreatedOrder createOrder(User currentUser, List<CreateOrderItemDto> orderItems, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new CreatedOrder(new OrderResponseDto(createOrder(currentUser, orderItems)), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > 255) {
+            throw new IllegalArgumentException("Idempotency-Key must have between 1 and 255 characters.");
+        }
+        Map<UUID, Integer> quantities = mergeQuantities(orderItems);
+        String requestHash = idempotencyKeyStore.hash(orderItems);
+
+        Optional<OrderResponseDto> replay = idempotencyKeyStore.find(currentUser.getId(), idempotencyKey,
+                requestHash, OrderResponseDto.class);
+        if (replay.isEmpty()) {
+            replay = idempotencyKeyStore.claim(currentUser.getId(), idempotencyKey, requestHash,
+                    OrderResponseDto.class);
+        }
+        if (replay.isPresent()) {
+            return new CreatedOrder(replay.get(), true);
+        }
+
+        boolean placed = false;
+        try {
+            CreatedOrder created = new CreatedOrder(placeOrder(currentUser, quantities, idempotencyKey).response(),
+                    false);
+            placed = true;
+            return created;
+        } catch (TransactionException ex) {
+            // Resultado do commit desconhecido: a chave fica reservada até o timeout.
+            placed = true;
+            throw ex;
+        } finally {
+            if (!placed) {
+                idempotencyKeyStore.release(currentUser.getId(), idempotencyKey);
+            }
+        }
+    }
+
+    /**
+     * Reserva os produtos hot no {@link HotStockLedger} sem nenhuma conexão
+     * aberta (um novo lote usa uma conexão própria) e grava o pedido em uma
+     * transação: a baixa de estoque dos demais produtos, uma consulta para
+     * todos os produtos, o INSERT do pedido, os INSERTs dos itens em batch, o
+     * evento order.created no outbox e a resposta da Idempotency-Key, se houver.
+     *
+     * @return O pedido criado e, com Idempotency-Key, sua resposta.
+     */
+    private Placement placeOrder(User currentUser, Map<UUID, Integer> quantities, String idempotencyKey) {
+        Map<UUID, Reservation> reservations = new HashMap<>();
+        boolean committed = false;
+        try {
+            reserveHotStock(quantities, reservations);
+            Placement placement = transactionTemplate.execute(status -> {
+                Map<UUID, Integer> regular = new LinkedHashMap<>(quantities);
+                regular.keySet().removeAll(reservations.keySet());
+                reserveStock(regular);
+
+                Map<UUID, Product> products = productRepository.findAllById(quantities.keySet()).stream()
+                        .collect(Collectors.toMap(Product::getId, Function.identity()));
+                for (UUID productId : quantities.keySet()) {
+                    if (!products.containsKey(productId)) {
+                        throw new IllegalArgumentException("Product not found with id: " + productId);
+                    }
+                }
+
+                Order created = new Order(currentUser);
+                quantities.forEach((productId, quantity) -> {
+                    OrderItem item = new OrderItem(created, products.get(productId), quantity);
+                    Reservation reservation = reservations.get(productId);
+                    if (reservation != null) {
+                        item.setStockLeaseId(reservation.leaseId());
+                    }
+                    created.addItem(item);
+                });
+                Order saved = orderRepository.save(created);
+                outboxWriter.append(OrderEvents.AGGREGATE_TYPE, saved.getId(), OrderEvents.CREATED,
+                        new OrderEvents.Created(saved.getId(), currentUser.getId(), saved.getTotalCents(),
+                                saved.getItems().stream()
+                                        .map(item -> new OrderEvents.Line(item.getProduct().getId(),
+                                                item.getQuantity(), item.getUnitPriceCents()))
+                                        .toList()));
+
+                if (idempotencyKey == null) {
+                    return new Placement(saved, null);
+                }
+                OrderResponseDto response = new OrderResponseDto(saved);
+                idempotencyKeyStore.complete(currentUser.getId(), idempotencyKey, response);
+                return new Placement(saved, response);
+            });
+            committed = true;
+            return placement;
+        } catch (TransactionException ex) {
+            // Resultado do commit desconhecido: as unidades ficam no lote e voltam
+            // ao estoque no acerto, que conta apenas os itens gravados.
+            committed = true;
+            throw ex;
+        } finally {
+            for (Reservation reservation : reservations.values()) {
+                reservation.complete(committed);
+            }
+        }
+    }
+
+    /**
+     * Reserva no ledger as linhas de produtos hot. As reservas entram no mapa
+     * assim que são feitas, para que placeOrder as conclua mesmo que uma linha
+     * seguinte falhe.
+     */
+    private void reserveHotStock(Map<UUID, Integer> quantities, Map<UUID, Reservation> reservations) {
+        quantities.forEach((productId, quantity) -> {
+            if (hotStockLedger.isHot(productId)) {
+                reservations.put(productId, hotStockLedger.reserve(productId, quantity));
+            }
+        });
+    }
+
+    /**
+     * Baixa o estoque de cada produto com um UPDATE condicional. Os produtos são
+     * sempre bloqueados em ordem de ID, na ordem do Postgres (a mesma do
+     * cancelamento), então dois pedidos ou um pedido e um cancelamento com os
+     * mesmos produtos nunca esperam um pelo outro em ordem inversa (deadlock).
+     * Se uma linha falhar, a exceção desfaz as baixas anteriores junto com a
+     * transação.
+     */
+    private void reserveStock(Map<UUID, Integer> quantities) {
+        Map<UUID, Integer> ordered = new TreeMap<>(DATABASE_UUID_ORDER);
+        ordered.putAll(quantities);
+        for (Map.Entry<UUID, Integer> line : ordered.entrySet()) {
+            if (productRepository.decrementStock(line.getKey(), line.getValue()) == 0) {
+                if (!productRepository.existsById(line.getKey())) {
+                    throw new IllegalArgumentException("Product not found with id: " + line.getKey());
+                }
+                throw new InsufficientStockException(line.getKey());
+            }
         }
+    }
+
+    /**
+     * Pedido gravado e, com Idempotency-Key, sua resposta.
+     */
+    private record Placement(Order order, OrderResponseDto response) {
+    }
 
-        return orderRepository.save(order);  
+    /**
+     * Soma as quantidades de itens com o mesmo produto, mantendo a ordem em que
+     * os produtos aparecem no pedido.
+     */
+    private static Map<UUID, Integer> mergeQuantities(List<CreateOrderItemDto> orderItems) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (CreateOrderItemDto itemDto : orderItems) {
+            if (itemDto.quantity() == null || itemDto.quantity() <= 0) {
+                throw new IllegalArgumentException("Quantity must be greater than zero.");
+            }
+            quantities.merge(itemDto.productId(), itemDto.quantity(), Math::addExact);
+        }
+        return quantities;
     }
 
+    /**
+     * Muda o status de um pedido do usuário com um único comando SQL, que só
+     * altera o pedido se ele for do usuário e estiver em um status de onde a
+     * transição é permitida, registra a mudança no histórico e devolve o pedido
+     * alterado com os itens: uma ida ao banco. Só quando nada foi alterado o
+     * pedido é consultado, para explicar o motivo.
+     * @throws InvalidStatusTransitionException se o status atual não permite a
+     *         transição.
+     */
     @Override
-    public Order updateOrderStatus(UUID orderId, String status, User currentUser) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + orderId));
+    public OrderResponseDto updateOrderStatus(UUID orderId, String status, User currentUser) {
+        OrderStatus statusEnum = OrderStatus.parse(status);
 
-        if (!order.getUser().getId().equals(currentUser.getId())) {
-            throw new IllegalArgumentException("You do not have permission to update this order.");
+        return orderRepository.transitionOrderStatus(orderId, currentUser.getId(), statusEnum, currentUser.getId())
+                .orElseThrow(() -> transitionFailure(orderId, currentUser, statusEnum));
+    }
+
+    /**
+     * Muda o status de todos os pedidos com um único comando SQL, como em
+     * {@link #updateOrderStatus}. Os pedidos que ficaram de fora são consultados
+     * juntos, em uma segunda consulta, para explicar o resultado de cada um.
+     */
+    @Override
+    public BulkOrderStatusReport updateOrderStatuses(List<UUID> orderIds, String status, User currentUser) {
+        OrderStatus target = OrderStatus.parse(status);
+        Set<UUID> ids = new LinkedHashSet<>(orderIds);
+        if (ids.size() > maxBulkStatusIds) {
+            throw new IllegalArgumentException("At most " + maxBulkStatusIds + " orders can be updated at once.");
         }
+        boolean admin = currentUser.getRole() == UserRole.ADMIN;
+
+        Map<UUID, StatusTransition> transitions = orderRepository
+                .transitionStatus(ids, admin ? null : currentUser.getId(), target, currentUser.getId()).stream()
+                .collect(Collectors.toMap(StatusTransition::orderId, Function.identity()));
 
-        if (status == null || status.isEmpty()) {
-            throw new IllegalArgumentException("Status cannot be null or empty.");
+        Map<UUID, StatusView> skipped = new HashMap<>();
+        if (transitions.size() < ids.size()) {
+            List<UUID> remaining = ids.stream().filter(id -> !transitions.containsKey(id)).toList();
+            orderRepository.findStatusesByIdIn(remaining).forEach(view -> skipped.put(view.getId(), view));
         }
 
-        OrderStatus statusEnum;
-        try {
-            statusEnum = OrderStatus.valueOf(status.toUpperCase()); // Usa toUpperCase para garantir que combine
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid status value: " + status);
+        List<OrderResult> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            StatusView view = skipped.get(id);
+            if (transitions.containsKey(id)) {
+                results.add(new OrderResult(id, Outcome.UPDATED, target.name()));
+            } else if (view == null) {
+                results.add(new OrderResult(id, Outcome.NOT_FOUND, null));
+            } else if (!admin && !view.getUserId().equals(currentUser.getId())) {
+                results.add(new OrderResult(id, Outcome.FORBIDDEN, null));
+            } else {
+                results.add(new OrderResult(id, Outcome.INVALID_TRANSITION, view.getStatus().name()));
+            }
         }
+        logger.info("Bulk status change to {} by user {}: {} of {} orders updated",
+                target, currentUser.getId(), transitions.size(), ids.size());
+        return BulkOrderStatusReport.of(target.name(), results);
+    }
 
-        order.updateStatus(statusEnum);
-        return orderRepository.save(order);
+    /**
+     * Explica por que uma transição não foi aplicada.
+     */
+    private RuntimeException transitionFailure(UUID orderId, User currentUser, OrderStatus target) {
+        List<StatusView> current = orderRepository.findStatusesByIdIn(List.of(orderId));
+        if (current.isEmpty()) {
+            return new IllegalArgumentException("Order not found with ID: " + orderId);
+        }
+        if (!current.get(0).getUserId().equals(currentUser.getId())) {
+            return new IllegalArgumentException("You do not have permission to update this order.");
+        }
+        return new InvalidStatusTransitionException(orderId, current.get(0).getStatus(), target);
     }
 
     @Override
@@ -90,9 +363,26 @@ public class OrderServiceImpl implements OrderService {
         return order;
     }
 
+    /**
+     * Lista os pedidos do usuário com os itens já carregados: uma consulta
+     * pagina os IDs (mais o count), outra busca os pedidos da página com os
+     * itens. O mapeamento para DTO não dispara nenhuma consulta.
+     */
     @Override
+    @Transactional(readOnly = true)
     public Page<Order> getOrdersByUserId(Pageable pageable, User currentUser) {
-        Page<Order> orders = orderRepository.findByUserId(currentUser.getId(), pageable);
+        Page<UUID> ids = orderRepository.findIdsByUserId(currentUser.getId(), pageable);
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No orders found for user with ID: " + currentUser.getId());
+        }
+        Map<UUID, Order> orders = orderRepository.findWithItemsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return ids.map(orders::get);
+    }
+
+    @Override
+    public Page<OrderResponseDto> getOrderHistory(Pageable pageable, User currentUser) {
+        Page<OrderResponseDto> orders = orderRepository.findHistoryByUserId(currentUser.getId(), pageable);
         if (orders.isEmpty()) {
             throw new IllegalArgumentException("No orders found for user with ID: " + currentUser.getId());
         }
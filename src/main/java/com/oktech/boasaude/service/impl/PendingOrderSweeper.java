@@ -0,0 +1,113 @@
+package com.oktech.boasaude.service.impl;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.repository.OrderRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cancela os pedidos que continuam PENDING depois do TTL (checkout
+ * abandonado). Cada lote é reservado com FOR UPDATE SKIP LOCKED, então várias
+ * instâncias varrem em paralelo sem pegar os mesmos pedidos, e cancelado pela
+ * mesma transição usada pela API, na mesma transação: o histórico, o evento
+ * order.status-changed e a devolução do estoque vão juntos.
+ */
+@Component
+public class PendingOrderSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingOrderSweeper.class);
+
+    private static final String CLAIM_SQL = """
+            SELECT id
+              FROM orders
+             WHERE status = 'PENDING' AND created_at < ?
+             ORDER BY created_at
+             LIMIT ?
+               FOR UPDATE SKIP LOCKED
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final OrderRepository orderRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter expired;
+
+    private final boolean enabled;
+
+    private final Duration ttl;
+
+    private final int batchSize;
+
+    public PendingOrderSweeper(JdbcTemplate jdbcTemplate, OrderRepository orderRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${orders.expiry.enabled:true}") boolean enabled,
+            @Value("${orders.expiry.ttl:30m}") Duration ttl,
+            @Value("${orders.expiry.batch-size:200}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expired = Counter.builder("orders.expired")
+                .description("Pending orders cancelled after the expiry TTL")
+                .register(meterRegistry);
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Cancela os pedidos expirados, um lote por transação, até não sobrar
+     * nenhum disponível para esta instância.
+     */
+    @Scheduled(fixedDelayString = "${orders.expiry.sweep-interval:1m}",
+            initialDelayString = "${orders.expiry.sweep-interval:1m}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(ttl));
+        int total = 0;
+        int claimed;
+        do {
+            Batch batch = transactionTemplate.execute(status -> cancelBatch(cutoff));
+            claimed = batch.claimed();
+            total += batch.cancelled();
+        } while (claimed == batchSize);
+        if (total > 0) {
+            expired.increment(total);
+            logger.info("Cancelled {} pending orders older than {}", total, ttl);
+        }
+    }
+
+    private Batch cancelBatch(Timestamp cutoff) {
+        List<UUID> ids = jdbcTemplate.queryForList(CLAIM_SQL, UUID.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return new Batch(0, 0);
+        }
+        int cancelled = orderRepository.transitionStatus(ids, null, OrderStatus.CANCELLED, null).size();
+        return new Batch(ids.size(), cancelled);
+    }
+
+    /**
+     * Pedidos reservados e pedidos cancelados em um lote.
+     */
+    private record Batch(int claimed, int cancelled) {
+    }
+}
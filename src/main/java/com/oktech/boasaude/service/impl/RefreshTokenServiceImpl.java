@@ -0,0 +1,133 @@
+package com.oktech.boasaude.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.oktech.boasaude.entity.RefreshToken;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.RefreshTokenRepository;
+import com.oktech.boasaude.service.RefreshTokenService;
+
+/**
+ * Implementação do serviço de refresh tokens.
+ * Os tokens são valores aleatórios de 256 bits; somente o hash SHA-256 é
+ * gravado, então validar um token custa um hash e uma busca por índice, sem
+ * BCrypt.
+ */
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final Duration refreshTokenTtl;
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh-token-ttl:14d}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    @Override
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID()).token();
+    }
+
+    @Override
+    @Transactional
+    public Optional<Rotation> rotate(String refreshToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken));
+        if (found.isEmpty()) {
+            logger.warn("Unknown refresh token presented");
+            return Optional.empty();
+        }
+
+        RefreshToken current = found.get();
+        if (current.isRevoked()) {
+            // Um token já rotacionado foi reapresentado: o token pode ter vazado,
+            // então todos os tokens da família deixam de valer.
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now());
+            logger.warn("Refresh token reuse detected for user ID: {}, revoked {} tokens",
+                    current.getUser().getId(), revoked);
+            return Optional.empty();
+        }
+
+        User user = current.getUser();
+        if (current.isExpired() || !user.isActive() || user.getTokenVersion() != current.getTokenVersion()) {
+            logger.warn("Expired or revoked refresh token for user ID: {}", user.getId());
+            current.setRevokedAt(LocalDateTime.now());
+            return Optional.empty();
+        }
+
+        IssuedToken next = create(user, current.getFamilyId());
+        current.setRevokedAt(LocalDateTime.now());
+        current.setReplacedBy(next.id());
+
+        return Optional.of(new Rotation(user, next.token()));
+    }
+
+    @Override
+    @Transactional
+    public boolean revoke(String refreshToken) {
+        Optional<RefreshToken> found = refreshTokenRepository.findByTokenHashForUpdate(hash(refreshToken));
+        if (found.isEmpty()) {
+            return false;
+        }
+        RefreshToken current = found.get();
+        int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), LocalDateTime.now());
+        logger.info("Logout for user ID: {}, revoked {} refresh tokens", current.getUser().getId(), revoked);
+        return true;
+    }
+
+    /**
+     * Remove periodicamente os tokens expirados.
+     */
+    @Scheduled(cron = "${jwt.refresh-token-purge-cron:0 0 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        logger.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private IssuedToken create(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken entity = new RefreshToken(user, familyId, hash(token),
+                LocalDateTime.now().plus(refreshTokenTtl));
+        refreshTokenRepository.save(entity);
+        return new IssuedToken(entity.getId(), token);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record IssuedToken(UUID id, String token) {
+    }
+}
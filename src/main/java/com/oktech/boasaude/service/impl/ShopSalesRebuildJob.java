@@ -0,0 +1,50 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.LocalDate;
+
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.service.job.JobHandler;
+
+/**
+ * Job que reconstrói as vendas diárias das lojas em um período. Reexecutar é
+ * seguro: cada dia é recalculado do zero a partir dos pedidos.
+ */
+@Component
+public class ShopSalesRebuildJob implements JobHandler<ShopSalesRebuildJob.Range> {
+
+    public static final String TYPE = "shop-sales.rebuild";
+
+    private final ShopSalesRollup shopSalesRollup;
+
+    public ShopSalesRebuildJob(ShopSalesRollup shopSalesRollup) {
+        this.shopSalesRollup = shopSalesRollup;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public Class<Range> payloadType() {
+        return Range.class;
+    }
+
+    @Override
+    public void handle(Range range) {
+        shopSalesRollup.rebuild(range.from(), range.to());
+    }
+
+    /**
+     * Período a reconstruir, com as duas pontas inclusivas.
+     */
+    public record Range(LocalDate from, LocalDate to) {
+
+        public Range {
+            if (to.isBefore(from)) {
+                throw new IllegalArgumentException("Rebuild range ends before it starts");
+            }
+        }
+    }
+}
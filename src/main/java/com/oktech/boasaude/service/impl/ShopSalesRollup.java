@@ -0,0 +1,250 @@
+package com.oktech.boasaude.service.impl;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.entity.OutboxEvent;
+import com.oktech.boasaude.service.outbox.OrderEvents;
+import com.oktech.boasaude.service.outbox.OutboxEventHandler;
+
+/**
+ * Mantém as vendas diárias por loja (shop_daily_sales) e por produto
+ * (shop_product_daily_sales) a partir dos eventos de pedidos.
+ * Um pedido conta enquanto não estiver cancelado, no dia em que foi criado:
+ * a criação soma os itens do pedido, e uma mudança de status soma ou subtrai
+ * conforme o pedido passa a contar ou deixa de contar. As somas comutam, então
+ * eventos fora de ordem chegam ao mesmo resultado; eventos repetidos são
+ * descartados por shop_sales_applied_events, gravada na mesma transação.
+ * A reconstrução recalcula dias inteiros a partir dos pedidos, para cargas
+ * retroativas ou correções.
+ */
+@Component
+public class ShopSalesRollup implements OutboxEventHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShopSalesRollup.class);
+
+    /**
+     * Tomado antes de qualquer escrita, para que um evento e uma reconstrução
+     * se excluam sem risco de deadlock.
+     */
+    private static final String LOCK_FOR_EVENT_SQL = "LOCK TABLE shop_daily_sales IN ROW EXCLUSIVE MODE";
+
+    private static final String LOCK_FOR_REBUILD_SQL =
+            "LOCK TABLE shop_daily_sales, shop_product_daily_sales IN EXCLUSIVE MODE";
+
+    private static final String MARK_APPLIED_SQL = """
+            INSERT INTO shop_sales_applied_events (event_id) VALUES (?) ON CONFLICT DO NOTHING
+            """;
+
+    /**
+     * Soma (sign = 1) ou subtrai (sign = -1) os itens de um pedido nas duas
+     * tabelas com um único comando. Lê as views, já que o pedido pode ter sido
+     * arquivado antes de o evento ser entregue.
+     */
+    private static final String APPLY_ORDER_SQL = """
+            WITH delta AS (
+                SELECT CAST(? AS bigint) AS sign
+            ),
+            lines AS (
+                SELECT i.shop_id, o.created_at::date AS day, i.product_id,
+                       d.sign * SUM(i.quantity) AS units,
+                       d.sign * SUM(i.quantity * i.unit_price_cents) AS revenue_cents,
+                       d.sign AS order_count
+                  FROM orders_all o
+                  JOIN order_items_all i ON i.order_id = o.id AND i.created_at = o.created_at
+                 CROSS JOIN delta d
+                 WHERE o.id = ? AND i.shop_id IS NOT NULL
+                 GROUP BY i.shop_id, o.created_at::date, i.product_id, d.sign
+            ),
+            by_product AS (
+                INSERT INTO shop_product_daily_sales AS s (shop_id, day, product_id, units, revenue_cents, order_count)
+                SELECT shop_id, day, product_id, units, revenue_cents, order_count FROM lines
+                ON CONFLICT (shop_id, day, product_id) DO UPDATE
+                   SET units = s.units + EXCLUDED.units,
+                       revenue_cents = s.revenue_cents + EXCLUDED.revenue_cents,
+                       order_count = s.order_count + EXCLUDED.order_count
+            )
+            INSERT INTO shop_daily_sales AS s (shop_id, day, units, revenue_cents, order_count)
+            SELECT shop_id, day, SUM(units), SUM(revenue_cents), MAX(order_count)
+              FROM lines
+             GROUP BY shop_id, day
+            ON CONFLICT (shop_id, day) DO UPDATE
+               SET units = s.units + EXCLUDED.units,
+                   revenue_cents = s.revenue_cents + EXCLUDED.revenue_cents,
+                   order_count = s.order_count + EXCLUDED.order_count
+            """;
+
+    private static final String DELETE_DAY_SQL = """
+            WITH by_product AS (
+                DELETE FROM shop_product_daily_sales WHERE day = ?
+            )
+            DELETE FROM shop_daily_sales WHERE day = ?
+            """;
+
+    /**
+     * Recalcula um dia a partir das views, que incluem os meses arquivados.
+     */
+    private static final String REBUILD_DAY_SQL = """
+            WITH lines AS (
+                SELECT i.shop_id, i.product_id, o.id AS order_id, i.quantity,
+                       i.quantity * i.unit_price_cents AS revenue_cents
+                  FROM orders_all o
+                  JOIN order_items_all i ON i.order_id = o.id AND i.created_at = o.created_at
+                 WHERE o.created_at >= ? AND o.created_at < ? AND o.status <> 'CANCELLED'
+                   AND i.shop_id IS NOT NULL
+            ),
+            by_product AS (
+                INSERT INTO shop_product_daily_sales (shop_id, day, product_id, units, revenue_cents, order_count)
+                SELECT shop_id, CAST(? AS date), product_id, SUM(quantity), SUM(revenue_cents),
+                       COUNT(DISTINCT order_id)
+                  FROM lines
+                 GROUP BY shop_id, product_id
+            )
+            INSERT INTO shop_daily_sales (shop_id, day, units, revenue_cents, order_count)
+            SELECT shop_id, CAST(? AS date), SUM(quantity), SUM(revenue_cents), COUNT(DISTINCT order_id)
+              FROM lines
+             GROUP BY shop_id
+            """;
+
+    /**
+     * Os eventos ainda não entregues dos pedidos do dia já estão refletidos na
+     * reconstrução, que lê o mesmo snapshot em que eles foram gravados.
+     */
+    private static final String MARK_DAY_APPLIED_SQL = """
+            INSERT INTO shop_sales_applied_events (event_id)
+            SELECT e.id
+              FROM outbox_events e
+              JOIN orders_all o ON o.id = e.aggregate_id
+             WHERE e.aggregate_type = ?
+               AND e.event_type IN (?, ?)
+               AND e.status <> 'DONE'
+               AND o.created_at >= ? AND o.created_at < ?
+            ON CONFLICT DO NOTHING
+            """;
+
+    /**
+     * Mantém os registros dos eventos que ainda estão no outbox sem DONE: um
+     * evento DEAD pode ser devolvido a PENDING a qualquer momento.
+     */
+    private static final String PURGE_APPLIED_SQL = """
+            DELETE FROM shop_sales_applied_events a
+             WHERE a.applied_at < ?
+               AND NOT EXISTS (SELECT 1
+                                 FROM outbox_events e
+                                WHERE e.id = a.event_id AND e.status <> 'DONE')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate eventTransaction;
+
+    private final TransactionTemplate rebuildTransaction;
+
+    private final Duration appliedEventRetention;
+
+    public ShopSalesRollup(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${shops.sales.applied-event-retention:30d}") Duration appliedEventRetention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.appliedEventRetention = appliedEventRetention;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OrderEvents.CREATED.equals(eventType) || OrderEvents.STATUS_CHANGED.equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        long sign;
+        if (OrderEvents.CREATED.equals(event.getEventType())) {
+            sign = 1;
+        } else {
+            OrderEvents.StatusChanged change = objectMapper.readValue(event.getPayload(),
+                    OrderEvents.StatusChanged.class);
+            sign = counted(change.toStatus()) - counted(change.fromStatus());
+        }
+        eventTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.execute(LOCK_FOR_EVENT_SQL);
+            if (jdbcTemplate.update(MARK_APPLIED_SQL, event.getId()) == 0) {
+                logger.debug("Outbox event {} already applied to shop sales", event.getId());
+                return;
+            }
+            if (sign != 0) {
+                jdbcTemplate.update(APPLY_ORDER_SQL, sign, event.getAggregateId());
+            }
+        });
+    }
+
+    /**
+     * Recalcula as vendas dos dias informados, um dia por transação.
+     *
+     * @param from Primeiro dia, inclusive.
+     * @param to   Último dia, inclusive.
+     * @return Número de dias recalculados.
+     */
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Rebuild range ends before it starts");
+        }
+        int days = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            rebuildDay(day);
+            days++;
+        }
+        logger.info("Rebuilt shop sales from {} to {} ({} days)", from, to, days);
+        return days;
+    }
+
+    private void rebuildDay(LocalDate day) {
+        Date date = Date.valueOf(day);
+        Timestamp start = Timestamp.valueOf(day.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(day.plusDays(1).atStartOfDay());
+        rebuildTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.execute(LOCK_FOR_REBUILD_SQL);
+            jdbcTemplate.update(DELETE_DAY_SQL, date, date);
+            jdbcTemplate.update(REBUILD_DAY_SQL, start, end, date, date);
+            jdbcTemplate.update(MARK_DAY_APPLIED_SQL, OrderEvents.AGGREGATE_TYPE, OrderEvents.CREATED,
+                    OrderEvents.STATUS_CHANGED, start, end);
+        });
+    }
+
+    /**
+     * Remove os registros de eventos já aplicados mais antigos que a retenção,
+     * exceto os de eventos que o outbox ainda pode entregar de novo (PENDING
+     * ou DEAD).
+     */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}", initialDelayString = "${outbox.purge-interval:1h}")
+    public void purgeAppliedEvents() {
+        int purged = jdbcTemplate.update(PURGE_APPLIED_SQL,
+                Timestamp.valueOf(LocalDateTime.now().minus(appliedEventRetention)));
+        if (purged > 0) {
+            logger.info("Purged {} applied shop sales events", purged);
+        }
+    }
+
+    private static long counted(OrderStatus status) {
+        return status == OrderStatus.CANCELLED ? 0 : 1;
+    }
+}
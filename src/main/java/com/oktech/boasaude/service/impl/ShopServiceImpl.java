@@ -1,17 +1,28 @@
 package com.oktech.boasaude.service.impl;
 
 import com.oktech.boasaude.dto.ShopCreateRequestDto;
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
 import com.oktech.boasaude.dto.ShopResponseDto;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto;
+import com.oktech.boasaude.entity.OrderStatus;
 import com.oktech.boasaude.entity.Shop;
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.OrderItemRepository;
 import com.oktech.boasaude.repository.ShopRepository;
 import com.oktech.boasaude.service.ShopService;
 
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -31,6 +42,8 @@ import org.springframework.data.domain.Pageable;
  * @version 1.3 - Adicionado método para deletar loja e corrigido o método de
  *          atualização de loja para verificar se o usuário é o proprietário.
  * @version 1.4 - Adicionado método para obter todas as lojas com paginação.
+ * @version 1.5 - Adicionado painel de vendas da loja.
+ * @version 1.6 - Adicionada caixa de pedidos da loja.
  */
 
 @Service
@@ -40,14 +53,37 @@ public class ShopServiceImpl implements ShopService {
 
     private UserServiceImpl userService;
 
+    private final OrderItemRepository orderItemRepository;
+
+    /**
+     * Maior período, em dias, aceito pelo painel de vendas.
+     */
+    private final int maxDashboardDays;
+
+    /**
+     * Quantidade de produtos listados no painel de vendas.
+     */
+    private final int dashboardTopProducts;
+
     private static final String CNPJ_REGEX = "^(\\d{2}\\.\\d{3}\\.\\d{3}/\\d{4}-\\d{2}|\\d{14})$"; // Formato
                                                                                                    // XX.XXX.XXX/XXXX-XX
                                                                                                    // ou XXXXXXXXXXXXXXX
+    /**
+     * Início da caixa de pedidos quando nenhum período é informado.
+     */
+    private static final LocalDateTime INBOX_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
     private static final Pattern CNPJ_PATTERN = Pattern.compile(CNPJ_REGEX); // Regex para validar CNPJ
 
-    public ShopServiceImpl(ShopRepository shopRepository, UserServiceImpl userService) {
+    public ShopServiceImpl(ShopRepository shopRepository, UserServiceImpl userService,
+            OrderItemRepository orderItemRepository,
+            @Value("${shops.dashboard.max-days:366}") int maxDashboardDays,
+            @Value("${shops.dashboard.top-products:20}") int dashboardTopProducts) {
         this.shopRepository = shopRepository;
         this.userService = userService;
+        this.orderItemRepository = orderItemRepository;
+        this.maxDashboardDays = maxDashboardDays;
+        this.dashboardTopProducts = dashboardTopProducts;
     }
 
     @Override
@@ -149,5 +185,47 @@ public class ShopServiceImpl implements ShopService {
         return new ShopResponseDto(shop);
     }
 
+    @Override
+    public ShopSalesDashboardDto getSalesDashboard(UUID shopId, LocalDate from, LocalDate to, User currentUser) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Dashboard period ends before it starts");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxDashboardDays) {
+            throw new IllegalArgumentException("Dashboard period is limited to " + maxDashboardDays + " days");
+        }
+        checkShopAccess(shopId, currentUser);
+
+        return ShopSalesDashboardDto.of(shopId, from, to,
+                shopRepository.findDailySales(shopId, from, to),
+                shopRepository.findTopProductSales(shopId, from, to, dashboardTopProducts));
+    }
+
+    @Override
+    public Page<ShopOrderResponseDto> getShopOrders(UUID shopId, List<String> statuses, LocalDate from,
+            LocalDate to, Pageable pageable, User currentUser) {
+        Set<OrderStatus> statusFilter = EnumSet.noneOf(OrderStatus.class);
+        if (statuses != null) {
+            statuses.forEach(status -> statusFilter.add(OrderStatus.parse(status)));
+        }
+        LocalDateTime start = from != null ? from.atStartOfDay() : INBOX_EPOCH;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : LocalDate.now().plusDays(1).atStartOfDay();
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("Order period ends before it starts");
+        }
+        checkShopAccess(shopId, currentUser);
+
+        return orderItemRepository.findShopOrders(shopId, statusFilter, start, end, pageable);
+    }
 
+    /**
+     * Garante que a loja existe e que o usuário é o dono ou ADMIN.
+     */
+    private void checkShopAccess(UUID shopId, User currentUser) {
+        Shop shop = shopRepository.findById(shopId)
+                .orElseThrow(() -> new IllegalArgumentException("Shop not found."));
+
+        if (currentUser.getRole() != UserRole.ADMIN && !shop.getOwner().getId().equals(currentUser.getId())) {
+            throw new AccessDeniedException("You are not the owner of this shop");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.oktech.boasaude.service.impl;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -9,10 +10,13 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.oktech.boasaude.config.security.AuthenticatedUser;
+import com.oktech.boasaude.config.security.JwtVerificationEngine;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
 import com.oktech.boasaude.service.TokenService;
 import com.oktech.boasaude.service.UserService;
 
@@ -21,35 +25,49 @@ public class TokenServiceImpl implements TokenService {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenServiceImpl.class);
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String CLAIM_USER_ID = "userId";
+    static final String CLAIM_NAME = "name";
+    static final String CLAIM_USER_ROLE = "userRole";
+    static final String CLAIM_TOKEN_VERSION = "tv";
 
     private final UserService userService;
 
-    public TokenServiceImpl(UserService userService) {
+    private final JwtVerificationEngine jwtEngine;
+
+    private final Duration accessTokenTtl;
+
+    public TokenServiceImpl(UserService userService, JwtVerificationEngine jwtEngine,
+            @Value("${jwt.access-token-ttl:15m}") Duration accessTokenTtl) {
         this.userService = userService;
+        this.jwtEngine = jwtEngine;
+        this.accessTokenTtl = accessTokenTtl;
     }
 
     @Override
     public String generateToken(String email) {
-        try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
+        var user = userService.getUserByEmail(email);
 
-            var user = userService.getUserByEmail(email);
+        if (user == null) {
+            throw new IllegalArgumentException("User not found with email: " + email);
+        }
 
-            if (user == null) {
-                throw new IllegalArgumentException("User not found with email: " + email);
-            }
+        return generateToken(user);
+    }
 
+    @Override
+    public String generateToken(User user) {
+        try {
             var userId = user.getId();
 
-            String token = JWT.create()
-                    .withIssuer("oktech")
+            String token = jwtEngine.sign(JWT.create()
+                    .withIssuer(JwtVerificationEngine.ISSUER)
                     .withSubject(user.getUsername())
-                    .withClaim("userId", userId.toString())
+                    .withClaim(CLAIM_USER_ID, userId.toString())
+                    .withClaim(CLAIM_NAME, user.getName())
                     .withClaim("role", user.getAuthorities().toString())
-                    .withExpiresAt(getExpirationTime())
-                    .sign(algorithm);
+                    .withClaim(CLAIM_USER_ROLE, user.getRole().name())
+                    .withClaim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                    .withExpiresAt(getExpirationTime()));
 
             return token;
         } catch (JWTCreationException exception) {
@@ -60,11 +78,7 @@ public class TokenServiceImpl implements TokenService {
 
     public DecodedJWT getDecodedToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("oktech")
-                    .build()
-                    .verify(token);
+            return jwtEngine.verify(token);
         } catch (JWTVerificationException e) {
             logger.error("Invalid JWT token", e);
             return null;
@@ -78,7 +92,7 @@ public class TokenServiceImpl implements TokenService {
             if (decodedJWT == null)
                 return null;
 
-            String userIdStr = decodedJWT.getClaim("userId").asString();
+            String userIdStr = decodedJWT.getClaim(CLAIM_USER_ID).asString();
             return UUID.fromString(userIdStr);
         } catch (Exception e) {
             logger.error("Error extracting userId from JWT token", e);
@@ -86,7 +100,38 @@ public class TokenServiceImpl implements TokenService {
         }
     }
 
+    @Override
+    public AuthenticatedUser getAuthenticatedUserFromToken(String token) {
+        try {
+            DecodedJWT decodedJWT = getDecodedToken(token);
+            if (decodedJWT == null)
+                return null;
+
+            UUID userId = UUID.fromString(decodedJWT.getClaim(CLAIM_USER_ID).asString());
+            String role = decodedJWT.getClaim(CLAIM_USER_ROLE).asString();
+            Integer tokenVersion = decodedJWT.getClaim(CLAIM_TOKEN_VERSION).asInt();
+
+            return new AuthenticatedUser(
+                    userId,
+                    decodedJWT.getClaim(CLAIM_NAME).asString(),
+                    decodedJWT.getSubject(),
+                    null,
+                    null,
+                    role != null ? UserRole.valueOf(role) : null,
+                    true,
+                    tokenVersion != null ? tokenVersion : 0);
+        } catch (Exception e) {
+            logger.error("Error extracting claims from JWT token", e);
+            return null;
+        }
+    }
+
+    @Override
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtl.toSeconds();
+    }
+
     private Instant getExpirationTime() {
-        return Instant.now().plusSeconds(3600); // 1 hour
+        return Instant.now().plus(accessTokenTtl);
     }
 }
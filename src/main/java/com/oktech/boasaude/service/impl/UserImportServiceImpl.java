@@ -0,0 +1,342 @@
+package com.oktech.boasaude.service.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.config.bloom.RegisteredUserFilter;
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.dto.UserImportReport;
+import com.oktech.boasaude.dto.UserImportReport.RowResult;
+import com.oktech.boasaude.dto.UserImportReport.RowStatus;
+import com.oktech.boasaude.entity.AuthProvider;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.UserRepository;
+import com.oktech.boasaude.repository.UserRepository.IdentityView;
+import com.oktech.boasaude.service.UserImportService;
+import com.oktech.boasaude.service.ValidationService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Implementação da importação de usuários em lote.
+ * O arquivo é lido linha a linha e processado em blocos: para cada bloco há
+ * uma única consulta de emails/CPFs existentes, o BCrypt roda em paralelo num
+ * ForkJoinPool dedicado (separado do executor do login) e os usuários são
+ * gravados com um único INSERT de várias linhas via JDBC.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "email", "cpf", "phone", "password");
+
+    /**
+     * ON CONFLICT DO NOTHING cobre usuários cadastrados entre a consulta de
+     * duplicados e o INSERT. Só as linhas gravadas voltam no RETURNING, então
+     * o email de cada uma diz quais linhas do bloco foram criadas, sem depender
+     * das contagens do batch (que com reWriteBatchedInserts chegam como
+     * SUCCESS_NO_INFO).
+     */
+    private static final String INSERT_SQL = """
+            INSERT INTO users (id, name, email, cpf, password, auth_provider, role, phone, is_active,
+                               token_version, created_at, updated_at)
+            VALUES %s
+            ON CONFLICT DO NOTHING
+            RETURNING email
+            """;
+
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, TRUE, 0, ?, ?)";
+
+    private final UserRepository userRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final ValidationService validationService;
+
+    private final RegisteredUserFilter registeredUserFilter;
+
+    private final ObjectMapper objectMapper;
+
+    private final ForkJoinPool hashingPool;
+
+    private final int chunkSize;
+
+    private final int maxRows;
+
+    public UserImportServiceImpl(UserRepository userRepository, JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate, PasswordEncoder passwordEncoder,
+            ValidationService validationService, RegisteredUserFilter registeredUserFilter, ObjectMapper objectMapper,
+            @Value("${users.import.hashing-parallelism:#{T(java.lang.Math).max(1, T(java.lang.Runtime).getRuntime().availableProcessors() / 2)}}") int hashingParallelism,
+            @Value("${users.import.chunk-size:500}") int chunkSize,
+            @Value("${users.import.max-rows:50000}") int maxRows) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.validationService = validationService;
+        this.registeredUserFilter = registeredUserFilter;
+        this.objectMapper = objectMapper;
+        this.hashingPool = new ForkJoinPool(hashingParallelism);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public UserImportReport importUsers(Reader reader, Format format) throws IOException {
+        long startedAt = System.nanoTime();
+        List<RowResult> results = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        Set<String> seenEmails = new HashSet<>();
+        Set<String> seenCpfs = new HashSet<>();
+        boolean truncated = false;
+
+        try (BufferedReader lines = new BufferedReader(reader)) {
+            Map<String, Integer> columns = format == Format.CSV ? readCsvHeader(lines.readLine()) : null;
+            long lineNumber = format == Format.CSV ? 1 : 0;
+            int rows = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (++rows > maxRows) {
+                    // Os blocos anteriores já foram gravados: devolve o relatório deles
+                    truncated = true;
+                    logger.warn("Import exceeds the limit of {} rows, stopped at line {}", maxRows, lineNumber);
+                    break;
+                }
+                try {
+                    CreateUserDto dto = format == Format.CSV ? parseCsvRow(line, columns) : parseJsonRow(line);
+                    chunk.add(new ImportRow(lineNumber, dto));
+                } catch (IllegalArgumentException ex) {
+                    results.add(new RowResult(lineNumber, null, RowStatus.INVALID, ex.getMessage()));
+                }
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, seenEmails, seenCpfs, results);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenEmails, seenCpfs, results);
+        }
+
+        results.sort(Comparator.comparingLong(RowResult::line));
+        UserImportReport report = UserImportReport.of(results, truncated);
+        logger.info("Imported {} of {} users in {} ms", report.created(), report.total(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return report;
+    }
+
+    /**
+     * Valida, verifica duplicados, gera os hashes e grava um bloco de linhas.
+     */
+    private void importChunk(List<ImportRow> chunk, Set<String> seenEmails, Set<String> seenCpfs,
+            List<RowResult> results) {
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            String error = validate(row.dto());
+            if (error != null) {
+                results.add(row.result(RowStatus.INVALID, error));
+            } else if (!seenEmails.add(row.dto().email())) {
+                results.add(row.result(RowStatus.DUPLICATE_IN_FILE, "Email repeated in file"));
+            } else if (!seenCpfs.add(row.dto().cpf())) {
+                results.add(row.result(RowStatus.DUPLICATE_IN_FILE, "CPF repeated in file"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Set<String> existingEmails = new HashSet<>();
+        Set<String> existingCpfs = new HashSet<>();
+        for (IdentityView identity : userRepository.findIdentitiesByEmailOrCpf(
+                candidates.stream().map(row -> row.dto().email()).toList(),
+                candidates.stream().map(row -> row.dto().cpf()).toList())) {
+            existingEmails.add(identity.getEmail());
+            existingCpfs.add(identity.getCpf());
+        }
+        List<ImportRow> newRows = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (existingEmails.contains(row.dto().email())) {
+                results.add(row.result(RowStatus.EMAIL_EXISTS, "Email already exists"));
+            } else if (existingCpfs.contains(row.dto().cpf())) {
+                results.add(row.result(RowStatus.CPF_EXISTS, "CPF already exists"));
+            } else {
+                newRows.add(row);
+            }
+        }
+        if (newRows.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashingPool.submit(() -> newRows.parallelStream()
+                .map(row -> passwordEncoder.encode(row.dto().password()))
+                .toList())
+                .join();
+
+        insert(newRows, hashes, results);
+    }
+
+    private void insert(List<ImportRow> rows, List<String> hashes, List<RowResult> results) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = INSERT_SQL.formatted(String.join(", ", Collections.nCopies(rows.size(), INSERT_ROW)));
+
+        List<String> inserted = transactionTemplate.execute(status -> jdbcTemplate.query(sql, ps -> {
+            int p = 1;
+            for (int i = 0; i < rows.size(); i++) {
+                CreateUserDto dto = rows.get(i).dto();
+                ps.setObject(p++, UUID.randomUUID());
+                ps.setString(p++, dto.name());
+                ps.setString(p++, dto.email());
+                ps.setString(p++, dto.cpf());
+                ps.setString(p++, hashes.get(i));
+                ps.setString(p++, AuthProvider.LOCAL.name());
+                ps.setString(p++, UserRole.USER.name());
+                ps.setString(p++, dto.phone());
+                ps.setTimestamp(p++, now);
+                ps.setTimestamp(p++, now);
+            }
+        }, (rs, rowNum) -> rs.getString("email")));
+        Set<String> created = inserted == null ? Set.of() : new HashSet<>(inserted);
+
+        for (ImportRow row : rows) {
+            if (!created.contains(row.dto().email())) {
+                results.add(row.result(RowStatus.CONFLICT, "Email or CPF already exists"));
+            } else {
+                registeredUserFilter.add(row.dto().email(), row.dto().cpf());
+                results.add(row.result(RowStatus.CREATED, null));
+            }
+        }
+    }
+
+    private String validate(CreateUserDto dto) {
+        if (isBlank(dto.name()) || isBlank(dto.email()) || isBlank(dto.cpf()) || isBlank(dto.phone())
+                || isBlank(dto.password())) {
+            return "Name, email, CPF, phone and password are required";
+        }
+        if (!validationService.isValidEmail(dto.email())) {
+            return "Invalid email";
+        }
+        if (dto.cpf().length() > 14) {
+            return "Invalid CPF";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private CreateUserDto parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, CreateUserDto.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON row");
+        }
+    }
+
+    private static Map<String, Integer> readCsvHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header is missing");
+        }
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(CSV_COLUMNS)) {
+            throw new IllegalArgumentException("CSV header must contain the columns " + CSV_COLUMNS);
+        }
+        return columns;
+    }
+
+    private static CreateUserDto parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        String[] fields = new String[CSV_COLUMNS.size()];
+        for (int i = 0; i < fields.length; i++) {
+            int index = columns.get(CSV_COLUMNS.get(i));
+            fields[i] = index < values.size() ? values.get(index).trim() : null;
+        }
+        return new CreateUserDto(fields[0], fields[1], fields[2], fields[3], fields[4]);
+    }
+
+    /**
+     * Divide uma linha CSV em campos, aceitando campos entre aspas com vírgulas
+     * e aspas duplicadas ("") dentro deles.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private record ImportRow(long line, CreateUserDto dto) {
+
+        private RowResult result(RowStatus status, String message) {
+            return new RowResult(line, dto.email(), status, message);
+        }
+    }
+}
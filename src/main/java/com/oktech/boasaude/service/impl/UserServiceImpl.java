@@ -4,12 +4,17 @@ import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.oktech.boasaude.config.bloom.RegisteredUserFilter;
+import com.oktech.boasaude.config.security.TokenRevocationRegistry;
+import com.oktech.boasaude.config.security.UserPrincipalCache;
 import com.oktech.boasaude.dto.CreateUserDto;
 
 import com.oktech.boasaude.entity.User;
@@ -39,35 +44,89 @@ public class UserServiceImpl implements UserService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * Cache de principais usado pelo filtro de autenticação, invalidado a cada
+     * alteração de usuário.
+     */
+    private final UserPrincipalCache principalCache;
+
+    /**
+     * Lista de revogação de tokens, atualizada imediatamente neste nó quando a
+     * versão dos tokens de um usuário é incrementada.
+     */
+    private final TokenRevocationRegistry revocationRegistry;
+
+    /**
+     * Bloom filters de emails e CPFs cadastrados, para evitar as consultas de
+     * existência no caso comum em que os dados são novos.
+     */
+    private final RegisteredUserFilter registeredUserFilter;
+
     private static Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
-    public UserServiceImpl(UserRepository userRepository, @Autowired PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, @Autowired PasswordEncoder passwordEncoder,
+            UserPrincipalCache principalCache, TokenRevocationRegistry revocationRegistry,
+            RegisteredUserFilter registeredUserFilter) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.registeredUserFilter = registeredUserFilter;
     }
 
     /**
      * Cria um novo usuário com os dados fornecidos.
-     * Verifica se o email e o CPF já existem antes de criar o usuário.
+     * As consultas de existência só rodam quando o Bloom filter indica que o
+     * email ou o CPF podem já estar cadastrados; no caso comum o cadastro é um
+     * único INSERT, e as constraints UNIQUE garantem a unicidade.
      * 
      * @param createUserDto DTO com os dados do usuário a ser criado.
      * @return O usuário criado.
+     * @throws IllegalArgumentException se o email ou o CPF já existirem.
      */
     @Override
     public User createUser(CreateUserDto createUserDto) {
-        if (userRepository.existsByEmail(createUserDto.email())) {
+        if (registeredUserFilter.mightContainEmail(createUserDto.email())
+                && userRepository.existsByEmail(createUserDto.email())) {
             logger.error("Email already exists: {}", createUserDto.email());
             throw new IllegalArgumentException("Email already exists");
         }
-        if (userRepository.existsByCpf(createUserDto.cpf())) {
+        if (registeredUserFilter.mightContainCpf(createUserDto.cpf())
+                && userRepository.existsByCpf(createUserDto.cpf())) {
             logger.error("CPF already exists: {}", createUserDto.cpf());
             throw new IllegalArgumentException("CPF already exists");
         }
         User user = new User(createUserDto);
         user.setPassword(passwordEncoder.encode(createUserDto.password())); // Encode the password
 
-        return userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException ex) {
+            throw translateUniqueViolation(ex, createUserDto);
+        }
+        registeredUserFilter.add(savedUser.getEmail(), savedUser.getCpf());
+        return savedUser;
+    }
 
+    /**
+     * Converte a violação das constraints UNIQUE de users nas mesmas mensagens
+     * das verificações de existência.
+     */
+    private RuntimeException translateUniqueViolation(DataIntegrityViolationException ex, CreateUserDto createUserDto) {
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                        ? violation.getConstraintName().toLowerCase()
+                        : String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase();
+        if (constraint.contains("email")) {
+            logger.error("Email already exists: {}", createUserDto.email());
+            return new IllegalArgumentException("Email already exists", ex);
+        }
+        if (constraint.contains("cpf")) {
+            logger.error("CPF already exists: {}", createUserDto.cpf());
+            return new IllegalArgumentException("CPF already exists", ex);
+        }
+        return ex;
     }
 
     /**
@@ -117,7 +176,11 @@ public class UserServiceImpl implements UserService {
             existingUser.setEmail(user.getEmail());
             existingUser.setCpf(user.getCpf());
             existingUser.setPassword(user.getPassword());
-            return userRepository.save(existingUser);
+            existingUser.revokeTokens();
+            User savedUser = userRepository.save(existingUser);
+            registeredUserFilter.add(savedUser.getEmail(), savedUser.getCpf());
+            afterUserChanged(savedUser, true);
+            return savedUser;
         }
         logger.error("User not found for ID: {}", id);
         throw new IllegalArgumentException("User not found: " + id);
@@ -137,7 +200,9 @@ public class UserServiceImpl implements UserService {
         if (existingUser != null) {
             logger.info("User found for ID: {}", id);
             existingUser.setActive(false); // Soft delete
+            existingUser.revokeTokens();
             userRepository.save(existingUser);
+            afterUserChanged(existingUser, true);
         } else {
             logger.error("User not found for ID: {}", id);
             throw new IllegalArgumentException("User not found: " + id);
@@ -177,9 +242,30 @@ public class UserServiceImpl implements UserService {
             logger.error("User not found with ID: {}", userId);
             throw new IllegalArgumentException("User not found: " + userId);
         }
+        // Tokens só precisam ser revogados quando o usuário perde autoridades;
+        // numa promoção o token antigo apenas carrega menos permissões.
+        boolean losesAuthorities = user.getRole() != null && !userRole.includes(user.getRole());
         user.setRole(userRole);
+        if (losesAuthorities) {
+            user.revokeTokens();
+        }
         userRepository.save(user);
+        afterUserChanged(user, losesAuthorities);
         logger.info("User role updated successfully for ID: {}", userId);
         return true;
     }
+
+    /**
+     * Remove o usuário do cache de principais e, se os tokens foram revogados,
+     * registra a nova versão na lista de revogação deste nó.
+     * 
+     * @param user         Usuário alterado.
+     * @param revokeTokens true se a versão dos tokens foi incrementada.
+     */
+    private void afterUserChanged(User user, boolean revokeTokens) {
+        principalCache.invalidate(user.getId());
+        if (revokeTokens) {
+            revocationRegistry.revoke(user.getId(), user.getTokenVersion());
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.oktech.boasaude.service.job;
+
+/**
+ * Executor de um tipo de job. Basta registrar um bean que implemente esta
+ * interface para que os workers passem a reservar os jobs do tipo.
+ * A execução é pelo menos uma vez: um job pode rodar de novo depois de uma
+ * falha, de uma queda ou de uma execução mais longa que o visibility-timeout
+ * sem renovação, então o handler deve ser idempotente.
+ *
+ * @param <P> Tipo do payload, desserializado do JSON gravado no job.
+ */
+public interface JobHandler<P> {
+
+    /**
+     * @return Tipo de job tratado, único entre os handlers.
+     */
+    String type();
+
+    /**
+     * @return Classe usada para desserializar o payload.
+     */
+    Class<P> payloadType();
+
+    /**
+     * Executa o job. Uma exceção agenda uma nova tentativa com backoff.
+     *
+     * @param payload Parâmetros do job.
+     */
+    void handle(P payload) throws Exception;
+}
@@ -0,0 +1,56 @@
+package com.oktech.boasaude.service.job;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.entity.Job;
+import com.oktech.boasaude.repository.JobRepository;
+
+/**
+ * Enfileira jobs para os workers. Chamado dentro de uma transação, o job só é
+ * gravado se a transação for confirmada; fora de uma, é gravado na hora.
+ */
+@Component
+public class JobQueue {
+
+    private final JobRepository jobRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public JobQueue(JobRepository jobRepository, ObjectMapper objectMapper) {
+        this.jobRepository = jobRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Grava um job pronto para execução.
+     *
+     * @param type    Tipo do job, de um {@link JobHandler} registrado.
+     * @param payload Parâmetros do job, serializados em JSON.
+     * @return ID do job.
+     */
+    @Transactional
+    public UUID enqueue(String type, Object payload) {
+        try {
+            return jobRepository.save(new Job(type, objectMapper.writeValueAsString(payload))).getId();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Job payload cannot be serialized: " + type, e);
+        }
+    }
+
+    /**
+     * Busca um job pelo ID.
+     *
+     * @param id ID do job.
+     * @return Job, se existir.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Job> find(UUID id) {
+        return jobRepository.findById(id);
+    }
+}
@@ -0,0 +1,308 @@
+package com.oktech.boasaude.service.job;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.config.JobProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executa os jobs da tabela jobs com os {@link JobHandler}s registrados.
+ * A cada ciclo, para cada tipo com vagas livres, reserva até esse número de
+ * jobs com um UPDATE sobre um SELECT ... FOR UPDATE SKIP LOCKED, que os marca
+ * como RUNNING e adia available_at pelo visibility-timeout: várias instâncias
+ * dividem a fila sem se bloquear. Cada job roda em uma virtual thread própria,
+ * fora de qualquer transação, e o limite de jobs simultâneos por tipo é um
+ * semáforo. Enquanto um job roda, sua visibilidade é renovada periodicamente;
+ * se a instância cair, o job volta a ficar disponível quando ela vencer.
+ * Um job que falha é reagendado com backoff exponencial e, depois de
+ * max-attempts tentativas, fica como DEAD para análise.
+ * O resultado só é gravado se o job ainda pertencer a esta tentativa.
+ */
+@Component
+public class JobWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE jobs j
+               SET status = 'RUNNING',
+                   attempts = j.attempts + 1,
+                   started_at = NOW(),
+                   available_at = NOW() + make_interval(secs => ?)
+              FROM (SELECT id, available_at
+                      FROM jobs
+                     WHERE type = ? AND status IN ('PENDING', 'RUNNING') AND available_at <= NOW()
+                     ORDER BY available_at
+                     LIMIT ?
+                       FOR UPDATE SKIP LOCKED) ready
+             WHERE j.id = ready.id
+            RETURNING j.id, j.payload, j.attempts, ready.available_at AS ready_at
+            """;
+
+    private static final String DONE_SQL = """
+            UPDATE jobs
+               SET status = 'DONE', finished_at = NOW(), last_error = NULL
+             WHERE id = ? AND attempts = ? AND status = 'RUNNING'
+            """;
+
+    private static final String RETRY_SQL = """
+            UPDATE jobs
+               SET status = 'PENDING', available_at = NOW() + make_interval(secs => ?), last_error = ?
+             WHERE id = ? AND attempts = ? AND status = 'RUNNING'
+            """;
+
+    private static final String DEAD_SQL = """
+            UPDATE jobs
+               SET status = 'DEAD', finished_at = NOW(), last_error = ?
+             WHERE id = ? AND attempts = ? AND status = 'RUNNING'
+            """;
+
+    private static final String HEARTBEAT_SQL = """
+            UPDATE jobs
+               SET available_at = NOW() + make_interval(secs => ?)
+             WHERE id = ANY(?) AND status = 'RUNNING'
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM jobs
+             WHERE id IN (SELECT id
+                            FROM jobs
+                           WHERE status = 'DONE' AND finished_at < NOW() - make_interval(secs => ?)
+                           LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final JobProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, JobHandler<?>> handlers = new HashMap<>();
+
+    private final Map<String, Semaphore> permits = new HashMap<>();
+
+    /**
+     * Jobs em execução nesta instância.
+     */
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean stopping;
+
+    public JobWorker(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, List<JobHandler<?>> handlers,
+            JobProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (JobHandler<?> handler : handlers) {
+            if (this.handlers.putIfAbsent(handler.type(), handler) != null) {
+                throw new IllegalStateException("More than one handler for job type " + handler.type());
+            }
+            this.permits.put(handler.type(), new Semaphore(properties.concurrency(handler.type())));
+        }
+        logger.info("Job worker started for types {}", this.handlers.keySet());
+    }
+
+    /**
+     * Reserva e inicia jobs prontos de cada tipo até o limite de concorrência.
+     */
+    @Scheduled(fixedDelayString = "${jobs.poll-interval:1s}")
+    public void poll() {
+        if (!properties.enabled() || stopping) {
+            return;
+        }
+        for (Map.Entry<String, JobHandler<?>> entry : handlers.entrySet()) {
+            Semaphore semaphore = permits.get(entry.getKey());
+            int free = semaphore.drainPermits();
+            if (free == 0) {
+                continue;
+            }
+            List<ClaimedJob> claimed;
+            try {
+                claimed = claim(entry.getKey(), free);
+            } catch (RuntimeException ex) {
+                semaphore.release(free);
+                throw ex;
+            }
+            semaphore.release(free - claimed.size());
+            for (ClaimedJob job : claimed) {
+                start(entry.getValue(), semaphore, job);
+            }
+        }
+    }
+
+    /**
+     * Renova a visibilidade dos jobs em execução nesta instância, para que
+     * jobs longos não sejam reservados por outra.
+     */
+    @Scheduled(fixedDelayString = "${jobs.heartbeat-interval:1m}")
+    public void heartbeat() {
+        if (running.isEmpty()) {
+            return;
+        }
+        UUID[] ids = running.toArray(new UUID[0]);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(HEARTBEAT_SQL);
+            ps.setDouble(1, seconds(properties.visibilityTimeout()));
+            ps.setArray(2, connection.createArrayOf("uuid", ids));
+            return ps;
+        });
+    }
+
+    /**
+     * Remove em lotes os jobs concluídos há mais de retention. Jobs DEAD ficam
+     * até serem tratados manualmente.
+     */
+    @Scheduled(fixedDelayString = "${jobs.purge-interval:1h}", initialDelayString = "${jobs.purge-interval:1h}")
+    public void purgeDone() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, seconds(properties.retention()), properties.purgeBatchSize());
+            total += deleted;
+        } while (deleted == properties.purgeBatchSize());
+        if (total > 0) {
+            logger.info("Purged {} finished jobs", total);
+        }
+    }
+
+    /**
+     * @return Tipos de job com handler nesta instância.
+     */
+    public Set<String> types() {
+        return handlers.keySet();
+    }
+
+    /**
+     * @return Jobs do tipo em execução nesta instância.
+     */
+    public int inFlight(String type) {
+        Semaphore semaphore = permits.get(type);
+        return semaphore == null ? 0 : properties.concurrency(type) - semaphore.availablePermits();
+    }
+
+    /**
+     * Para de reservar jobs. Os que estão rodando seguem até a JVM sair; se não
+     * terminarem, voltam para a fila quando a visibilidade vencer.
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    private List<ClaimedJob> claim(String type, int limit) {
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new ClaimedJob(
+                rs.getObject("id", UUID.class),
+                type,
+                rs.getString("payload"),
+                rs.getInt("attempts"),
+                rs.getTimestamp("ready_at").toLocalDateTime()),
+                seconds(properties.visibilityTimeout()), type, limit);
+    }
+
+    private void start(JobHandler<?> handler, Semaphore semaphore, ClaimedJob job) {
+        running.add(job.id());
+        try {
+            Thread.ofVirtual().name("job-" + job.type()).start(() -> {
+                try {
+                    run(handler, job);
+                } finally {
+                    running.remove(job.id());
+                    semaphore.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            running.remove(job.id());
+            semaphore.release();
+            throw ex;
+        }
+    }
+
+    private void run(JobHandler<?> handler, ClaimedJob job) {
+        Duration wait = Duration.between(job.readyAt(), LocalDateTime.now());
+        Timer.builder("jobs.wait")
+                .description("Time from a job becoming ready to being started")
+                .tag("type", job.type())
+                .register(meterRegistry)
+                .record(wait.isNegative() ? Duration.ZERO : wait);
+        if (job.attempts() > properties.maxAttempts()) {
+            // As tentativas anteriores não terminaram (queda ou visibilidade vencida).
+            markDead(job, "Visibility timeout expired on the last attempt");
+            return;
+        }
+        long startedNanos = System.nanoTime();
+        try {
+            invoke(handler, job.payload());
+            jdbcTemplate.update(DONE_SQL, job.id(), job.attempts());
+            record(job, "done", startedNanos);
+        } catch (Exception ex) {
+            if (job.attempts() >= properties.maxAttempts()) {
+                logger.error("Job {} ({}) dead after {} attempts", job.id(), job.type(), job.attempts(), ex);
+                markDead(job, String.valueOf(ex));
+                record(job, "dead", startedNanos);
+            } else {
+                Duration backoff = properties.backoff(job.attempts());
+                logger.warn("Job {} ({}) failed on attempt {}, retrying in {}",
+                        job.id(), job.type(), job.attempts(), backoff, ex);
+                jdbcTemplate.update(RETRY_SQL, seconds(backoff), String.valueOf(ex), job.id(), job.attempts());
+                record(job, "retried", startedNanos);
+            }
+        }
+    }
+
+    private <P> void invoke(JobHandler<P> handler, String payload) throws Exception {
+        handler.handle(objectMapper.readValue(payload, handler.payloadType()));
+    }
+
+    private void markDead(ClaimedJob job, String error) {
+        jdbcTemplate.update(DEAD_SQL, error, job.id(), job.attempts());
+    }
+
+    private void record(ClaimedJob job, String outcome, long startedNanos) {
+        Timer.builder("jobs.duration")
+                .description("Job execution time by type and outcome")
+                .tag("type", job.type())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(System.nanoTime() - startedNanos));
+        Counter.builder("jobs.executions")
+                .description("Job executions by type and outcome")
+                .tag("type", job.type())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Segundos para make_interval, com a fração: toSeconds() trunca, e um
+     * backoff de 500ms viraria 0.
+     */
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private record ClaimedJob(UUID id, String type, String payload, int attempts, LocalDateTime readyAt) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.oktech.boasaude.service.job;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.config.JobProperties;
+import com.oktech.boasaude.entity.Job;
+
+/**
+ * Endpoint do Actuator com o estado da fila de jobs: profundidade e atraso
+ * por tipo, somados de todas as instâncias, e a ocupação desta instância.
+ * Em /actuator/jobs/{id}, o estado de um job.
+ */
+@Component
+@Endpoint(id = "jobs")
+public class JobsEndpoint {
+
+    private static final String QUEUE_SQL = """
+            SELECT type,
+                   COUNT(*) FILTER (WHERE status = 'PENDING' AND available_at <= NOW()) AS ready,
+                   COUNT(*) FILTER (WHERE status = 'PENDING' AND available_at > NOW()) AS scheduled,
+                   COUNT(*) FILTER (WHERE status = 'RUNNING') AS running,
+                   COUNT(*) FILTER (WHERE status = 'DEAD') AS dead,
+                   EXTRACT(EPOCH FROM NOW() - MIN(available_at)
+                           FILTER (WHERE status = 'PENDING' AND available_at <= NOW())) AS oldest_ready_seconds
+              FROM jobs
+             WHERE status <> 'DONE'
+             GROUP BY type
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JobQueue jobQueue;
+
+    private final JobWorker jobWorker;
+
+    private final JobProperties properties;
+
+    public JobsEndpoint(JdbcTemplate jdbcTemplate, JobQueue jobQueue, JobWorker jobWorker,
+            JobProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobQueue = jobQueue;
+        this.jobWorker = jobWorker;
+        this.properties = properties;
+    }
+
+    /**
+     * @return Estado da fila por tipo de job.
+     */
+    @ReadOperation
+    public Map<String, TypeSummary> queue() {
+        Map<String, TypeSummary> summary = new TreeMap<>();
+        for (String type : jobWorker.types()) {
+            summary.put(type, new TypeSummary(0, 0, 0, 0, 0.0,
+                    jobWorker.inFlight(type), properties.concurrency(type)));
+        }
+        jdbcTemplate.query(QUEUE_SQL, rs -> {
+            String type = rs.getString("type");
+            summary.put(type, new TypeSummary(
+                    rs.getLong("ready"),
+                    rs.getLong("scheduled"),
+                    rs.getLong("running"),
+                    rs.getLong("dead"),
+                    rs.getDouble("oldest_ready_seconds"),
+                    jobWorker.inFlight(type),
+                    jobWorker.types().contains(type) ? properties.concurrency(type) : 0));
+        });
+        return summary;
+    }
+
+    /**
+     * @param id ID do job.
+     * @return Estado do job, ou 404 se não existir.
+     */
+    @ReadOperation
+    public Map<String, Object> job(@Selector String id) {
+        UUID jobId;
+        try {
+            jobId = UUID.fromString(id);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return jobQueue.find(jobId).map(JobsEndpoint::describe).orElse(null);
+    }
+
+    private static Map<String, Object> describe(Job job) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("id", job.getId());
+        description.put("type", job.getType());
+        description.put("status", job.getStatus());
+        description.put("attempts", job.getAttempts());
+        description.put("createdAt", job.getCreatedAt());
+        description.put("startedAt", job.getStartedAt());
+        description.put("finishedAt", job.getFinishedAt());
+        description.put("availableAt", job.getAvailableAt());
+        description.put("lastError", job.getLastError());
+        return description;
+    }
+
+    /**
+     * Estado de um tipo de job. ready, scheduled, running, dead e
+     * oldestReadySeconds valem para todas as instâncias; inFlight e
+     * concurrency, para esta.
+     */
+    public record TypeSummary(long ready, long scheduled, long running, long dead, double oldestReadySeconds,
+            int inFlight, int concurrency) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.oktech.boasaude.service.outbox;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.oktech.boasaude.entity.OrderStatus;
+
+/**
+ * Tipos e payloads dos eventos de pedidos publicados no outbox.
+ */
+public final class OrderEvents {
+
+    public static final String AGGREGATE_TYPE = "Order";
+
+    public static final String CREATED = "order.created";
+
+    public static final String STATUS_CHANGED = "order.status-changed";
+
+    private OrderEvents() {
+    }
+
+    /**
+     * Payload de {@link #CREATED}.
+     */
+    public record Created(UUID orderId, UUID userId, long totalCents, List<Line> items) {
+    }
+
+    public record Line(UUID productId, int quantity, long unitPriceCents) {
+    }
+
+    /**
+     * Payload de {@link #STATUS_CHANGED}. Gerado em SQL, junto com a transição;
+     * os nomes dos campos precisam bater com os do json_build_object em
+     * {@link com.oktech.boasaude.repository.OrderStatusTransitionRepositoryImpl}.
+     */
+    public record StatusChanged(UUID orderId, OrderStatus fromStatus, OrderStatus toStatus, UUID changedBy) {
+    }
+}
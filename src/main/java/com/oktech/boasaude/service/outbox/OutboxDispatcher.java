@@ -0,0 +1,242 @@
+package com.oktech.boasaude.service.outbox;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.oktech.boasaude.config.OutboxProperties;
+import com.oktech.boasaude.entity.OutboxEvent;
+import com.oktech.boasaude.entity.OutboxStatus;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Entrega os eventos do outbox aos {@link OutboxEventHandler}s registrados.
+ * Cada lote é reservado com um único UPDATE sobre um SELECT ... FOR UPDATE SKIP
+ * LOCKED, que adia available_at pelo claim-timeout: várias instâncias dividem
+ * os eventos sem se bloquear, e um lote reservado por uma instância que caiu
+ * volta a ficar disponível sozinho. Os handlers rodam fora de qualquer
+ * transação; o resultado do lote é gravado em batch.
+ * Um evento que falha é reagendado com backoff exponencial e, depois de
+ * max-attempts tentativas, fica como DEAD para análise.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String CLAIM_SQL = """
+            UPDATE outbox_events e
+               SET attempts = e.attempts + 1,
+                   available_at = NOW() + make_interval(secs => ?)
+             WHERE e.id IN (SELECT id
+                              FROM outbox_events
+                             WHERE status = 'PENDING' AND available_at <= NOW()
+                             ORDER BY available_at
+                             LIMIT ?
+                               FOR UPDATE SKIP LOCKED)
+            RETURNING e.id, e.aggregate_type, e.aggregate_id, e.event_type, e.payload, e.attempts, e.created_at
+            """;
+
+    private static final String DONE_SQL = """
+            UPDATE outbox_events
+               SET status = 'DONE', processed_at = NOW(), last_error = NULL
+             WHERE id = ANY(?)
+            """;
+
+    private static final String FAILED_SQL = """
+            UPDATE outbox_events
+               SET status = ?, available_at = NOW() + make_interval(secs => ?), last_error = ?
+             WHERE id = ?
+            """;
+
+    private static final String BACKLOG_SQL = """
+            SELECT COUNT(*) AS pending, MIN(created_at) AS oldest
+              FROM outbox_events
+             WHERE status = 'PENDING'
+            """;
+
+    private static final String PURGE_SQL = """
+            DELETE FROM outbox_events
+             WHERE id IN (SELECT id
+                            FROM outbox_events
+                           WHERE status = 'DONE' AND processed_at < NOW() - make_interval(secs => ?)
+                           LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final List<OutboxEventHandler> handlers;
+
+    private final OutboxProperties properties;
+
+    private final Counter delivered;
+
+    private final Counter retried;
+
+    private final Counter dead;
+
+    private final Timer deliveryLatency;
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxDispatcher(JdbcTemplate jdbcTemplate, List<OutboxEventHandler> handlers,
+            OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.handlers = handlers;
+        this.properties = properties;
+        this.delivered = outcomeCounter(meterRegistry, "delivered");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.dead = outcomeCounter(meterRegistry, "dead");
+        this.deliveryLatency = Timer.builder("outbox.delivery.latency")
+                .description("Time from an event being written to being delivered to every handler")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", pending, AtomicLong::get)
+                .description("Events waiting for delivery or a retry")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest event waiting for delivery")
+                .register(meterRegistry);
+        logger.info("Outbox dispatcher started with {} handlers", handlers.size());
+    }
+
+    /**
+     * Entrega lotes até esvaziar a fila de eventos prontos e atualiza as
+     * métricas de atraso.
+     */
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval:500ms}")
+    public void dispatch() {
+        if (!properties.enabled()) {
+            return;
+        }
+        int claimed;
+        do {
+            List<OutboxEvent> batch = claim();
+            claimed = batch.size();
+            deliver(batch);
+        } while (claimed == properties.batchSize());
+        refreshBacklog();
+    }
+
+    /**
+     * Remove em lotes os eventos entregues há mais de retention. Eventos DEAD
+     * ficam até serem tratados manualmente.
+     */
+    @Scheduled(fixedDelayString = "${outbox.purge-interval:1h}")
+    public void purgeDelivered() {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, seconds(properties.retention()), properties.purgeBatchSize());
+            total += deleted;
+        } while (deleted == properties.purgeBatchSize());
+        if (total > 0) {
+            logger.info("Purged {} delivered outbox events", total);
+        }
+    }
+
+    private List<OutboxEvent> claim() {
+        List<OutboxEvent> batch = new ArrayList<>(jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(rs.getObject("id", UUID.class));
+            event.setAggregateType(rs.getString("aggregate_type"));
+            event.setAggregateId(rs.getObject("aggregate_id", UUID.class));
+            event.setEventType(rs.getString("event_type"));
+            event.setPayload(rs.getString("payload"));
+            event.setStatus(OutboxStatus.PENDING);
+            event.setAttempts(rs.getInt("attempts"));
+            event.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            return event;
+        }, seconds(properties.claimTimeout()), properties.batchSize()));
+        batch.sort(Comparator.comparing(OutboxEvent::getCreatedAt));
+        return batch;
+    }
+
+    private void deliver(List<OutboxEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<UUID> done = new ArrayList<>(batch.size());
+        List<Object[]> failed = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            try {
+                for (OutboxEventHandler handler : handlers) {
+                    if (handler.supports(event.getEventType())) {
+                        handler.handle(event);
+                    }
+                }
+                done.add(event.getId());
+                delivered.increment();
+                deliveryLatency.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } catch (Exception ex) {
+                boolean giveUp = event.getAttempts() >= properties.maxAttempts();
+                Duration backoff = properties.backoff(event.getAttempts());
+                failed.add(new Object[] {
+                        (giveUp ? OutboxStatus.DEAD : OutboxStatus.PENDING).name(),
+                        seconds(backoff),
+                        String.valueOf(ex),
+                        event.getId() });
+                if (giveUp) {
+                    dead.increment();
+                    logger.error("Outbox event {} ({}) dead after {} attempts",
+                            event.getId(), event.getEventType(), event.getAttempts(), ex);
+                } else {
+                    retried.increment();
+                    logger.warn("Outbox event {} ({}) failed on attempt {}, retrying in {}",
+                            event.getId(), event.getEventType(), event.getAttempts(), backoff, ex);
+                }
+            }
+        }
+        if (!done.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(DONE_SQL);
+                ps.setArray(1, connection.createArrayOf("uuid", done.toArray()));
+                return ps;
+            });
+        }
+        if (!failed.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAILED_SQL, failed);
+        }
+    }
+
+    private void refreshBacklog() {
+        jdbcTemplate.query(BACKLOG_SQL, rs -> {
+            pending.set(rs.getLong("pending"));
+            Timestamp oldest = rs.getTimestamp("oldest");
+            lagMillis.set(oldest == null ? 0
+                    : Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis()));
+        });
+    }
+
+    /**
+     * Segundos para make_interval, com a fração: toSeconds() trunca, e um
+     * backoff de 500ms viraria 0.
+     */
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("outbox.events")
+                .description("Outbox event deliveries by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
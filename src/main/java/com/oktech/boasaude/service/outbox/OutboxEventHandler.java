@@ -0,0 +1,25 @@
+package com.oktech.boasaude.service.outbox;
+
+import com.oktech.boasaude.entity.OutboxEvent;
+
+/**
+ * Consumidor em processo dos eventos do outbox. Basta registrar um bean que
+ * implemente esta interface para recebê-los.
+ * A entrega é pelo menos uma vez: um evento pode chegar de novo depois de uma
+ * falha (de qualquer handler) ou de uma queda, então o handler deve ser
+ * idempotente. Eventos de um mesmo pedido podem chegar fora de ordem.
+ */
+public interface OutboxEventHandler {
+
+    /**
+     * @return true se o handler quer receber eventos deste tipo.
+     */
+    boolean supports(String eventType);
+
+    /**
+     * Processa um evento. Uma exceção agenda uma nova tentativa do evento.
+     *
+     * @param event Evento, com o payload em JSON.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,49 @@
+package com.oktech.boasaude.service.outbox;
+
+import java.util.UUID;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.entity.OutboxEvent;
+import com.oktech.boasaude.repository.OutboxEventRepository;
+
+/**
+ * Grava eventos no outbox. Só pode ser chamado dentro da transação da mudança
+ * que o evento descreve: o evento é gravado se, e somente se, a mudança for.
+ * Nenhum handler roda aqui, então o custo para quem publica é um INSERT, não
+ * importa quantos consumidores existam.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Grava um evento na transação atual.
+     *
+     * @param aggregateType Tipo da entidade do evento.
+     * @param aggregateId   ID da entidade.
+     * @param eventType     Tipo do evento.
+     * @param payload       Corpo do evento, serializado em JSON.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, UUID aggregateId, String eventType, Object payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType,
+                    objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Event payload cannot be serialized: " + eventType, e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+-- Preço unitário (em centavos) e nome do produto no momento da compra
+ALTER TABLE order_items
+    ADD COLUMN unit_price_cents BIGINT,
+    ADD COLUMN product_name VARCHAR(255);
+
+-- Pedidos antigos não guardavam o preço da compra: usa o preço atual do produto
+UPDATE order_items oi
+   SET unit_price_cents = p.price,
+       product_name = p.name
+  FROM products p
+ WHERE p.id = oi.product_id;
+
+ALTER TABLE order_items
+    ALTER COLUMN unit_price_cents SET NOT NULL,
+    ALTER COLUMN product_name SET NOT NULL;
+
+-- Total do pedido (em centavos), calculado na criação
+ALTER TABLE orders ADD COLUMN total_cents BIGINT NOT NULL DEFAULT 0;
+
+UPDATE orders o
+   SET total_cents = t.total
+  FROM (SELECT order_id, SUM(unit_price_cents * quantity) AS total
+          FROM order_items
+         GROUP BY order_id) t
+ WHERE t.order_id = o.id;
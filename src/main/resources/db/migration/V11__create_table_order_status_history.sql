@@ -0,0 +1,15 @@
+-- Versão para controle otimista de concorrência; incrementada a cada mudança de status
+ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE order_status_history (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    from_status VARCHAR(20) NOT NULL,
+    to_status VARCHAR(20) NOT NULL,
+    changed_by UUID,                  -- usuário que pediu a mudança; nulo para mudanças automáticas
+    changed_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_order_status_history_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+-- Índice para consultar o histórico de um pedido
+CREATE INDEX IF NOT EXISTS idx_order_status_history_order_id ON order_status_history(order_id);
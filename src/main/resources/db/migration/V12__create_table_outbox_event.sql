@@ -0,0 +1,19 @@
+CREATE TABLE outbox_events (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    aggregate_type VARCHAR(50) NOT NULL,   -- ex: Order
+    aggregate_id UUID NOT NULL,
+    event_type VARCHAR(100) NOT NULL,      -- ex: order.created
+    payload TEXT NOT NULL,                 -- JSON do evento
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, DONE, DEAD
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(), -- próxima entrega (backoff ou fim da reserva)
+    last_error TEXT,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    processed_at TIMESTAMP WITHOUT TIME ZONE
+);
+
+-- Índice para o dispatcher buscar os eventos prontos para entrega
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events(available_at) WHERE status = 'PENDING';
+
+-- Índice para a limpeza dos eventos entregues
+CREATE INDEX IF NOT EXISTS idx_outbox_events_processed_at ON outbox_events(processed_at) WHERE status = 'DONE';
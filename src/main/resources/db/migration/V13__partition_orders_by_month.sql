@@ -0,0 +1,117 @@
+-- Particionamento mensal de orders e order_items por created_at.
+-- Os itens usam o created_at do pedido, então um pedido e seus itens ficam
+-- sempre na partição do mesmo mês e podem ser arquivados juntos.
+-- Em tabelas particionadas a chave primária precisa incluir a coluna de
+-- particionamento, então orders(id) deixa de ser referenciável: as FKs para
+-- orders são removidas e a integridade fica a cargo da aplicação (os itens são
+-- gravados e removidos em cascata pelo JPA).
+
+-- Cria a partição mensal de uma tabela, se ainda não existir
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent TEXT, month_start DATE) RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := parent || '_p' || to_char(month_start, 'YYYYMM');
+BEGIN
+    IF to_regclass(partition_name) IS NULL THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, month_start, (month_start + INTERVAL '1 month')::date);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+ALTER TABLE order_items DROP CONSTRAINT IF EXISTS fk_order_items_order;
+ALTER TABLE order_status_history DROP CONSTRAINT IF EXISTS fk_order_status_history_order;
+
+ALTER TABLE orders RENAME TO orders_legacy;
+ALTER TABLE order_items RENAME TO order_items_legacy;
+
+CREATE TABLE orders (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    status VARCHAR(20) NOT NULL, -- PENDING, COMPLETED, CANCELLED
+    total_cents BIGINT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
+    CONSTRAINT pk_orders PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users(id)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE order_items (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price_cents BIGINT NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    stock_lease_id UUID,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL, -- created_at do pedido
+    updated_at TIMESTAMP WITHOUT TIME ZONE DEFAULT NOW(),
+    CONSTRAINT pk_order_items PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products(id)
+) PARTITION BY RANGE (created_at);
+
+-- Partições do primeiro pedido existente até três meses à frente; as seguintes
+-- são criadas pela aplicação. A partição DEFAULT só recebe linhas se a criação
+-- antecipada falhar.
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                   date_trunc('month', COALESCE((SELECT MIN(created_at) FROM orders_legacy), NOW())),
+                   date_trunc('month', NOW()) + INTERVAL '3 months',
+                   INTERVAL '1 month')::date
+    LOOP
+        PERFORM ensure_monthly_partition('orders', month_start);
+        PERFORM ensure_monthly_partition('order_items', month_start);
+    END LOOP;
+END;
+$$;
+
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_items_default PARTITION OF order_items DEFAULT;
+
+INSERT INTO orders (id, user_id, status, total_cents, version, created_at, updated_at)
+SELECT id, user_id, status, total_cents, version, COALESCE(created_at, updated_at, NOW()), updated_at
+  FROM orders_legacy;
+
+INSERT INTO order_items (id, order_id, product_id, quantity, unit_price_cents, product_name, stock_lease_id,
+                         created_at, updated_at)
+SELECT i.id, i.order_id, i.product_id, i.quantity, i.unit_price_cents, i.product_name, i.stock_lease_id,
+       o.created_at, i.updated_at
+  FROM order_items_legacy i
+  JOIN orders o ON o.id = i.order_id;
+
+DROP TABLE order_items_legacy;
+DROP TABLE orders_legacy;
+
+-- Índice para listar os pedidos de um usuário
+CREATE INDEX IF NOT EXISTS idx_orders_user_id_created_at ON orders(user_id, created_at DESC);
+
+-- Índice para buscar os itens de um pedido
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
+
+CREATE INDEX IF NOT EXISTS idx_order_items_stock_lease_id ON order_items(stock_lease_id) WHERE stock_lease_id IS NOT NULL;
+
+-- Partições arquivadas: meses antigos só com pedidos finalizados saem de
+-- orders/order_items e passam para estas tabelas, com a mesma estrutura.
+-- Colunas novas em orders ou order_items precisam ser criadas aqui também.
+CREATE TABLE orders_archive (LIKE orders INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER TABLE orders_archive ADD CONSTRAINT pk_orders_archive PRIMARY KEY (id, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_archive_user_id_created_at ON orders_archive(user_id, created_at DESC);
+
+CREATE TABLE order_items_archive (LIKE order_items INCLUDING DEFAULTS) PARTITION BY RANGE (created_at);
+ALTER TABLE order_items_archive ADD CONSTRAINT pk_order_items_archive PRIMARY KEY (id, created_at);
+CREATE INDEX IF NOT EXISTS idx_order_items_archive_order_id ON order_items_archive(order_id);
+
+-- Histórico completo, para leituras que pedem pedidos arquivados
+CREATE VIEW orders_all AS
+SELECT id, user_id, status, total_cents, version, created_at, updated_at, FALSE AS archived FROM orders
+UNION ALL
+SELECT id, user_id, status, total_cents, version, created_at, updated_at, TRUE AS archived FROM orders_archive;
+
+CREATE VIEW order_items_all AS
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at FROM order_items
+UNION ALL
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at FROM order_items_archive;
@@ -0,0 +1,58 @@
+-- Vendas diárias por loja e por produto, mantidas a partir dos eventos de pedidos.
+-- Contam os pedidos que não foram cancelados, no dia em que foram criados.
+CREATE TABLE shop_daily_sales (
+    shop_id UUID NOT NULL,
+    day DATE NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue_cents BIGINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (shop_id, day),
+    CONSTRAINT fk_shop_daily_sales_shop FOREIGN KEY (shop_id) REFERENCES shops(id) ON DELETE CASCADE
+);
+
+CREATE TABLE shop_product_daily_sales (
+    shop_id UUID NOT NULL,
+    day DATE NOT NULL,
+    product_id UUID NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    revenue_cents BIGINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (shop_id, day, product_id),
+    CONSTRAINT fk_shop_product_daily_sales_shop FOREIGN KEY (shop_id) REFERENCES shops(id) ON DELETE CASCADE
+);
+
+-- Eventos do outbox já somados às tabelas acima; a entrega é pelo menos uma vez
+CREATE TABLE shop_sales_applied_events (
+    event_id UUID PRIMARY KEY,
+    applied_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+-- Índice para a limpeza dos eventos antigos
+CREATE INDEX IF NOT EXISTS idx_shop_sales_applied_events_applied_at ON shop_sales_applied_events(applied_at);
+
+-- Carga inicial a partir dos pedidos existentes
+INSERT INTO shop_product_daily_sales (shop_id, day, product_id, units, revenue_cents, order_count)
+SELECT p.shop_id, o.created_at::date, i.product_id,
+       SUM(i.quantity), SUM(i.quantity * i.unit_price_cents), COUNT(DISTINCT o.id)
+  FROM orders o
+  JOIN order_items i ON i.order_id = o.id AND i.created_at = o.created_at
+  JOIN products p ON p.id = i.product_id
+ WHERE o.status <> 'CANCELLED'
+ GROUP BY p.shop_id, o.created_at::date, i.product_id;
+
+INSERT INTO shop_daily_sales (shop_id, day, units, revenue_cents, order_count)
+SELECT p.shop_id, o.created_at::date,
+       SUM(i.quantity), SUM(i.quantity * i.unit_price_cents), COUNT(DISTINCT o.id)
+  FROM orders o
+  JOIN order_items i ON i.order_id = o.id AND i.created_at = o.created_at
+  JOIN products p ON p.id = i.product_id
+ WHERE o.status <> 'CANCELLED'
+ GROUP BY p.shop_id, o.created_at::date;
+
+-- Os eventos ainda não entregues já estão refletidos na carga inicial
+INSERT INTO shop_sales_applied_events (event_id)
+SELECT id
+  FROM outbox_events
+ WHERE aggregate_type = 'Order'
+   AND event_type IN ('order.created', 'order.status-changed')
+   AND status <> 'DONE';
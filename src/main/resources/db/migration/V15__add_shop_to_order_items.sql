@@ -0,0 +1,38 @@
+-- Loja do produto e status do pedido copiados para cada item, para que a
+-- caixa de pedidos de uma loja seja uma única varredura de índice.
+-- As tabelas de arquivo recebem as mesmas colunas: partições só mudam de
+-- tabela se tiverem exatamente as mesmas colunas.
+ALTER TABLE order_items ADD COLUMN shop_id UUID;
+ALTER TABLE order_items ADD COLUMN order_status VARCHAR(20);
+ALTER TABLE order_items_archive ADD COLUMN shop_id UUID;
+ALTER TABLE order_items_archive ADD COLUMN order_status VARCHAR(20);
+
+UPDATE order_items i
+   SET shop_id = p.shop_id
+  FROM products p
+ WHERE p.id = i.product_id;
+
+UPDATE order_items i
+   SET order_status = o.status
+  FROM orders o
+ WHERE o.id = i.order_id AND o.created_at = i.created_at;
+
+UPDATE order_items_archive i
+   SET shop_id = p.shop_id
+  FROM products p
+ WHERE p.id = i.product_id;
+
+UPDATE order_items_archive i
+   SET order_status = o.status
+  FROM orders_archive o
+ WHERE o.id = i.order_id AND o.created_at = i.created_at;
+
+-- Caixa de pedidos da loja: loja, período e status
+CREATE INDEX IF NOT EXISTS idx_order_items_shop_id_created_at_status ON order_items(shop_id, created_at, order_status);
+
+CREATE OR REPLACE VIEW order_items_all AS
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at, shop_id, order_status
+  FROM order_items
+UNION ALL
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at, shop_id, order_status
+  FROM order_items_archive;
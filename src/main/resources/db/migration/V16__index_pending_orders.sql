@@ -0,0 +1,2 @@
+-- Índice parcial para o varredor de pedidos pendentes expirados
+CREATE INDEX IF NOT EXISTS idx_orders_pending_created_at ON orders(created_at) WHERE status = 'PENDING';
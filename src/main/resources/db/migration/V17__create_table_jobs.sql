@@ -0,0 +1,18 @@
+CREATE TABLE jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    type VARCHAR(100) NOT NULL,            -- ex: shop-sales.rebuild
+    payload TEXT NOT NULL,                 -- JSON com os parâmetros do job
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING', -- PENDING, RUNNING, DONE, DEAD
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(), -- próxima execução (backoff) ou fim da visibilidade de um job em execução
+    last_error TEXT,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    started_at TIMESTAMP WITHOUT TIME ZONE,
+    finished_at TIMESTAMP WITHOUT TIME ZONE
+);
+
+-- Índice para os workers buscarem os jobs prontos de cada tipo (inclui os RUNNING com visibilidade vencida)
+CREATE INDEX IF NOT EXISTS idx_jobs_ready ON jobs(type, available_at) WHERE status IN ('PENDING', 'RUNNING');
+
+-- Índice para a limpeza dos jobs concluídos
+CREATE INDEX IF NOT EXISTS idx_jobs_finished_at ON jobs(finished_at) WHERE status = 'DONE';
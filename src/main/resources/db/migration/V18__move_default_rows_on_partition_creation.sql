@@ -0,0 +1,35 @@
+-- Cria a partição mensal de uma tabela, se ainda não existir.
+-- Se a partição DEFAULT já tiver linhas do mês (a criação antecipada falhou ou
+-- atrasou), um CREATE TABLE ... PARTITION OF falharia. Por isso a partição é
+-- criada solta, recebe as linhas do mês tiradas da DEFAULT e só então é
+-- anexada. A DEFAULT fica bloqueada para escrita até o fim da transação, para
+-- que nenhuma linha do mês chegue a ela entre a cópia e o ATTACH.
+CREATE OR REPLACE FUNCTION ensure_monthly_partition(parent TEXT, month_start DATE) RETURNS VOID AS $$
+DECLARE
+    partition_name TEXT := parent || '_p' || to_char(month_start, 'YYYYMM');
+    default_name TEXT := parent || '_default';
+    month_end DATE := (month_start + INTERVAL '1 month')::date;
+    moved BIGINT := 0;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', partition_name, parent);
+
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('LOCK TABLE %I IN EXCLUSIVE MODE', default_name);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE created_at >= %L AND created_at < %L RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved',
+                       default_name, month_start, month_end, partition_name);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        IF moved > 0 THEN
+            RAISE NOTICE 'Moved % rows of % from % to %', moved, month_start, default_name, partition_name;
+        END IF;
+    END IF;
+
+    -- Os índices e FKs da tabela pai são criados na partição pelo ATTACH
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, partition_name, month_start, month_end);
+END;
+$$ LANGUAGE plpgsql;
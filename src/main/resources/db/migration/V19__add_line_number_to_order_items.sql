@@ -0,0 +1,32 @@
+-- Posição de cada item no pedido, a partir de 1, para que os itens sejam
+-- listados sempre na ordem em que foram adicionados: todos os itens de um
+-- pedido têm o mesmo created_at, e os IDs são UUIDs aleatórios.
+-- As tabelas de arquivo recebem a mesma coluna: partições só mudam de tabela
+-- se tiverem exatamente as mesmas colunas.
+ALTER TABLE order_items ADD COLUMN line_number INTEGER;
+ALTER TABLE order_items_archive ADD COLUMN line_number INTEGER;
+
+-- Itens já gravados não têm a ordem original; ficam na ordem do ID
+UPDATE order_items i
+   SET line_number = n.line_number
+  FROM (SELECT id, created_at, ROW_NUMBER() OVER (PARTITION BY order_id ORDER BY id) AS line_number
+          FROM order_items) n
+ WHERE i.id = n.id AND i.created_at = n.created_at;
+
+UPDATE order_items_archive i
+   SET line_number = n.line_number
+  FROM (SELECT id, created_at, ROW_NUMBER() OVER (PARTITION BY order_id ORDER BY id) AS line_number
+          FROM order_items_archive) n
+ WHERE i.id = n.id AND i.created_at = n.created_at;
+
+ALTER TABLE order_items ALTER COLUMN line_number SET NOT NULL;
+ALTER TABLE order_items_archive ALTER COLUMN line_number SET NOT NULL;
+
+CREATE OR REPLACE VIEW order_items_all AS
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at, shop_id, order_status,
+       line_number
+  FROM order_items
+UNION ALL
+SELECT id, order_id, product_id, quantity, unit_price_cents, product_name, created_at, shop_id, order_status,
+       line_number
+  FROM order_items_archive;
@@ -0,0 +1,7 @@
+-- Versão dos tokens do usuário: incrementada a cada revogação (troca de senha,
+-- rebaixamento de papel, desativação). Tokens com versão menor são rejeitados.
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN tokens_revoked_at TIMESTAMP;
+
+-- Índice parcial para a lista de revogação carregada em segundo plano
+CREATE INDEX IF NOT EXISTS idx_users_tokens_revoked_at ON users(tokens_revoked_at) WHERE tokens_revoked_at IS NOT NULL;
@@ -0,0 +1,18 @@
+CREATE TABLE refresh_tokens (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL,
+    family_id UUID NOT NULL,            -- todos os tokens gerados a partir do mesmo login
+    token_hash VARCHAR(64) NOT NULL UNIQUE, -- SHA-256 (hex) do token entregue ao cliente
+    token_version INTEGER NOT NULL,     -- users.token_version no momento da emissão
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP,               -- preenchido ao rotacionar ou revogar
+    replaced_by UUID,                   -- token que substituiu este na rotação
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Índice para revogar uma família inteira ao detectar reutilização
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens(family_id);
+
+-- Índice para a limpeza periódica de tokens expirados
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expires_at ON refresh_tokens(expires_at);
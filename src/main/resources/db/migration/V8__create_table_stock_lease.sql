@@ -0,0 +1,20 @@
+CREATE TABLE stock_leases (
+    id UUID PRIMARY KEY,
+    product_id UUID NOT NULL,
+    units INTEGER NOT NULL,             -- unidades retiradas de products.stock
+    consumed INTEGER NOT NULL DEFAULT 0, -- vendidas; exato após o acerto (status SETTLED)
+    status VARCHAR(20) NOT NULL,        -- ACTIVE, SETTLED
+    owner VARCHAR(64) NOT NULL,         -- instância que mantém o lote em memória
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    heartbeat_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    settled_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT fk_stock_leases_product FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+);
+
+-- Índice para encontrar lotes abandonados por instâncias que caíram
+CREATE INDEX IF NOT EXISTS idx_stock_leases_active_heartbeat ON stock_leases(heartbeat_at) WHERE status = 'ACTIVE';
+
+-- Lote de onde saiu o estoque do item, para produtos em modo "hot"
+ALTER TABLE order_items ADD COLUMN stock_lease_id UUID;
+
+CREATE INDEX IF NOT EXISTS idx_order_items_stock_lease_id ON order_items(stock_lease_id) WHERE stock_lease_id IS NOT NULL;
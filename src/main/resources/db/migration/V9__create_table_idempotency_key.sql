@@ -0,0 +1,13 @@
+CREATE TABLE idempotency_keys (
+    user_id UUID NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL, -- valor do header Idempotency-Key enviado pelo cliente
+    request_hash VARCHAR(64) NOT NULL,     -- SHA-256 (hex) do corpo da requisição original
+    response_body TEXT,                    -- resposta serializada, gravada na mesma transação do pedido
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key),
+    CONSTRAINT fk_idempotency_keys_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Índice para a limpeza periódica de chaves expiradas
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
@@ -0,0 +1,88 @@
+package com.oktech.boasaude.benchmark;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.oktech.boasaude.config.security.JwtKeyRing;
+import com.oktech.boasaude.config.security.JwtSigningProperties;
+import com.oktech.boasaude.config.security.JwtVerificationEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compara a verificação de JWT antiga (Algorithm e JWTVerifier recriados a
+ * cada chamada) com o JwtVerificationEngine, com e sem o cache de tokens
+ * verificados.
+ *
+ * Para executar: mvn test-compile e depois rodar o main desta classe com o
+ * classpath de teste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    private JwtVerificationEngine engine;
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, new JwtSigningProperties(JwtKeyRing.HS256, null, null, true));
+        engine = new JwtVerificationEngine(keyRing, 10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        token = engine.sign(JWT.create()
+                .withIssuer(JwtVerificationEngine.ISSUER)
+                .withSubject("bench@oktech.com")
+                .withClaim("userId", UUID.randomUUID().toString())
+                .withClaim("role", "[ROLE_USER]")
+                .withExpiresAt(Instant.now().plusSeconds(3600)));
+    }
+
+    @Benchmark
+    public DecodedJWT rebuildVerifierPerCall() {
+        return JWT.require(Algorithm.HMAC256(SECRET))
+                .withIssuer(JwtVerificationEngine.ISSUER)
+                .build()
+                .verify(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifier() {
+        return engine.verifyUncached(token);
+    }
+
+    @Benchmark
+    public DecodedJWT sharedVerifierWithCache() {
+        return engine.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
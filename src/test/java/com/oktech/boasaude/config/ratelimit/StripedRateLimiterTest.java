@@ -0,0 +1,48 @@
+package com.oktech.boasaude.config.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class StripedRateLimiterTest {
+
+    private AtomicLong clock;
+
+    private StripedRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong();
+        limiter = new StripedRateLimiter(8, clock::get);
+    }
+
+    @Test
+    void testRejectsAfterCapacityAndRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("login:ip:10.0.0.1", 3, 6));
+        }
+        assertFalse(limiter.tryAcquire("login:ip:10.0.0.1", 3, 6));
+        assertTrue(limiter.tryAcquire("login:ip:10.0.0.2", 3, 6));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertTrue(limiter.tryAcquire("login:ip:10.0.0.1", 3, 6));
+        assertFalse(limiter.tryAcquire("login:ip:10.0.0.1", 3, 6));
+    }
+
+    @Test
+    void testEvictIdleRemovesOnlyUnusedBuckets() {
+        limiter.tryAcquire("a", 1, 1);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(5));
+        limiter.tryAcquire("b", 1, 1);
+
+        assertEquals(1, limiter.evictIdle(TimeUnit.MINUTES.toNanos(1)));
+        assertEquals(1, limiter.size());
+    }
+}
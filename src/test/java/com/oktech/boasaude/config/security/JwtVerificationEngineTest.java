@@ -0,0 +1,112 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JwtVerificationEngineTest {
+
+    private static final String SECRET = "test-secret";
+
+    @Test
+    void testTokensSignedWithRetiredKeyStillVerifyAfterRotation() throws Exception {
+        KeyPair oldKey = rsaKeyPair();
+        KeyPair newKey = rsaKeyPair();
+
+        JwtVerificationEngine before = engine(new JwtSigningProperties(JwtKeyRing.RS256, "k1",
+                List.of(key("k1", oldKey, true)), false));
+        String oldToken = before.sign(token("old@test.com"));
+
+        JwtVerificationEngine after = engine(new JwtSigningProperties(JwtKeyRing.RS256, "k2",
+                List.of(key("k1", oldKey, false), key("k2", newKey, true)), false));
+        String newToken = after.sign(token("new@test.com"));
+
+        assertEquals("k2", JWT.decode(newToken).getKeyId());
+        assertEquals("old@test.com", after.verify(oldToken).getSubject());
+        assertEquals("new@test.com", after.verify(newToken).getSubject());
+        assertThrows(JWTVerificationException.class, () -> before.verifyUncached(newToken));
+    }
+
+    @Test
+    void testRejectsHmacTokensWhenNotAccepted() throws Exception {
+        JwtVerificationEngine engine = engine(new JwtSigningProperties(JwtKeyRing.RS256, "k1",
+                List.of(key("k1", rsaKeyPair(), true)), false));
+        String hmacToken = token("hmac@test.com").sign(Algorithm.HMAC256(SECRET));
+
+        assertThrows(JWTVerificationException.class, () -> engine.verify(hmacToken));
+    }
+
+    @Test
+    void testRejectsKidlessHmacTokensByDefaultWithRsa() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        Map<String, String> config = Map.of(
+                "jwt.signing.algorithm", JwtKeyRing.RS256,
+                "jwt.signing.active-kid", "k1",
+                "jwt.signing.keys[0].kid", "k1",
+                "jwt.signing.keys[0].private-key", Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+        JwtSigningProperties properties = new Binder(new MapConfigurationPropertySource(config))
+                .bindOrCreate("jwt.signing", JwtSigningProperties.class);
+        JwtVerificationEngine engine = engine(properties);
+        String hmacToken = token("hmac@test.com").sign(Algorithm.HMAC256(SECRET));
+
+        assertFalse(properties.acceptHmac());
+        assertThrows(JWTVerificationException.class, () -> engine.verify(hmacToken));
+    }
+
+    @Test
+    void testJwksPublishesEveryVerificationKey() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(SECRET, new JwtSigningProperties(JwtKeyRing.RS256, "k2",
+                List.of(key("k1", rsaKeyPair(), false), key("k2", rsaKeyPair(), true)), true));
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, String>> keys = (List<Map<String, String>>) keyRing.jwks().get("keys");
+
+        assertEquals(2, keys.size());
+        assertEquals("k1", keys.get(0).get("kid"));
+        assertEquals("AQAB", keys.get(1).get("e"));
+    }
+
+    private static JwtVerificationEngine engine(JwtSigningProperties properties) {
+        return new JwtVerificationEngine(new JwtKeyRing(SECRET, properties), 100, Duration.ofMinutes(5),
+                new SimpleMeterRegistry());
+    }
+
+    private static com.auth0.jwt.JWTCreator.Builder token(String subject) {
+        return JWT.create()
+                .withIssuer(JwtVerificationEngine.ISSUER)
+                .withSubject(subject)
+                .withExpiresAt(Instant.now().plusSeconds(60));
+    }
+
+    private static JwtSigningProperties.Key key(String kid, KeyPair keyPair, boolean withPrivateKey) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return new JwtSigningProperties.Key(kid,
+                encoder.encodeToString(keyPair.getPublic().getEncoded()),
+                withPrivateKey ? encoder.encodeToString(keyPair.getPrivate().getEncoded()) : null);
+    }
+
+    private static KeyPair rsaKeyPair() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,42 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+
+public class LazyUserAuthenticationTest {
+
+    @Test
+    void testLoadsPrincipalOnlyOnFirstAccess() {
+        AuthenticatedUser claims = new AuthenticatedUser(UUID.randomUUID(), "John Doe", "test@test.com",
+                null, null, UserRole.PRODUCTOR, true, 0);
+        AuthenticatedUser stored = new AuthenticatedUser(claims.id(), "John Doe", "test@test.com",
+                "12345678901", "1234567890", UserRole.PRODUCTOR, true, 0);
+        AtomicInteger loads = new AtomicInteger();
+
+        LazyUserAuthentication authentication = new LazyUserAuthentication(claims,
+                claims.role().getAuthorities(), c -> {
+                    loads.incrementAndGet();
+                    return stored;
+                });
+
+        assertTrue(authentication.isAuthenticated());
+        assertEquals("test@test.com", authentication.getName());
+        assertEquals(2, authentication.getAuthorities().size());
+        authentication.toString();
+        assertEquals(0, loads.get());
+
+        User principal = (User) authentication.getPrincipal();
+        assertSame(principal, authentication.getPrincipal());
+        assertEquals("12345678901", principal.getCpf());
+        assertEquals(1, loads.get());
+    }
+}
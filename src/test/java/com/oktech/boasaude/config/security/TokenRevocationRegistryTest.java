@@ -0,0 +1,72 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.oktech.boasaude.repository.UserRepository;
+import com.oktech.boasaude.repository.UserRepository.TokenVersionView;
+
+public class TokenRevocationRegistryTest {
+
+    private UserRepository userRepository;
+
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        registry = new TokenRevocationRegistry(userRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    void testRefreshLoadsRevokedVersions() {
+        List<TokenVersionView> revoked = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            revoked.add(view(UUID.randomUUID(), 1));
+        }
+        UUID revokedUser = UUID.randomUUID();
+        revoked.add(view(revokedUser, 3));
+        Mockito.when(userRepository.findTokenVersionsRevokedSince(Mockito.any(LocalDateTime.class)))
+                .thenReturn(revoked);
+
+        registry.refresh();
+
+        assertTrue(registry.isRevoked(revokedUser, 2));
+        assertFalse(registry.isRevoked(revokedUser, 3));
+        assertFalse(registry.isRevoked(UUID.randomUUID(), 0));
+    }
+
+    @Test
+    void testLocalRevocationAppliesBeforeRefresh() {
+        UUID userId = UUID.randomUUID();
+
+        registry.revoke(userId, 1);
+
+        assertTrue(registry.isRevoked(userId, 0));
+        assertFalse(registry.isRevoked(userId, 1));
+    }
+
+    private static TokenVersionView view(UUID id, int tokenVersion) {
+        return new TokenVersionView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public int getTokenVersion() {
+                return tokenVersion;
+            }
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.oktech.boasaude.config.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.UserRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class UserPrincipalCacheTest {
+
+    private UserRepository userRepository;
+
+    private UserPrincipalCache principalCache;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        principalCache = new UserPrincipalCache(userRepository, new SimpleMeterRegistry(), Duration.ofMinutes(1), 100);
+
+        user = new User(new CreateUserDto("John Doe", "test@test.com", "12345678901", "1234567890", "password123"));
+        user.setId(UUID.randomUUID());
+        user.setPassword("encodedPassword");
+    }
+
+    @Test
+    void testRepeatedLookupsHitTheDatabaseOnce() {
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        AuthenticatedUser first = principalCache.get(user.getId());
+        AuthenticatedUser second = principalCache.get(user.getId());
+
+        assertEquals(user.getEmail(), first.email());
+        assertEquals(first, second);
+        assertNull(first.toUser().getPassword());
+        Mockito.verify(userRepository, Mockito.times(1)).findById(user.getId());
+    }
+
+    @Test
+    void testInvalidateReloadsUser() {
+        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        principalCache.get(user.getId());
+
+        user.setRole(UserRole.PRODUCTOR);
+        principalCache.invalidate(user.getId());
+
+        assertEquals(UserRole.PRODUCTOR, principalCache.get(user.getId()).role());
+        Mockito.verify(userRepository, Mockito.times(2)).findById(user.getId());
+    }
+
+    @Test
+    void testUnknownUserIsNotCached() {
+        UUID unknownId = UUID.randomUUID();
+        Mockito.when(userRepository.findById(unknownId)).thenReturn(Optional.empty());
+
+        assertNull(principalCache.get(unknownId));
+        assertNull(principalCache.get(unknownId));
+        Mockito.verify(userRepository, Mockito.times(2)).findById(unknownId);
+    }
+}
@@ -0,0 +1,23 @@
+package com.oktech.boasaude.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class OrderStatusTest {
+
+    @Test
+    void testOnlyPendingOrdersChangeStatus() {
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.COMPLETED));
+        assertTrue(OrderStatus.PENDING.canTransitionTo(OrderStatus.CANCELLED));
+        assertFalse(OrderStatus.COMPLETED.canTransitionTo(OrderStatus.PENDING));
+        assertFalse(OrderStatus.CANCELLED.canTransitionTo(OrderStatus.COMPLETED));
+
+        assertEquals(Set.of(OrderStatus.PENDING), OrderStatus.sourcesOf(OrderStatus.CANCELLED));
+        assertEquals(Set.of(), OrderStatus.sourcesOf(OrderStatus.PENDING));
+    }
+}
@@ -0,0 +1,163 @@
+package com.oktech.boasaude.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.repository.OrderStatusTransitionRepository.StatusTransition;
+import com.oktech.boasaude.service.outbox.OrderEvents;
+import com.oktech.boasaude.support.PostgresTestSupport;
+
+/**
+ * O comando de transição de status contra o Postgres: versão, histórico,
+ * outbox, cópia do status nos itens e devolução de estoque no cancelamento.
+ */
+public class OrderStatusTransitionRepositoryImplTest extends PostgresTestSupport {
+
+    private static final int STOCK = 10;
+
+    private OrderStatusTransitionRepositoryImpl repository;
+
+    private UUID userId;
+
+    private UUID productId;
+
+    private UUID orderId;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OrderStatusTransitionRepositoryImpl(jdbcTemplate);
+        userId = insertUser();
+        productId = insertProduct(userId, 1000, STOCK);
+        orderId = insertOrder(userId, productId, 3, "PENDING", LocalDateTime.now());
+    }
+
+    @Test
+    void testCancelBumpsVersionWritesHistoryAndRestocks() {
+        List<StatusTransition> transitions = repository.transitionStatus(List.of(orderId), userId,
+                OrderStatus.CANCELLED, userId);
+
+        assertEquals(List.of(new StatusTransition(orderId, OrderStatus.PENDING, OrderStatus.CANCELLED, 1)),
+                transitions);
+        Map<String, Object> order = jdbcTemplate.queryForMap("SELECT status, version FROM orders WHERE id = ?",
+                orderId);
+        assertEquals("CANCELLED", order.get("status"));
+        assertEquals(1L, order.get("version"));
+        Map<String, Object> history = jdbcTemplate.queryForMap(
+                "SELECT from_status, to_status, changed_by FROM order_status_history WHERE order_id = ?", orderId);
+        assertEquals("PENDING", history.get("from_status"));
+        assertEquals("CANCELLED", history.get("to_status"));
+        assertEquals(userId, history.get("changed_by"));
+        Map<String, Object> event = jdbcTemplate.queryForMap(
+                "SELECT aggregate_type, event_type FROM outbox_events WHERE aggregate_id = ?", orderId);
+        // Os mesmos tipos que o ShopSalesRollup procura
+        assertEquals(OrderEvents.AGGREGATE_TYPE, event.get("aggregate_type"));
+        assertEquals(OrderEvents.STATUS_CHANGED, event.get("event_type"));
+        assertEquals("CANCELLED", jdbcTemplate.queryForObject(
+                "SELECT order_status FROM order_items WHERE order_id = ?", String.class, orderId));
+        assertEquals(STOCK + 3, count("SELECT stock FROM products WHERE id = ?", productId));
+    }
+
+    @Test
+    void testBulkCancelRestocksEveryEligibleOrder() {
+        UUID otherProductId = insertProduct(userId, 500, STOCK);
+        jdbcTemplate.update("""
+                INSERT INTO order_items (order_id, product_id, quantity, unit_price_cents, product_name, shop_id,
+                                         order_status, created_at, line_number)
+                SELECT o.id, p.id, 1, p.price, p.name, p.shop_id, o.status, o.created_at, 2
+                  FROM orders o, products p
+                 WHERE o.id = ? AND p.id = ?
+                """, orderId, otherProductId);
+        UUID secondId = insertOrder(userId, productId, 2, "PENDING", LocalDateTime.now());
+        UUID completedId = insertOrder(userId, productId, 4, "COMPLETED", LocalDateTime.now());
+
+        List<StatusTransition> transitions = repository.transitionStatus(List.of(orderId, secondId, completedId),
+                null, OrderStatus.CANCELLED, userId);
+
+        assertEquals(Set.of(orderId, secondId),
+                transitions.stream().map(StatusTransition::orderId).collect(Collectors.toSet()));
+        // Os itens dos dois pedidos são devolvidos somados por produto
+        assertEquals(STOCK + 3 + 2, count("SELECT stock FROM products WHERE id = ?", productId));
+        assertEquals(STOCK + 1, count("SELECT stock FROM products WHERE id = ?", otherProductId));
+        assertEquals(3, count("SELECT COUNT(*) FROM order_items WHERE order_id IN (?, ?) AND order_status = ?",
+                orderId, secondId, "CANCELLED"));
+        assertEquals("COMPLETED", jdbcTemplate.queryForObject(
+                "SELECT order_status FROM order_items WHERE order_id = ?", String.class, completedId));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_status_history WHERE order_id = ?", completedId));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_status_history WHERE order_id = ?", secondId));
+        assertEquals(1, count("SELECT COUNT(*) FROM outbox_events WHERE aggregate_id = ?", secondId));
+    }
+
+    @Test
+    void testStaleSourceStatusIsRejected() {
+        repository.transitionStatus(List.of(orderId), userId, OrderStatus.COMPLETED, userId);
+
+        // O pedido já saiu de PENDING: a segunda transição não encontra a linha
+        assertTrue(repository.transitionStatus(List.of(orderId), userId, OrderStatus.CANCELLED, userId).isEmpty());
+        assertTrue(repository.transitionStatus(List.of(orderId), userId, OrderStatus.PENDING, userId).isEmpty());
+
+        assertEquals(1, count("SELECT version FROM orders WHERE id = ?", orderId));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_status_history WHERE order_id = ?", orderId));
+        assertEquals(STOCK, count("SELECT stock FROM products WHERE id = ?", productId));
+    }
+
+    @Test
+    void testOtherOwnerIsRejected() {
+        assertTrue(repository.transitionOrderStatus(orderId, UUID.randomUUID(), OrderStatus.CANCELLED, userId)
+                .isEmpty());
+
+        assertEquals(0, count("SELECT version FROM orders WHERE id = ?", orderId));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_status_history WHERE order_id = ?", orderId));
+    }
+
+    @Test
+    void testTransitionOrderStatusReturnsOrderWithItems() {
+        OrderResponseDto order = repository.transitionOrderStatus(orderId, userId, OrderStatus.COMPLETED, userId)
+                .orElseThrow();
+
+        assertEquals(orderId.toString(), order.id());
+        assertEquals("COMPLETED", order.status());
+        assertEquals(BigInteger.valueOf(3000), order.totalPrice());
+        assertEquals(1, order.items().size());
+        assertEquals(productId, order.items().get(0).productId());
+        assertEquals(3, order.items().get(0).quantity());
+        assertEquals(BigInteger.valueOf(3000), order.items().get(0).totalPrice());
+        assertEquals(1, count("SELECT version FROM orders WHERE id = ?", orderId));
+    }
+
+    @Test
+    void testReturnedItemsFollowLineOrder() {
+        for (String[] line : new String[][] { { "3", "Aaa" }, { "2", "Zzz" } }) {
+            jdbcTemplate.update("""
+                    INSERT INTO order_items (order_id, product_id, quantity, unit_price_cents, product_name,
+                                             shop_id, order_status, created_at, line_number)
+                    SELECT o.id, p.id, 1, p.price, ?, p.shop_id, o.status, o.created_at, ?
+                      FROM orders o, products p
+                     WHERE o.id = ? AND p.id = ?
+                    """, line[1], Integer.parseInt(line[0]), orderId, productId);
+        }
+
+        OrderResponseDto order = repository.transitionOrderStatus(orderId, userId, OrderStatus.COMPLETED, userId)
+                .orElseThrow();
+
+        assertEquals(List.of("Product", "Zzz", "Aaa"),
+                order.items().stream().map(OrderItemResponseDto::productName).toList());
+    }
+
+    private static long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,101 @@
+package com.oktech.boasaude.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import com.oktech.boasaude.config.JpaConfig;
+import com.oktech.boasaude.dto.OrderItemResponseDto;
+import com.oktech.boasaude.dto.ShopOrderResponseDto;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.support.H2RepositoryTestSupport;
+
+/**
+ * A caixa de pedidos de uma loja traz cada pedido uma vez, só com os itens da
+ * loja, a partir das colunas copiadas em order_items.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:shopinbox;DB_CLOSE_DELAY=-1")
+@Import(JpaConfig.class)
+public class ShopOrderInboxRepositoryTest extends H2RepositoryTestSupport {
+
+    private static final LocalDateTime FROM = LocalDate.now().atStartOfDay();
+
+    private static final LocalDateTime TO = FROM.plusDays(1);
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            User buyer = user("inbox@test.com");
+            shop = shop(buyer);
+            Shop other = shop(buyer, "Other", "12345678000188");
+            Product first = product(shop, "First", 1000, 100);
+            Product second = product(shop, "Second", 250, 100);
+            Product foreign = product(other, "Foreign", 9000, 100);
+
+            Order mixed = new Order(buyer);
+            mixed.addItem(new OrderItem(mixed, second, 4));
+            mixed.addItem(new OrderItem(mixed, first, 2));
+            mixed.addItem(new OrderItem(mixed, foreign, 1));
+            orderRepository.save(mixed);
+
+            Order single = new Order(buyer);
+            single.addItem(new OrderItem(single, first, 1));
+            orderRepository.save(single);
+
+            Order elsewhere = new Order(buyer);
+            elsewhere.addItem(new OrderItem(elsewhere, foreign, 3));
+            orderRepository.save(elsewhere);
+        });
+    }
+
+    @Test
+    void testInboxListsShopItemsOnly() {
+        Page<ShopOrderResponseDto> page = orderItemRepository.findShopOrders(shop.getId(),
+                EnumSet.of(OrderStatus.PENDING), FROM, TO, PageRequest.of(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        ShopOrderResponseDto mixed = page.getContent().stream()
+                .filter(order -> order.items().size() == 2)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(BigInteger.valueOf(2 * 1000 + 4 * 250), mixed.totalPrice());
+        assertEquals("PENDING", mixed.status());
+        // Na ordem em que foram adicionados, não por nome ou ID
+        assertEquals(List.of("Second", "First"),
+                mixed.items().stream().map(OrderItemResponseDto::productName).toList());
+    }
+
+    @Test
+    void testInboxFiltersByStatusAndPage() {
+        assertEquals(0, orderItemRepository.findShopOrders(shop.getId(), EnumSet.of(OrderStatus.COMPLETED),
+                FROM, TO, PageRequest.of(0, 10)).getTotalElements());
+
+        Page<ShopOrderResponseDto> page = orderItemRepository.findShopOrders(shop.getId(), Set.of(), FROM, TO,
+                PageRequest.of(1, 1));
+        assertEquals(1, page.getNumberOfElements());
+        assertEquals(2, page.getTotalElements());
+    }
+}
@@ -0,0 +1,138 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.config.JpaConfig;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.ExportService.Format;
+import com.oktech.boasaude.support.H2RepositoryTestSupport;
+
+/**
+ * Exportações lidas com um fetch size menor que o número de linhas, para que
+ * o agrupamento por pedido atravesse várias idas ao banco.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:export;DB_CLOSE_DELAY=-1",
+        "exports.fetch-size=2",
+        "exports.max-concurrent=1"
+})
+@Import({ ExportServiceImpl.class, JpaConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class ExportServiceImplTest extends H2RepositoryTestSupport {
+
+    private static final int ORDERS = 3;
+
+    @Autowired
+    private ExportServiceImpl exportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private User buyer;
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            buyer = user("export@test.com");
+            shop = shop(buyer);
+
+            Product plain = product(shop, "Plain", 1000, 100);
+            plain.setDescription("Simple");
+            Product quoted = product(shop, "Quoted", 2500, 100);
+            quoted.setDescription("Big, \"family\" size");
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order(buyer);
+                order.addItem(new OrderItem(order, plain, 1));
+                order.addItem(new OrderItem(order, quoted, 2));
+                orderRepository.save(order);
+            }
+        });
+    }
+
+    @Test
+    void testOrdersExportWritesOneLinePerOrder() throws Exception {
+        String[] lines = write(exportService.exportOrders(buyer.getId(), false, Format.NDJSON)).split("\n");
+
+        assertEquals(ORDERS, lines.length);
+        for (String line : lines) {
+            JsonNode order = objectMapper.readTree(line);
+            assertEquals(2, order.get("items").size());
+            assertEquals(1000 + 2 * 2500, order.get("totalPrice").asLong());
+        }
+    }
+
+    @Test
+    void testProductsCsvQuotesFields() throws Exception {
+        List<String> lines = write(exportService.exportShopProducts(shop.getId(), Format.CSV)).lines().toList();
+
+        assertEquals("id,name,description,price,category,stock", lines.get(0));
+        assertEquals(3, lines.size());
+        assertEquals(1, lines.stream().filter(line -> line.contains(",\"Big, \"\"family\"\" size\",2500,")).count());
+    }
+
+    @Test
+    void testExportsAboveLimitAreRejected() throws Exception {
+        StreamingResponseBody first = exportService.exportShopProducts(shop.getId(), Format.NDJSON);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> exportService.exportOrders(buyer.getId(), false, Format.NDJSON));
+        write(first);
+        assertThrows(IllegalArgumentException.class,
+                () -> exportService.exportShopProducts(UUID.randomUUID(), Format.CSV));
+        write(exportService.exportOrders(buyer.getId(), false, Format.CSV));
+    }
+
+    @Test
+    void testPermitIsReleasedWhenBodyNeverRuns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            exportService.exportShopProducts(shop.getId(), Format.NDJSON);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        assertThrows(RejectedExecutionException.class,
+                () -> exportService.exportShopProducts(shop.getId(), Format.NDJSON));
+
+        // O cliente foi embora antes do corpo rodar: só a conclusão assíncrona libera a reserva
+        WebAsyncUtils.getAsyncManager(request).getCallableInterceptor(ExportServiceImpl.class.getName())
+                .afterCompletion(new ServletWebRequest(request), null);
+
+        write(exportService.exportShopProducts(shop.getId(), Format.NDJSON));
+    }
+
+    private static String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.oktech.boasaude.service.impl.HotStockLedger.Lease;
+
+public class HotStockLeaseTest {
+
+    @Test
+    void testConcurrentReservationsNeverOversell() throws Exception {
+        Lease lease = new Lease(UUID.randomUUID(), UUID.randomUUID(), 1000);
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 500; i++) {
+                    if (lease.tryReserve(1)) {
+                        // Metade das reservas é desfeita, como um pedido que falhou.
+                        boolean committed = i % 2 == 0;
+                        lease.complete(1, committed);
+                        if (committed) {
+                            sold.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1000, sold.get() + lease.remaining());
+        assertEquals(sold.get(), lease.consumed());
+    }
+
+    @Test
+    void testRetiredLeaseRejectsReservationsAndDrains() {
+        Lease lease = new Lease(UUID.randomUUID(), UUID.randomUUID(), 10);
+        assertTrue(lease.tryReserve(4));
+
+        lease.retire();
+
+        assertFalse(lease.tryReserve(1));
+        assertFalse(lease.isDrained());
+        lease.complete(4, false);
+        assertTrue(lease.isDrained());
+        assertEquals(10, lease.remaining());
+    }
+}
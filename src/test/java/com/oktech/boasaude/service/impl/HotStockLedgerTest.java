@@ -0,0 +1,31 @@
+package com.oktech.boasaude.service.impl;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.oktech.boasaude.config.HotStockProperties;
+import com.oktech.boasaude.repository.ProductRepository;
+
+public class HotStockLedgerTest {
+
+    @Test
+    void testRecoveryTimeoutKeepsFractionOfSecond() {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        HotStockProperties properties = new HotStockProperties(true, Set.of(UUID.randomUUID()), 100, 8,
+                Duration.ofSeconds(30), Duration.ofMillis(500));
+        HotStockLedger ledger = new HotStockLedger(properties, jdbcTemplate, Mockito.mock(ProductRepository.class),
+                Mockito.mock(PlatformTransactionManager.class));
+
+        ledger.flush();
+
+        // 500ms não pode chegar ao make_interval como 0, o que acertaria lotes em uso
+        Mockito.verify(jdbcTemplate).update(ArgumentMatchers.contains("make_interval"), ArgumentMatchers.eq(0.5));
+    }
+}
@@ -0,0 +1,207 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.Sql.ExecutionPhase;
+import org.springframework.test.json.JsonCompareMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.oktech.boasaude.config.InventoryConfig;
+import com.oktech.boasaude.config.exception.IdempotencyKeyInProgressException;
+import com.oktech.boasaude.controller.GlobalExceptionHandler;
+import com.oktech.boasaude.controller.OrderController;
+import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.OrderService.CreatedOrder;
+import com.oktech.boasaude.service.outbox.OutboxWriter;
+import com.oktech.boasaude.support.H2RepositoryTestSupport;
+
+/**
+ * Pedidos com Idempotency-Key, do controller ao banco: repetições recebem o
+ * pedido original sem tocar no estoque, requisições simultâneas com a mesma
+ * chave criam um único pedido e um pedido que falha libera a chave.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Sql(scripts = "classpath:db/migration/V9__create_table_idempotency_key.sql",
+        executionPhase = ExecutionPhase.BEFORE_TEST_CLASS)
+@Import({ OrderServiceImpl.class, HotStockLedger.class, IdempotencyKeyStore.class, OutboxWriter.class,
+        InventoryConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class OrderIdempotencyTest extends H2RepositoryTestSupport {
+
+    private static final int STOCK = 10;
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private MockMvc mockMvc;
+
+    private User buyer;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            buyer = user("idempotent@test.com");
+            product = product(shop(buyer), "Product", 1000, STOCK);
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController(orderService, null))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testReplayReturnsOriginalOrder() throws Exception {
+        String original = create("key-1", 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+
+        create("key-1", 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(original, JsonCompareMode.STRICT));
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(STOCK - 2, stock());
+    }
+
+    @Test
+    void testSameKeyWithDifferentBodyIsRejected() throws Exception {
+        create("key-1", 2).andExpect(status().isCreated());
+
+        create("key-1", 3).andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, orderRepository.count());
+        assertEquals(STOCK - 2, stock());
+    }
+
+    @Test
+    void testExpiredKeyIsReclaimed() throws Exception {
+        create("key-1", 2).andExpect(status().isCreated());
+        jdbcTemplate.update("UPDATE idempotency_keys SET expires_at = DATEADD('HOUR', -1, NOW())");
+
+        // Depois de expirar, a chave vale para um corpo novo e cria outro pedido
+        create("key-1", 3)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        assertEquals(2, orderRepository.count());
+        assertEquals(STOCK - 5, stock());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+    }
+
+    @Test
+    void testKeyInProgressIsRejectedWithoutTouchingStock() throws Exception {
+        jdbcTemplate.update("""
+                INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, expires_at)
+                VALUES (?, 'key-1', ?, DATEADD('MINUTE', 1, NOW()))
+                """, buyer.getId(), idempotencyKeyStore.hash(List.of(new CreateOrderItemDto(2, product.getId()))));
+
+        create("key-1", 2)
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+
+        assertEquals(0, orderRepository.count());
+        assertEquals(STOCK, stock());
+    }
+
+    @Test
+    void testFailedOrderReleasesKey() throws Exception {
+        create("key-1", STOCK + 1).andExpect(status().isConflict());
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class));
+        create("key-1", 2)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        assertEquals(STOCK - 2, stock());
+    }
+
+    @Test
+    void testConcurrentRequestsWithSameKeyCreateOneOrder() throws Exception {
+        List<CreateOrderItemDto> items = List.of(new CreateOrderItemDto(1, product.getId()));
+        AtomicInteger created = new AtomicInteger();
+        Set<String> orderIds = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                CreatedOrder order;
+                try {
+                    order = orderService.createOrder(buyer, items, "key-1");
+                } catch (IdempotencyKeyInProgressException e) {
+                    // Chegou enquanto o pedido original era gravado
+                    return null;
+                }
+                if (!order.replayed()) {
+                    created.incrementAndGet();
+                }
+                orderIds.add(order.order().id());
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get());
+        assertEquals(1, orderIds.size());
+        assertEquals(1, orderRepository.count());
+        assertEquals(STOCK - 1, stock());
+    }
+
+    private ResultActions create(String idempotencyKey, int quantity) throws Exception {
+        return mockMvc.perform(post("/v1/orders/create")
+                .principal(new UsernamePasswordAuthenticationToken(buyer, null, List.of()))
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"quantity\": %d, \"productId\": \"%s\"}]".formatted(quantity, product.getId())));
+    }
+
+    private int stock() {
+        return productRepository.findById(product.getId()).orElseThrow().getStock();
+    }
+}
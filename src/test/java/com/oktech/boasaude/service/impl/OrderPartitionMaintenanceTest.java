@@ -0,0 +1,133 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.oktech.boasaude.support.PostgresTestSupport;
+
+/**
+ * Criação e arquivamento das partições mensais contra o Postgres. Cada teste
+ * usa meses próprios, já que as partições ficam de um teste para o outro.
+ */
+public class OrderPartitionMaintenanceTest extends PostgresTestSupport {
+
+    private UUID userId;
+
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        userId = insertUser();
+        productId = insertProduct(userId, 1000, 100);
+    }
+
+    @Test
+    void testPartitionCreationMovesRowsOutOfDefault() {
+        // Mês sem partição ainda: o pedido cai na DEFAULT
+        YearMonth month = YearMonth.now().plusMonths(24);
+        UUID orderId = insertOrder(userId, productId, 2, "PENDING", month.atDay(10).atStartOfDay());
+        assertEquals(1, count("SELECT COUNT(*) FROM orders_default WHERE id = ?", orderId));
+
+        ensurePartitions(month);
+
+        String suffix = suffix(month);
+        assertEquals(0, count("SELECT COUNT(*) FROM orders_default WHERE id = ?", orderId));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items_default WHERE order_id = ?", orderId));
+        assertEquals(1, count("SELECT COUNT(*) FROM orders" + suffix + " WHERE id = ?", orderId));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_items" + suffix + " WHERE order_id = ?", orderId));
+        // A partição anexada tem a chave primária da tabela pai
+        assertEquals(1, count("""
+                SELECT COUNT(*) FROM pg_indexes WHERE tablename = ? AND indexdef LIKE 'CREATE UNIQUE INDEX%'
+                """, "orders" + suffix));
+
+        // Chamar de novo não faz nada
+        ensurePartitions(month);
+        assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE id = ?", orderId));
+    }
+
+    @Test
+    void testFinishedMonthsAreArchivedAndOpenOnesStay() {
+        YearMonth finished = YearMonth.now().minusMonths(14);
+        YearMonth open = YearMonth.now().minusMonths(15);
+        UUID completed = insertOrder(userId, productId, 1, "COMPLETED", finished.atDay(5).atStartOfDay());
+        UUID pending = insertOrder(userId, productId, 1, "PENDING", open.atDay(5).atStartOfDay());
+        ensurePartitions(finished);
+        ensurePartitions(open);
+
+        maintenance().maintain();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM orders WHERE id = ?", completed));
+        assertEquals(0, count("SELECT COUNT(*) FROM order_items WHERE order_id = ?", completed));
+        assertEquals(1, count("SELECT COUNT(*) FROM orders_archive WHERE id = ?", completed));
+        assertEquals(1, count("SELECT COUNT(*) FROM order_items_archive WHERE order_id = ?", completed));
+        assertTrue(jdbcTemplate.queryForObject("SELECT archived FROM orders_all WHERE id = ?", Boolean.class,
+                completed));
+        assertEquals("orders_archive", parentOf("orders" + suffix(finished)));
+        assertEquals("order_items_archive", parentOf("order_items" + suffix(finished)));
+
+        assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE id = ?", pending));
+        assertEquals("orders", parentOf("orders" + suffix(open)));
+    }
+
+    @Test
+    void testArchiveGivesUpWhenOrdersIsLocked() throws Exception {
+        YearMonth finished = YearMonth.now().minusMonths(16);
+        UUID completed = insertOrder(userId, productId, 1, "COMPLETED", finished.atDay(5).atStartOfDay());
+        ensurePartitions(finished);
+
+        try (Connection reader = dataSource.getConnection()) {
+            // Uma leitura em andamento em orders impede o DETACH
+            reader.setAutoCommit(false);
+            reader.createStatement().execute("SELECT COUNT(*) FROM orders");
+
+            long started = System.nanoTime();
+            maintenance().maintain();
+            assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(5)) < 0);
+            assertEquals(1, count("SELECT COUNT(*) FROM orders WHERE id = ?", completed));
+            assertEquals("orders", parentOf("orders" + suffix(finished)));
+            reader.rollback();
+        }
+
+        maintenance().maintain();
+        assertEquals(1, count("SELECT COUNT(*) FROM orders_archive WHERE id = ?", completed));
+    }
+
+    private static OrderPartitionMaintenance maintenance() {
+        return new OrderPartitionMaintenance(jdbcTemplate, new DataSourceTransactionManager(dataSource), true, 3,
+                Duration.ofDays(365), Duration.ofMillis(200), 2);
+    }
+
+    private static void ensurePartitions(YearMonth month) {
+        Date monthStart = Date.valueOf(month.atDay(1));
+        jdbcTemplate.queryForList("SELECT ensure_monthly_partition(?, ?)", "orders", monthStart);
+        jdbcTemplate.queryForList("SELECT ensure_monthly_partition(?, ?)", "order_items", monthStart);
+    }
+
+    private static String suffix(YearMonth month) {
+        return "_p%04d%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private static String parentOf(String partition) {
+        return jdbcTemplate.queryForObject("""
+                SELECT p.relname
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                  JOIN pg_class p ON p.oid = i.inhparent
+                 WHERE c.relname = ?
+                """, String.class, partition);
+    }
+
+    private static long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
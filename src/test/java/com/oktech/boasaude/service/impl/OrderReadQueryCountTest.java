@@ -0,0 +1,98 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+import com.oktech.boasaude.config.InventoryConfig;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.Order;
+import com.oktech.boasaude.entity.OrderItem;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.outbox.OutboxWriter;
+import com.oktech.boasaude.support.H2RepositoryTestSupport;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Garante que listar uma página de pedidos e mapeá-la para DTOs custa um
+ * número fixo de consultas, independente de quantos pedidos e itens existem.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orderread;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ OrderServiceImpl.class, HotStockLedger.class, IdempotencyKeyStore.class, OutboxWriter.class,
+        InventoryConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class OrderReadQueryCountTest extends H2RepositoryTestSupport {
+
+    private static final int ORDERS = 12;
+
+    private static final int ITEMS_PER_ORDER = 5;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            buyer = user("reader@test.com");
+            Shop shop = shop(buyer);
+            List<Product> products = new ArrayList<>();
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                products.add(product(shop, "Product " + i, 1000 + i, 100));
+            }
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order(buyer);
+                for (Product product : products) {
+                    order.addItem(new OrderItem(order, product, 2));
+                }
+                orderRepository.save(order);
+            }
+        });
+    }
+
+    @Test
+    void testOrderPageIsReadWithFixedNumberOfQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // A transação externa faz o papel do open-in-view: acessos lazy seriam
+        // resolvidos com consultas extras em vez de falhar.
+        Page<OrderResponseDto> page = transactionTemplate.execute(status ->
+                orderService.getOrdersByUserId(PageRequest.of(0, 10, Sort.by("createdAt")), buyer)
+                        .map(OrderResponseDto::new));
+
+        assertEquals(10, page.getNumberOfElements());
+        assertEquals(ORDERS, page.getTotalElements());
+        page.forEach(order -> {
+            assertEquals(ITEMS_PER_ORDER, order.items().size());
+            assertEquals(BigInteger.valueOf(2 * (1000 + 1001 + 1002 + 1003 + 1004)), order.totalPrice());
+        });
+        // IDs da página, count e pedidos com itens.
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,136 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.oktech.boasaude.config.exception.InvalidStatusTransitionException;
+import com.oktech.boasaude.dto.BulkOrderStatusReport;
+import com.oktech.boasaude.dto.BulkOrderStatusReport.Outcome;
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.dto.OrderResponseDto;
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.OrderRepository.StatusView;
+import com.oktech.boasaude.repository.OrderStatusTransitionRepository.StatusTransition;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.service.outbox.OutboxWriter;
+
+public class OrderServiceImplTest {
+
+    private OrderRepository orderRepository;
+
+    private OrderServiceImpl orderService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = Mockito.mock(OrderRepository.class);
+        orderService = new OrderServiceImpl(orderRepository, Mockito.mock(ProductRepository.class),
+                Mockito.mock(HotStockLedger.class), Mockito.mock(IdempotencyKeyStore.class),
+                Mockito.mock(OutboxWriter.class), Mockito.mock(PlatformTransactionManager.class), 4);
+        user = new User(new CreateUserDto("Staff", "staff@test.com", "12345678901", "1234567890", "secret"));
+        user.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void testBulkStatusReportsOutcomePerOrder() {
+        UUID updated = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        UUID foreign = UUID.randomUUID();
+        UUID completed = UUID.randomUUID();
+        Mockito.when(orderRepository.transitionStatus(Set.of(updated, missing, foreign, completed), user.getId(),
+                OrderStatus.CANCELLED, user.getId()))
+                .thenReturn(List.of(new StatusTransition(updated, OrderStatus.PENDING, OrderStatus.CANCELLED, 1)));
+        Mockito.when(orderRepository.findStatusesByIdIn(List.of(missing, foreign, completed))).thenReturn(List.of(
+                view(foreign, UUID.randomUUID(), OrderStatus.PENDING),
+                view(completed, user.getId(), OrderStatus.COMPLETED)));
+
+        BulkOrderStatusReport report = orderService.updateOrderStatuses(
+                List.of(updated, missing, foreign, completed, updated), "cancelled", user);
+
+        assertEquals(4, report.total());
+        assertEquals(1, report.updated());
+        assertEquals(List.of(Outcome.UPDATED, Outcome.NOT_FOUND, Outcome.FORBIDDEN, Outcome.INVALID_TRANSITION),
+                report.orders().stream().map(BulkOrderStatusReport.OrderResult::outcome).toList());
+        assertEquals("COMPLETED", report.orders().get(3).currentStatus());
+    }
+
+    @Test
+    void testBulkStatusRejectsTooManyOrders() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                UUID.randomUUID());
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.updateOrderStatuses(ids, "COMPLETED", user));
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void testStatusChangeReturnsOrderFromTransition() {
+        UUID orderId = UUID.randomUUID();
+        OrderResponseDto changed = new OrderResponseDto(orderId.toString(), "COMPLETED", BigInteger.TEN, List.of());
+        Mockito.when(orderRepository.transitionOrderStatus(orderId, user.getId(), OrderStatus.COMPLETED,
+                user.getId())).thenReturn(Optional.of(changed));
+
+        assertEquals(changed, orderService.updateOrderStatus(orderId, "completed", user));
+
+        // Uma ida ao banco: o pedido não é lido de novo depois da transição
+        Mockito.verify(orderRepository).transitionOrderStatus(orderId, user.getId(), OrderStatus.COMPLETED,
+                user.getId());
+        Mockito.verifyNoMoreInteractions(orderRepository);
+    }
+
+    @Test
+    void testStatusChangeFromFinalStatusIsRejected() {
+        UUID orderId = UUID.randomUUID();
+        Mockito.when(orderRepository.transitionOrderStatus(orderId, user.getId(), OrderStatus.CANCELLED,
+                user.getId())).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findStatusesByIdIn(List.of(orderId)))
+                .thenReturn(List.of(view(orderId, user.getId(), OrderStatus.COMPLETED)));
+
+        assertThrows(InvalidStatusTransitionException.class,
+                () -> orderService.updateOrderStatus(orderId, "CANCELLED", user));
+    }
+
+    @Test
+    void testDatabaseUuidOrderComparesBytesUnsigned() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        // UUID.compareTo usa longs com sinal e põe high antes de low; o Postgres não
+        assertEquals(1, low.compareTo(high));
+        assertEquals(List.of(low, high),
+                List.of(high, low).stream().sorted(OrderServiceImpl.DATABASE_UUID_ORDER).toList());
+    }
+
+    private static StatusView view(UUID id, UUID userId, OrderStatus status) {
+        return new StatusView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+        };
+    }
+}
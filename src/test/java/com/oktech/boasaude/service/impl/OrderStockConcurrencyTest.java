@@ -0,0 +1,124 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import com.oktech.boasaude.config.InventoryConfig;
+import com.oktech.boasaude.config.exception.InsufficientStockException;
+import com.oktech.boasaude.dto.CreateOrderItemDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.service.outbox.OutboxWriter;
+import com.oktech.boasaude.support.H2RepositoryTestSupport;
+
+/**
+ * Dispara pedidos concorrentes contra um único produto e verifica que o
+ * estoque nunca fica negativo nem vende mais do que existe.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+@Import({ OrderServiceImpl.class, HotStockLedger.class, IdempotencyKeyStore.class, OutboxWriter.class,
+        InventoryConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class OrderStockConcurrencyTest extends H2RepositoryTestSupport {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStockConcurrencyTest.class);
+
+    private static final int STOCK = 100;
+
+    private static final int THREADS = 8;
+
+    private static final int ATTEMPTS = 400;
+
+    @Autowired
+    private OrderServiceImpl orderService;
+
+    private User buyer;
+
+    private Product hotProduct;
+
+    private Product otherProduct;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            buyer = user("buyer@test.com");
+            Shop shop = shop(buyer);
+            hotProduct = product(shop, "Hot", 1000, STOCK);
+            otherProduct = product(shop, "Other", 1000, 1);
+        });
+    }
+
+    @Test
+    void testConcurrentOrdersNeverOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    orderService.createOrder(buyer, List.of(new CreateOrderItemDto(1, hotProduct.getId())));
+                    sold.incrementAndGet();
+                } catch (InsufficientStockException ex) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        executor.shutdown();
+
+        assertEquals(STOCK, sold.get());
+        assertEquals(ATTEMPTS - STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getStock());
+        assertEquals(STOCK, orderRepository.count());
+        assertEquals(STOCK, outboxEventRepository.count());
+        logger.info("{} checkout attempts on one product with {} threads: {} orders/s",
+                ATTEMPTS, THREADS, Math.round(ATTEMPTS / (elapsedNanos / 1e9)));
+    }
+
+    @Test
+    void testFailedLineRollsBackWholeOrder() {
+        List<CreateOrderItemDto> items = List.of(
+                new CreateOrderItemDto(5, hotProduct.getId()),
+                new CreateOrderItemDto(2, otherProduct.getId()));
+
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(buyer, items));
+
+        assertEquals(STOCK, productRepository.findById(hotProduct.getId()).orElseThrow().getStock());
+        assertEquals(1, productRepository.findById(otherProduct.getId()).orElseThrow().getStock());
+        assertEquals(0, orderRepository.count());
+        assertEquals(0, outboxEventRepository.count());
+        assertThrows(IllegalArgumentException.class, () -> orderService.createOrder(buyer,
+                List.of(new CreateOrderItemDto(1, UUID.randomUUID()))));
+    }
+}
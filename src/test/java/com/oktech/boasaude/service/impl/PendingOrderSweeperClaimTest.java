@@ -0,0 +1,75 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.OrderStatusTransitionRepositoryImpl;
+import com.oktech.boasaude.support.PostgresTestSupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A reserva dos pedidos expirados contra o Postgres: pedidos bloqueados por
+ * outra transação (outra instância varrendo) são pulados, não esperados.
+ */
+public class PendingOrderSweeperClaimTest extends PostgresTestSupport {
+
+    @Test
+    void testLockedOrdersAreSkippedAndOthersCancelled() throws Exception {
+        UUID userId = insertUser();
+        UUID productId = insertProduct(userId, 1000, 10);
+        LocalDateTime expired = LocalDateTime.now().minusHours(1);
+        UUID locked = insertOrder(userId, productId, 1, "PENDING", expired);
+        UUID free = insertOrder(userId, productId, 2, "PENDING", expired);
+        UUID recent = insertOrder(userId, productId, 3, "PENDING", LocalDateTime.now());
+        UUID completed = insertOrder(userId, productId, 4, "COMPLETED", expired);
+
+        OrderStatusTransitionRepositoryImpl transitions = new OrderStatusTransitionRepositoryImpl(jdbcTemplate);
+        OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
+        Mockito.when(orderRepository.transitionStatus(ArgumentMatchers.anyCollection(), ArgumentMatchers.isNull(),
+                ArgumentMatchers.eq(OrderStatus.CANCELLED), ArgumentMatchers.isNull()))
+                .thenAnswer(invocation -> transitions.transitionStatus(invocation.getArgument(0), null,
+                        OrderStatus.CANCELLED, null));
+        PendingOrderSweeper sweeper = new PendingOrderSweeper(jdbcTemplate, orderRepository,
+                new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), true,
+                Duration.ofMinutes(30), 10);
+
+        try (Connection other = dataSource.getConnection()) {
+            other.setAutoCommit(false);
+            try (PreparedStatement ps = other.prepareStatement("SELECT id FROM orders WHERE id = ? FOR UPDATE")) {
+                ps.setObject(1, locked);
+                ps.executeQuery();
+            }
+
+            sweeper.sweep();
+            other.rollback();
+        }
+
+        assertEquals("PENDING", status(locked));
+        assertEquals("CANCELLED", status(free));
+        assertEquals("PENDING", status(recent));
+        assertEquals("COMPLETED", status(completed));
+        assertEquals(10 + 2, jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class,
+                productId));
+
+        // Livre do lock, a próxima varredura cancela o pedido
+        sweeper.sweep();
+        assertEquals("CANCELLED", status(locked));
+    }
+
+    private static String status(UUID orderId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, orderId);
+    }
+}
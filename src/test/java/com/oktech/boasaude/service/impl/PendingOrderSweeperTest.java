@@ -0,0 +1,65 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.oktech.boasaude.entity.OrderStatus;
+import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.OrderStatusTransitionRepository.StatusTransition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PendingOrderSweeperTest {
+
+    @Test
+    void testSweepCancelsBatchesUntilOneIsShort() {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        OrderRepository orderRepository = Mockito.mock(OrderRepository.class);
+        List<UUID> full = List.of(UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> last = List.of(UUID.randomUUID());
+        Mockito.when(jdbcTemplate.queryForList(ArgumentMatchers.anyString(), ArgumentMatchers.eq(UUID.class),
+                ArgumentMatchers.any(), ArgumentMatchers.eq(2)))
+                .thenReturn(full)
+                .thenReturn(last);
+        Mockito.when(orderRepository.transitionStatus(ArgumentMatchers.anyCollection(), ArgumentMatchers.isNull(),
+                ArgumentMatchers.eq(OrderStatus.CANCELLED), ArgumentMatchers.isNull()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                        .map(id -> new StatusTransition((UUID) id, OrderStatus.PENDING, OrderStatus.CANCELLED, 1))
+                        .toList());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        LocalDateTime before = LocalDateTime.now();
+        new PendingOrderSweeper(jdbcTemplate, orderRepository, Mockito.mock(PlatformTransactionManager.class),
+                meterRegistry, true, Duration.ofMinutes(30), 2).sweep();
+        LocalDateTime after = LocalDateTime.now();
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object> cutoff = ArgumentCaptor.forClass(Object.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).queryForList(sql.capture(), ArgumentMatchers.eq(UUID.class),
+                cutoff.capture(), ArgumentMatchers.eq(2));
+        // Só pedidos PENDING, sem esperar pelos que outra instância já reservou
+        assertTrue(sql.getValue().contains("status = 'PENDING'"));
+        assertTrue(sql.getValue().contains("FOR UPDATE SKIP LOCKED"));
+        // Todos os lotes usam o mesmo corte, TTL antes do início da varredura
+        assertEquals(cutoff.getAllValues().get(0), cutoff.getAllValues().get(1));
+        LocalDateTime claimedBefore = ((Timestamp) cutoff.getValue()).toLocalDateTime();
+        assertTrue(!claimedBefore.isBefore(before.minusMinutes(30)) && !claimedBefore.isAfter(after.minusMinutes(30)));
+
+        Mockito.verify(orderRepository, Mockito.times(2)).transitionStatus(ArgumentMatchers.anyCollection(),
+                ArgumentMatchers.isNull(), ArgumentMatchers.eq(OrderStatus.CANCELLED), ArgumentMatchers.isNull());
+        assertEquals(3.0, meterRegistry.counter("orders.expired").count());
+    }
+}
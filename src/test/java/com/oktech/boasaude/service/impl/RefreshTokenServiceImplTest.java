@@ -0,0 +1,112 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.entity.RefreshToken;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.RefreshTokenRepository;
+import com.oktech.boasaude.service.RefreshTokenService.Rotation;
+
+public class RefreshTokenServiceImplTest {
+
+    /**
+     * Tokens gravados pelo repositório simulado.
+     */
+    private final List<RefreshToken> stored = new ArrayList<>();
+
+    private RefreshTokenServiceImpl refreshTokenService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        RefreshTokenRepository refreshTokenRepository = Mockito.mock(RefreshTokenRepository.class);
+        Mockito.when(refreshTokenRepository.save(Mockito.any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(UUID.randomUUID());
+            stored.add(token);
+            return token;
+        });
+        Mockito.when(refreshTokenRepository.findByTokenHashForUpdate(Mockito.anyString()))
+                .thenAnswer(invocation -> stored.stream()
+                        .filter(token -> token.getTokenHash().equals(invocation.getArgument(0)))
+                        .findFirst());
+        Mockito.when(refreshTokenRepository.revokeFamily(Mockito.any(UUID.class), Mockito.any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    int revoked = 0;
+                    for (RefreshToken token : stored) {
+                        if (token.getFamilyId().equals(invocation.getArgument(0)) && !token.isRevoked()) {
+                            token.setRevokedAt(invocation.getArgument(1));
+                            revoked++;
+                        }
+                    }
+                    return revoked;
+                });
+
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, Duration.ofDays(14));
+        user = new User(new CreateUserDto("John Doe", "john@test.com", "12345678901", "1234567890", "secret"));
+        user.setId(UUID.randomUUID());
+    }
+
+    @Test
+    void testRotationInvalidatesPresentedToken() {
+        String first = refreshTokenService.issue(user);
+
+        Optional<Rotation> rotation = refreshTokenService.rotate(first);
+
+        assertTrue(rotation.isPresent());
+        assertNotEquals(first, rotation.get().refreshToken());
+        assertEquals(user, rotation.get().user());
+        assertTrue(stored.get(0).isRevoked());
+        assertEquals(stored.get(1).getId(), stored.get(0).getReplacedBy());
+        assertEquals(stored.get(0).getFamilyId(), stored.get(1).getFamilyId());
+        assertTrue(refreshTokenService.rotate(rotation.get().refreshToken()).isPresent());
+    }
+
+    @Test
+    void testReuseOfRotatedTokenRevokesFamily() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).orElseThrow().refreshToken();
+        String otherSession = refreshTokenService.issue(user);
+
+        // O token antigo reapresentado (vazado) derruba também o sucessor legítimo
+        assertTrue(refreshTokenService.rotate(first).isEmpty());
+        assertTrue(refreshTokenService.rotate(second).isEmpty());
+        assertTrue(refreshTokenService.rotate(otherSession).isPresent());
+    }
+
+    @Test
+    void testRevokedTokenVersionIsRejected() {
+        String token = refreshTokenService.issue(user);
+        user.revokeTokens();
+
+        assertTrue(refreshTokenService.rotate(token).isEmpty());
+    }
+
+    @Test
+    void testLogoutRevokesFamily() {
+        String first = refreshTokenService.issue(user);
+        String second = refreshTokenService.rotate(first).orElseThrow().refreshToken();
+
+        assertTrue(refreshTokenService.revoke(second));
+
+        assertTrue(stored.stream().allMatch(RefreshToken::isRevoked));
+        assertTrue(refreshTokenService.rotate(second).isEmpty());
+        assertFalse(refreshTokenService.revoke("unknown-token"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.entity.OutboxEvent;
+import com.oktech.boasaude.service.outbox.OrderEvents;
+import com.oktech.boasaude.support.PostgresTestSupport;
+
+/**
+ * Eventos de pedidos aplicados às vendas diárias e limpeza dos eventos já
+ * aplicados, contra o Postgres.
+ */
+public class ShopSalesRollupTest extends PostgresTestSupport {
+
+    private UUID userId;
+
+    private UUID productId;
+
+    private UUID shopId;
+
+    private ShopSalesRollup rollup;
+
+    @BeforeEach
+    void setUp() {
+        userId = insertUser();
+        productId = insertProduct(userId, 1000, 100);
+        shopId = jdbcTemplate.queryForObject("SELECT shop_id FROM products WHERE id = ?", UUID.class, productId);
+        rollup = new ShopSalesRollup(jdbcTemplate, new ObjectMapper(), new DataSourceTransactionManager(dataSource),
+                Duration.ofDays(30));
+    }
+
+    @Test
+    void testEventForArchivedOrderIsApplied() throws Exception {
+        // O mês do pedido é arquivado antes de o evento ser entregue
+        YearMonth month = YearMonth.now().minusMonths(20);
+        UUID orderId = insertOrder(userId, productId, 3, "COMPLETED", month.atDay(5).atStartOfDay());
+        Date monthStart = Date.valueOf(month.atDay(1));
+        jdbcTemplate.queryForList("SELECT ensure_monthly_partition(?, ?)", "orders", monthStart);
+        jdbcTemplate.queryForList("SELECT ensure_monthly_partition(?, ?)", "order_items", monthStart);
+        new OrderPartitionMaintenance(jdbcTemplate, new DataSourceTransactionManager(dataSource), true, 3,
+                Duration.ofDays(365), Duration.ofMillis(200), 2).maintain();
+        assertEquals(1, count("SELECT COUNT(*) FROM orders_archive WHERE id = ?", orderId));
+
+        rollup.handle(event(orderId));
+
+        assertEquals(3, count("SELECT units FROM shop_daily_sales WHERE shop_id = ? AND day = ?", shopId,
+                Date.valueOf(month.atDay(5))));
+        assertEquals(3000, count("""
+                SELECT revenue_cents FROM shop_product_daily_sales WHERE shop_id = ? AND product_id = ?
+                """, shopId, productId));
+    }
+
+    @Test
+    void testPurgeKeepsEventsTheOutboxCanStillDeliver() {
+        UUID dead = insertEvent("DEAD");
+        UUID done = insertEvent("DONE");
+        UUID gone = UUID.randomUUID();
+        for (UUID eventId : new UUID[] { dead, done, gone }) {
+            jdbcTemplate.update("""
+                    INSERT INTO shop_sales_applied_events (event_id, applied_at)
+                    VALUES (?, NOW() - INTERVAL '60 days')
+                    """, eventId);
+        }
+
+        rollup.purgeAppliedEvents();
+
+        // O DEAD ainda pode voltar a PENDING; sem o registro, seria somado de novo
+        assertEquals(1, count("SELECT COUNT(*) FROM shop_sales_applied_events WHERE event_id = ?", dead));
+        assertEquals(0, count("SELECT COUNT(*) FROM shop_sales_applied_events WHERE event_id = ?", done));
+        assertEquals(0, count("SELECT COUNT(*) FROM shop_sales_applied_events WHERE event_id = ?", gone));
+    }
+
+    private OutboxEvent event(UUID orderId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(UUID.randomUUID());
+        event.setAggregateType(OrderEvents.AGGREGATE_TYPE);
+        event.setAggregateId(orderId);
+        event.setEventType(OrderEvents.CREATED);
+        event.setPayload("{}");
+        return event;
+    }
+
+    private UUID insertEvent(String status) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO outbox_events (id, aggregate_type, aggregate_id, event_type, payload, status)
+                VALUES (?, ?, ?, ?, '{}', ?)
+                """, id, OrderEvents.AGGREGATE_TYPE, UUID.randomUUID(), OrderEvents.CREATED, status);
+        return id;
+    }
+
+    private static long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+}
@@ -0,0 +1,77 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.access.AccessDeniedException;
+
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto;
+import com.oktech.boasaude.dto.ShopSalesDashboardDto.DailySales;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.entity.UserRole;
+import com.oktech.boasaude.repository.OrderItemRepository;
+import com.oktech.boasaude.repository.ShopRepository;
+
+public class ShopServiceImplTest {
+
+    private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+
+    private static final LocalDate TO = LocalDate.of(2025, 3, 31);
+
+    private ShopRepository shopRepository;
+
+    private ShopServiceImpl shopService;
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        shopRepository = Mockito.mock(ShopRepository.class);
+        shopService = new ShopServiceImpl(shopRepository, Mockito.mock(UserServiceImpl.class),
+                Mockito.mock(OrderItemRepository.class), 31, 20);
+        shop = new Shop();
+        shop.setId(UUID.randomUUID());
+        shop.setOwner(user(UserRole.PRODUCTOR));
+        Mockito.when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
+    }
+
+    @Test
+    void testDashboardSumsDailyRollups() {
+        Mockito.when(shopRepository.findDailySales(shop.getId(), FROM, TO)).thenReturn(List.of(
+                new DailySales(FROM, 3, 4500, 2),
+                new DailySales(TO, 1, 1000, 1)));
+
+        ShopSalesDashboardDto dashboard = shopService.getSalesDashboard(shop.getId(), FROM, TO, shop.getOwner());
+
+        assertEquals(4, dashboard.units());
+        assertEquals(5500, dashboard.revenueCents());
+        assertEquals(3, dashboard.orderCount());
+        assertEquals(2, dashboard.days().size());
+    }
+
+    @Test
+    void testDashboardIsRestrictedToOwnerAndPeriod() {
+        assertThrows(AccessDeniedException.class,
+                () -> shopService.getSalesDashboard(shop.getId(), FROM, TO, user(UserRole.PRODUCTOR)));
+        assertThrows(IllegalArgumentException.class,
+                () -> shopService.getSalesDashboard(shop.getId(), FROM, TO.plusDays(1), shop.getOwner()));
+        shopService.getSalesDashboard(shop.getId(), FROM, TO, user(UserRole.ADMIN));
+    }
+
+    private static User user(UserRole role) {
+        User user = new User(new CreateUserDto("Owner", "owner@test.com", "12345678901", "1234567890", "secret"));
+        user.setId(UUID.randomUUID());
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,209 @@
+package com.oktech.boasaude.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oktech.boasaude.config.bloom.RegisteredUserFilter;
+import com.oktech.boasaude.dto.UserImportReport;
+import com.oktech.boasaude.dto.UserImportReport.RowStatus;
+import com.oktech.boasaude.repository.UserRepository;
+import com.oktech.boasaude.repository.UserRepository.IdentityView;
+import com.oktech.boasaude.service.UserImportService.Format;
+
+public class UserImportServiceImplTest {
+
+    private static final int INSERT_PARAMS_PER_ROW = 10;
+
+    private UserRepository userRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Emails já gravados no banco simulado; o INSERT não devolve essas linhas.
+     */
+    private Set<String> insertedEmails;
+
+    private RegisteredUserFilter registeredUserFilter;
+
+    private PasswordEncoder passwordEncoder;
+
+    private UserImportServiceImpl importService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = Mockito.mock(UserRepository.class);
+        registeredUserFilter = Mockito.mock(RegisteredUserFilter.class);
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        passwordEncoder = Mockito.mock(PasswordEncoder.class);
+        Mockito.when(passwordEncoder.encode(Mockito.anyString())).thenReturn("encodedPassword");
+        insertedEmails = new HashSet<>();
+        Mockito.when(jdbcTemplate.query(Mockito.anyString(), Mockito.any(PreparedStatementSetter.class),
+                Mockito.any(RowMapper.class)))
+                .thenAnswer(invocation -> insert(invocation.getArgument(1), invocation.getArgument(2)));
+
+        importService = importService(100);
+    }
+
+    @Test
+    void testCsvImportReportsEveryRow() throws Exception {
+        Mockito.when(userRepository.findIdentitiesByEmailOrCpf(Mockito.anyCollection(), Mockito.anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(identity("existing@test.com", "99999999999")));
+        String csv = """
+                name,email,cpf,phone,password
+                John Doe,john@test.com,11111111111,1234567890,secret
+                "Doe, Jane",jane@test.com,22222222222,1234567890,secret
+                Repeated,john@test.com,33333333333,1234567890,secret
+                Existing,existing@test.com,44444444444,1234567890,secret
+                Invalid,not-an-email,55555555555,1234567890,secret
+                """;
+
+        UserImportReport report = importService.importUsers(new StringReader(csv), Format.CSV);
+
+        assertEquals(5, report.total());
+        assertEquals(2, report.created());
+        assertEquals(List.of(RowStatus.CREATED, RowStatus.CREATED, RowStatus.DUPLICATE_IN_FILE,
+                RowStatus.EMAIL_EXISTS, RowStatus.INVALID),
+                report.rows().stream().map(UserImportReport.RowResult::status).toList());
+        assertEquals(2, report.rows().get(0).line());
+        // One duplicate lookup per chunk that still has candidates
+        Mockito.verify(userRepository, Mockito.times(2))
+                .findIdentitiesByEmailOrCpf(Mockito.anyCollection(), Mockito.anyCollection());
+    }
+
+    @Test
+    void testNdjsonImport() throws Exception {
+        Mockito.when(userRepository.findIdentitiesByEmailOrCpf(Mockito.anyCollection(), Mockito.anyCollection()))
+                .thenReturn(List.of());
+        String ndjson = """
+                {"name":"John Doe","email":"john@test.com","cpf":"11111111111","phone":"1234567890","password":"secret"}
+                {"name":"Broken"
+                """;
+
+        UserImportReport report = importService.importUsers(new StringReader(ndjson), Format.NDJSON);
+
+        assertEquals(1, report.created());
+        assertEquals(RowStatus.INVALID, report.rows().get(1).status());
+    }
+
+    @Test
+    void testRowInsertedConcurrentlyIsReportedAsConflict() throws Exception {
+        // Cadastrado depois da consulta de duplicados: só o ON CONFLICT o pega
+        Mockito.when(userRepository.findIdentitiesByEmailOrCpf(Mockito.anyCollection(), Mockito.anyCollection()))
+                .thenReturn(List.of());
+        insertedEmails.add("existing@test.com");
+        String csv = """
+                name,email,cpf,phone,password
+                John Doe,john@test.com,11111111111,1234567890,secret
+                Existing,existing@test.com,44444444444,1234567890,secret
+                """;
+
+        UserImportReport report = importService.importUsers(new StringReader(csv), Format.CSV);
+
+        assertEquals(1, report.created());
+        assertEquals(List.of(RowStatus.CREATED, RowStatus.CONFLICT),
+                report.rows().stream().map(UserImportReport.RowResult::status).toList());
+        Mockito.verify(registeredUserFilter).add("john@test.com", "11111111111");
+        Mockito.verify(registeredUserFilter, Mockito.never()).add(Mockito.eq("existing@test.com"), Mockito.any());
+    }
+
+    @Test
+    void testImportOverLimitStopsWithPartialReport() throws Exception {
+        Mockito.when(userRepository.findIdentitiesByEmailOrCpf(Mockito.anyCollection(), Mockito.anyCollection()))
+                .thenReturn(List.of());
+        String csv = """
+                name,email,cpf,phone,password
+                One,one@test.com,11111111111,1234567890,secret
+                Two,two@test.com,22222222222,1234567890,secret
+                Three,three@test.com,33333333333,1234567890,secret
+                Four,four@test.com,44444444444,1234567890,secret
+                Five,five@test.com,55555555555,1234567890,secret
+                """;
+
+        // O primeiro bloco já foi gravado quando o limite é atingido
+        UserImportReport report = importService(3).importUsers(new StringReader(csv), Format.CSV);
+
+        assertTrue(report.truncated());
+        assertEquals(3, report.total());
+        assertEquals(3, report.created());
+        assertEquals(Set.of("one@test.com", "two@test.com", "three@test.com"), insertedEmails);
+    }
+
+    @Test
+    void testParseCsvLineHandlesQuotes() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""),
+                UserImportServiceImpl.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+
+    private UserImportServiceImpl importService(int maxRows) {
+        return new UserImportServiceImpl(userRepository, jdbcTemplate,
+                new TransactionTemplate(Mockito.mock(PlatformTransactionManager.class)), passwordEncoder,
+                new ValidationServiceImpl(), registeredUserFilter, new ObjectMapper(),
+                2, 2, maxRows);
+    }
+
+    /**
+     * Simula o INSERT ... ON CONFLICT DO NOTHING RETURNING email: lê os
+     * parâmetros de cada linha e devolve só os emails ainda não gravados.
+     */
+    private List<String> insert(PreparedStatementSetter setter, RowMapper<String> rowMapper) throws Exception {
+        List<Object> params = new ArrayList<>();
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class, invocation -> {
+            if (invocation.getMethod().getName().startsWith("set")) {
+                params.add(invocation.getArgument(1));
+            }
+            return null;
+        });
+        setter.setValues(ps);
+        List<String> returned = new ArrayList<>();
+        for (int i = 2; i < params.size(); i += INSERT_PARAMS_PER_ROW) {
+            String email = (String) params.get(i);
+            if (insertedEmails.add(email)) {
+                ResultSet rs = Mockito.mock(ResultSet.class);
+                Mockito.when(rs.getString("email")).thenReturn(email);
+                returned.add(rowMapper.mapRow(rs, returned.size()));
+            }
+        }
+        return returned;
+    }
+
+    private static IdentityView identity(String email, String cpf) {
+        return new IdentityView() {
+            @Override
+            public UUID getId() {
+                return UUID.randomUUID();
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public String getCpf() {
+                return cpf;
+            }
+        };
+    }
+}
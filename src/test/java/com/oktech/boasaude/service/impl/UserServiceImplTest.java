@@ -10,9 +10,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
+import com.oktech.boasaude.config.bloom.RegisteredUserFilter;
 import com.oktech.boasaude.dto.CreateUserDto;
 import com.oktech.boasaude.entity.User;
 import com.oktech.boasaude.repository.UserRepository;
@@ -27,6 +32,9 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private RegisteredUserFilter registeredUserFilter;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -39,15 +47,13 @@ public class UserServiceImplTest {
                 "1234567890",
                 "password123");
 
-        // Mocking to indicate that email and cpf do not exist yet
-        Mockito.when(userRepository.existsByEmail(createUserDto.email())).thenReturn(false);
-        Mockito.when(userRepository.existsByCpf(createUserDto.cpf())).thenReturn(false);
+        // The Bloom filter mock reports email and cpf as definitely absent
 
-        // Mock for save, simulating that the database will return the saved user
+        // Mock for saveAndFlush, simulating that the database will return the saved user
         User savedUser = new User(createUserDto);
         savedUser.setPassword("encodedPassword"); // Simulate the encoded password
 
-        Mockito.when(userRepository.save(Mockito.any(User.class))).thenReturn(savedUser);
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class))).thenReturn(savedUser);
 
         User result = userService.createUser(createUserDto);
 
@@ -57,6 +63,9 @@ public class UserServiceImplTest {
         assertEquals(createUserDto.cpf(), result.getCpf());
         assertEquals(createUserDto.phone(), result.getPhone());
         assertNotNull(result.getPassword());
+        Mockito.verify(userRepository, Mockito.never()).existsByEmail(Mockito.anyString());
+        Mockito.verify(userRepository, Mockito.never()).existsByCpf(Mockito.anyString());
+        Mockito.verify(registeredUserFilter).add(createUserDto.email(), createUserDto.cpf());
     }
 
     @Test
@@ -68,6 +77,7 @@ public class UserServiceImplTest {
                 "1234567890",
                 "password123");
 
+        Mockito.when(registeredUserFilter.mightContainEmail(createUserDto.email())).thenReturn(true);
         Mockito.when(userRepository.existsByEmail(createUserDto.email())).thenReturn(true);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -76,7 +86,7 @@ public class UserServiceImplTest {
 
         assertEquals("Email already exists", exception.getMessage());
 
-        Mockito.verify(userRepository, Mockito.never()).save(Mockito.any(User.class));
+        Mockito.verify(userRepository, Mockito.never()).saveAndFlush(Mockito.any(User.class));
     }
 
     @Test
@@ -88,6 +98,8 @@ public class UserServiceImplTest {
                 "1234567890",
                 "password123");
 
+        Mockito.when(registeredUserFilter.mightContainEmail(createUserDto.email())).thenReturn(true);
+        Mockito.when(registeredUserFilter.mightContainCpf(createUserDto.cpf())).thenReturn(true);
         Mockito.when(userRepository.existsByEmail(createUserDto.email())).thenReturn(false);
         Mockito.when(userRepository.existsByCpf(createUserDto.cpf())).thenReturn(true);
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -95,7 +107,29 @@ public class UserServiceImplTest {
         });
 
         assertEquals("CPF already exists", exception.getMessage());
-        Mockito.verify(userRepository, Mockito.never()).save(Mockito.any(User.class));
+        Mockito.verify(userRepository, Mockito.never()).saveAndFlush(Mockito.any(User.class));
+    }
+
+    @Test
+    void testCreateUserTranslatesUniqueViolation() {
+        CreateUserDto createUserDto = new CreateUserDto(
+                "Jane Doe",
+                "test@test.com",
+                "12345678901",
+                "1234567890",
+                "password123");
+
+        // Registered on another node: the local filter has not seen it yet
+        Mockito.when(userRepository.saveAndFlush(Mockito.any(User.class))).thenThrow(
+                new DataIntegrityViolationException("duplicate key",
+                        new ConstraintViolationException("duplicate key", new SQLException(), "users_cpf_key")));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            userService.createUser(createUserDto);
+        });
+
+        assertEquals("CPF already exists", exception.getMessage());
+        Mockito.verify(registeredUserFilter, Mockito.never()).add(Mockito.anyString(), Mockito.anyString());
     }
 
 }
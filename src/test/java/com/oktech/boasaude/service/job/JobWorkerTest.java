@@ -0,0 +1,202 @@
+package com.oktech.boasaude.service.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.oktech.boasaude.config.JobProperties;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class JobWorkerTest {
+
+    private static final String TYPE = "test.rebuild";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Test
+    void testPollRespectsPerTypeConcurrency() throws Exception {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String payload = objectMapper.writeValueAsString(
+                new Range(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)));
+        UUID jobId = UUID.randomUUID();
+        Mockito.when(jdbcTemplate.query(ArgumentMatchers.anyString(), ArgumentMatchers.<RowMapper<Object>>any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> List.of(claimed(invocation.getArgument(1), jobId, payload, 1)));
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingHandler handler = new BlockingHandler(started, release);
+        JobProperties properties = new JobProperties(true, 2, Map.of(TYPE, 1), Duration.ofMinutes(5), 5,
+                Duration.ofSeconds(10), Duration.ofMinutes(30), Duration.ofDays(7), 1000);
+        JobWorker worker = new JobWorker(jdbcTemplate, objectMapper, List.of(handler), properties,
+                new SimpleMeterRegistry());
+
+        worker.poll();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        worker.poll();
+
+        assertEquals(1, worker.inFlight(TYPE));
+        Mockito.verify(jdbcTemplate, Mockito.times(1)).query(ArgumentMatchers.anyString(),
+                ArgumentMatchers.<RowMapper<Object>>any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any());
+        assertEquals(LocalDate.of(2024, 1, 2), handler.received.to());
+
+        release.countDown();
+        Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).update(ArgumentMatchers.contains("'DONE'"),
+                ArgumentMatchers.eq(jobId), ArgumentMatchers.eq(1));
+    }
+
+    @Test
+    void testFailedJobIsRescheduledForItsAttempt() throws Exception {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        UUID jobId = UUID.randomUUID();
+        FailingHandler handler = new FailingHandler();
+        JobWorker worker = failingWorker(jdbcTemplate, handler, jobId, 1);
+
+        worker.poll();
+
+        // Backoff de 500ms sem truncar, e só se o job ainda for desta tentativa
+        Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).update(
+                ArgumentMatchers.argThat(sql -> sql.contains("'PENDING'") && sql.contains("attempts = ?")),
+                ArgumentMatchers.eq(0.5), ArgumentMatchers.contains("Rebuild failed"), ArgumentMatchers.eq(jobId),
+                ArgumentMatchers.eq(1));
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(ArgumentMatchers.contains("'DEAD'"),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertEquals(1, handler.calls.get());
+    }
+
+    @Test
+    void testJobIsDeadAfterMaxAttempts() throws Exception {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        UUID jobId = UUID.randomUUID();
+        FailingHandler handler = new FailingHandler();
+        JobWorker worker = failingWorker(jdbcTemplate, handler, jobId, MAX_ATTEMPTS);
+
+        worker.poll();
+
+        Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).update(ArgumentMatchers.contains("'DEAD'"),
+                ArgumentMatchers.contains("Rebuild failed"), ArgumentMatchers.eq(jobId),
+                ArgumentMatchers.eq(MAX_ATTEMPTS));
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(ArgumentMatchers.contains("'PENDING'"),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+        assertEquals(1, handler.calls.get());
+    }
+
+    @Test
+    void testReclaimedJobOverMaxAttemptsIsDeadWithoutRunning() throws Exception {
+        JdbcTemplate jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        UUID jobId = UUID.randomUUID();
+        FailingHandler handler = new FailingHandler();
+        JobWorker worker = failingWorker(jdbcTemplate, handler, jobId, MAX_ATTEMPTS + 1);
+
+        worker.poll();
+
+        Mockito.verify(jdbcTemplate, Mockito.timeout(5000)).update(ArgumentMatchers.contains("'DEAD'"),
+                ArgumentMatchers.contains("Visibility timeout"), ArgumentMatchers.eq(jobId),
+                ArgumentMatchers.eq(MAX_ATTEMPTS + 1));
+        assertEquals(0, handler.calls.get());
+    }
+
+    /**
+     * Worker com um único job reservado, na tentativa informada, para o
+     * {@link FailingHandler}.
+     */
+    private static JobWorker failingWorker(JdbcTemplate jdbcTemplate, FailingHandler handler, UUID jobId,
+            int attempts) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String payload = objectMapper.writeValueAsString(
+                new Range(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2)));
+        Mockito.when(jdbcTemplate.query(ArgumentMatchers.anyString(), ArgumentMatchers.<RowMapper<Object>>any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> List.of(claimed(invocation.getArgument(1), jobId, payload, attempts)))
+                .thenReturn(List.of());
+        JobProperties properties = new JobProperties(true, 1, Map.of(), Duration.ofMinutes(5), MAX_ATTEMPTS,
+                Duration.ofMillis(500), Duration.ofMinutes(30), Duration.ofDays(7), 1000);
+        return new JobWorker(jdbcTemplate, objectMapper, List.of(handler), properties, new SimpleMeterRegistry());
+    }
+
+    private static Object claimed(RowMapper<Object> rowMapper, UUID jobId, String payload, int attempts)
+            throws Exception {
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getObject("id", UUID.class)).thenReturn(jobId);
+        Mockito.when(rs.getString("payload")).thenReturn(payload);
+        Mockito.when(rs.getInt("attempts")).thenReturn(attempts);
+        Mockito.when(rs.getTimestamp("ready_at")).thenReturn(new Timestamp(System.currentTimeMillis()));
+        return rowMapper.mapRow(rs, 0);
+    }
+
+    record Range(LocalDate from, LocalDate to) {
+    }
+
+    private static final class FailingHandler implements JobHandler<Range> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String type() {
+            return TYPE;
+        }
+
+        @Override
+        public Class<Range> payloadType() {
+            return Range.class;
+        }
+
+        @Override
+        public void handle(Range payload) {
+            calls.incrementAndGet();
+            throw new IllegalStateException("Rebuild failed");
+        }
+    }
+
+    private static final class BlockingHandler implements JobHandler<Range> {
+
+        private final CountDownLatch started;
+
+        private final CountDownLatch release;
+
+        private volatile Range received;
+
+        private BlockingHandler(CountDownLatch started, CountDownLatch release) {
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String type() {
+            return TYPE;
+        }
+
+        @Override
+        public Class<Range> payloadType() {
+            return Range.class;
+        }
+
+        @Override
+        public void handle(Range payload) throws Exception {
+            received = payload;
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.oktech.boasaude.service.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.oktech.boasaude.config.OutboxProperties;
+import com.oktech.boasaude.entity.OutboxEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OutboxDispatcherTest {
+
+    private static final String TYPE = "order.created";
+
+    private final UUID eventId = UUID.randomUUID();
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OutboxDispatcher dispatcher;
+
+    /**
+     * Tentativas devolvidas pelo próximo claim, já contando a atual.
+     */
+    private int attempts;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        Mockito.when(jdbcTemplate.query(ArgumentMatchers.anyString(), ArgumentMatchers.<RowMapper<Object>>any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> List.of(claimed(invocation.getArgument(1))));
+
+        OutboxEventHandler failing = new OutboxEventHandler() {
+            @Override
+            public boolean supports(String eventType) {
+                return TYPE.equals(eventType);
+            }
+
+            @Override
+            public void handle(OutboxEvent event) throws Exception {
+                throw new IllegalStateException("Downstream unavailable");
+            }
+        };
+        OutboxProperties properties = new OutboxProperties(true, 10, Duration.ofMillis(1500), 2,
+                Duration.ofMillis(500), Duration.ofMinutes(10), Duration.ofDays(7), 1000);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new OutboxDispatcher(jdbcTemplate, List.of(failing), properties, meterRegistry);
+    }
+
+    @Test
+    void testFailingHandlerIsRetriedThenDead() {
+        attempts = 1;
+        dispatcher.dispatch();
+        attempts = 2;
+        dispatcher.dispatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> failed = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(jdbcTemplate, Mockito.times(2)).batchUpdate(ArgumentMatchers.contains("status = ?"),
+                failed.capture());
+        Object[] retry = failed.getAllValues().get(0).get(0);
+        Object[] dead = failed.getAllValues().get(1).get(0);
+        // O backoff de 500ms chega ao make_interval sem ser truncado para 0
+        assertArrayEquals(new Object[] { "PENDING", 0.5, eventId }, new Object[] { retry[0], retry[1], retry[3] });
+        assertTrue(((String) retry[2]).contains("Downstream unavailable"));
+        assertEquals("DEAD", dead[0]);
+        assertEquals(eventId, dead[3]);
+
+        assertEquals(1, meterRegistry.counter("outbox.events", "outcome", "retried").count());
+        assertEquals(1, meterRegistry.counter("outbox.events", "outcome", "dead").count());
+        assertEquals(0, meterRegistry.counter("outbox.events", "outcome", "delivered").count());
+        Mockito.verify(jdbcTemplate, Mockito.never()).update(ArgumentMatchers.any(PreparedStatementCreator.class));
+    }
+
+    @Test
+    void testClaimTimeoutKeepsFractionOfSecond() {
+        attempts = 1;
+        dispatcher.dispatch();
+
+        Mockito.verify(jdbcTemplate, Mockito.times(1)).query(ArgumentMatchers.anyString(),
+                ArgumentMatchers.<RowMapper<Object>>any(), ArgumentMatchers.eq(1.5), ArgumentMatchers.eq(10));
+    }
+
+    private Object claimed(RowMapper<Object> rowMapper) throws Exception {
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        Mockito.when(rs.getObject("id", UUID.class)).thenReturn(eventId);
+        Mockito.when(rs.getObject("aggregate_id", UUID.class)).thenReturn(UUID.randomUUID());
+        Mockito.when(rs.getString("aggregate_type")).thenReturn("order");
+        Mockito.when(rs.getString("event_type")).thenReturn(TYPE);
+        Mockito.when(rs.getString("payload")).thenReturn("{}");
+        Mockito.when(rs.getInt("attempts")).thenReturn(attempts);
+        Mockito.when(rs.getTimestamp("created_at")).thenReturn(new Timestamp(System.currentTimeMillis()));
+        return rowMapper.mapRow(rs, 0);
+    }
+}
@@ -0,0 +1,113 @@
+package com.oktech.boasaude.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.oktech.boasaude.dto.CreateUserDto;
+import com.oktech.boasaude.entity.Product;
+import com.oktech.boasaude.entity.Shop;
+import com.oktech.boasaude.entity.User;
+import com.oktech.boasaude.repository.OrderRepository;
+import com.oktech.boasaude.repository.OutboxEventRepository;
+import com.oktech.boasaude.repository.ProductRepository;
+import com.oktech.boasaude.repository.ShopRepository;
+import com.oktech.boasaude.repository.UserRepository;
+
+/**
+ * Base dos testes que rodam contra um H2 em memória com o schema gerado pelo
+ * Hibernate. Os testes não rodam dentro de uma transação, para que commits e
+ * concorrência se comportem como em produção: os dados são montados com
+ * {@link #transactionTemplate} e apagados depois de cada teste.
+ * Cada subclasse informa a própria spring.datasource.url, para que contextos
+ * diferentes não dividam o mesmo banco.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class H2RepositoryTestSupport {
+
+    protected static final String CPF = "12345678901";
+
+    protected static final String CNPJ = "12345678000199";
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected ShopRepository shopRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected OrderRepository orderRepository;
+
+    @Autowired
+    protected OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void deleteFixture() {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxEventRepository.deleteAll();
+            orderRepository.deleteAll();
+            productRepository.deleteAll();
+            shopRepository.deleteAll();
+            userRepository.deleteAll();
+        });
+    }
+
+    /**
+     * @return Usuário salvo com o CPF padrão dos testes.
+     */
+    protected User user(String email) {
+        User user = new User(new CreateUserDto("Buyer", email, CPF, "1234567890", "secret"));
+        user.setPassword("encodedPassword");
+        return userRepository.save(user);
+    }
+
+    /**
+     * @return Loja salva com o CNPJ padrão dos testes.
+     */
+    protected Shop shop(User owner) {
+        return shop(owner, "Shop", CNPJ);
+    }
+
+    protected Shop shop(User owner, String name, String cnpj) {
+        Shop shop = new Shop();
+        shop.setName(name);
+        shop.setCnpj(cnpj);
+        shop.setOwner(owner);
+        return shopRepository.save(shop);
+    }
+
+    protected Product product(Shop shop, String name, int price, int stock) {
+        Product product = new Product();
+        product.setShop(shop);
+        product.setName(name);
+        product.setPrice(price);
+        product.setStock(stock);
+        return productRepository.save(product);
+    }
+}
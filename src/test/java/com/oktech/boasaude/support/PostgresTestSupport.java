@@ -0,0 +1,86 @@
+package com.oktech.boasaude.support;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Base dos testes de SQL próprio do Postgres (CTEs que alteram dados,
+ * partições, make_interval), que o H2 não executa. Só rodam com
+ * TEST_POSTGRES_URL apontando para um banco descartável, com usuário e senha
+ * em TEST_POSTGRES_USER e TEST_POSTGRES_PASSWORD; sem ela, são ignorados.
+ * O schema é apagado e recriado pelas migrações do Flyway antes de cada classe.
+ */
+public abstract class PostgresTestSupport {
+
+    protected static DataSource dataSource;
+
+    protected static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        String url = System.getenv("TEST_POSTGRES_URL");
+        Assumptions.assumeTrue(url != null && !url.isBlank(), "TEST_POSTGRES_URL not set");
+        dataSource = new DriverManagerDataSource(url, System.getenv("TEST_POSTGRES_USER"),
+                System.getenv("TEST_POSTGRES_PASSWORD"));
+        Flyway flyway = Flyway.configure().dataSource(dataSource).cleanDisabled(false).load();
+        flyway.clean();
+        flyway.migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * @return ID de um usuário novo.
+     */
+    protected static UUID insertUser() {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO users (id, name, email, cpf, password, auth_provider, role)
+                VALUES (?, 'Buyer', ?, ?, 'encodedPassword', 'LOCAL', 'USER')
+                """, id, id + "@test.com", id.toString().substring(0, 11));
+        return id;
+    }
+
+    /**
+     * @return ID de um produto novo, numa loja nova do usuário.
+     */
+    protected static UUID insertProduct(UUID ownerId, int price, int stock) {
+        UUID shopId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO shops (id, name, cnpj, owner_id) VALUES (?, 'Shop', ?, ?)",
+                shopId, shopId.toString().substring(0, 14), ownerId);
+        UUID productId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO products (id, shop_id, name, price, stock) VALUES (?, ?, 'Product', ?, ?)",
+                productId, shopId, price, stock);
+        return productId;
+    }
+
+    /**
+     * Grava um pedido com um item, como a criação de pedidos faria.
+     *
+     * @return ID do pedido.
+     */
+    protected static UUID insertOrder(UUID userId, UUID productId, int quantity, String status,
+            LocalDateTime createdAt) {
+        UUID orderId = UUID.randomUUID();
+        Timestamp created = Timestamp.valueOf(createdAt);
+        int price = jdbcTemplate.queryForObject("SELECT price FROM products WHERE id = ?", Integer.class, productId);
+        jdbcTemplate.update("""
+                INSERT INTO orders (id, user_id, status, total_cents, created_at)
+                VALUES (?, ?, ?, ?, ?)
+                """, orderId, userId, status, (long) price * quantity, created);
+        jdbcTemplate.update("""
+                INSERT INTO order_items (order_id, product_id, quantity, unit_price_cents, product_name, shop_id,
+                                         order_status, created_at, line_number)
+                SELECT ?, id, ?, price, name, shop_id, ?, ?, 1 FROM products WHERE id = ?
+                """, orderId, quantity, status, created, productId);
+        return orderId;
+    }
+}